@@ -59,7 +59,7 @@ public abstract class Answerer {
               (TableAnswerElement) deltaAnswer,
               _question.getIncludeOneTableKeys());
       TableAnswerElement finalTable = new TableAnswerElement(rawTable.getMetadata());
-      finalTable.postProcessAnswer(_question, rawTable.getRows().getData());
+      finalTable.postProcessAnswer(_question, rawTable.getRowsList());
       return finalTable;
     } else {
       throw new UnsupportedOperationException("Comparison mode not implemented for this question");
@@ -0,0 +1,38 @@
+package org.batfish.common;
+
+/**
+ * Indicates that a job stopped early because the thread running it was interrupted, e.g., because
+ * the job was cancelled or exceeded its maximum runtime.
+ *
+ * <p>Jobs check for interruption at phase boundaries with {@link #checkNotInterrupted(String)}, so
+ * that they stop cooperatively and never leave shared state, such as caches, half-updated.
+ */
+public class BatfishInterruptedException extends CleanBatfishException {
+
+  public BatfishInterruptedException(String msg) {
+    super(msg);
+  }
+
+  /**
+   * Throws a {@link BatfishInterruptedException} if the current thread was interrupted. The
+   * interrupted status is left set, so that later checks also fail.
+   *
+   * @param phase the phase about to begin, for the error message
+   */
+  public static void checkNotInterrupted(String phase) {
+    checkNotInterrupted(Thread.currentThread(), phase);
+  }
+
+  /**
+   * Throws a {@link BatfishInterruptedException} if {@code thread} was interrupted. For work that a
+   * job fans out to other threads, e.g., with a parallel stream, which must check the thread of the
+   * job rather than their own.
+   *
+   * @param phase the phase about to begin, for the error message
+   */
+  public static void checkNotInterrupted(Thread thread, String phase) {
+    if (thread.isInterrupted()) {
+      throw new BatfishInterruptedException(String.format("Interrupted before %s", phase));
+    }
+  }
+}
@@ -14,4 +14,18 @@ public interface BatfishWorkerService {
 
   /** Launch the task defined by args that has the given taskId. */
   LaunchResult runTask(String taskId, String[] args);
+
+  /**
+   * Request cancellation of the running task that has the given taskId. Returns {@code false} if
+   * there is no such running task, or if this service does not support cancellation.
+   */
+  default boolean killTask(String taskId) {
+    return false;
+  }
+
+  /**
+   * Register a listener to be called whenever a task launched by this service terminates. Services
+   * that do not support this never call the listener, so clients must still poll task status.
+   */
+  default void addTaskTerminationListener(Runnable listener) {}
 }
@@ -80,8 +80,12 @@ public final class ColumnFilter {
   }
 
   public boolean matches(@Nonnull Row row) {
-    String rowText = row.get(_column).toString();
-    return _pattern.matcher(rowText).find();
+    return matchesText(row.get(_column).toString());
+  }
+
+  /** Returns {@code true} if the given text of this filter's column in some row matches. */
+  public boolean matchesText(@Nonnull String columnText) {
+    return _pattern.matcher(columnText).find();
   }
 
   @Override
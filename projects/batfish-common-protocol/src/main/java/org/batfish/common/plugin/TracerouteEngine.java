@@ -1,12 +1,17 @@
 package org.batfish.common.plugin;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.function.BiConsumer;
 import org.batfish.common.traceroute.TraceDag;
 import org.batfish.common.util.CollectionUtil;
 import org.batfish.datamodel.Flow;
@@ -64,4 +69,31 @@ public interface TracerouteEngine {
   /** Computes {@link TraceDag} for a {@link Set} of forward {@link Flow Flows}. */
   Map<Flow, TraceDag> computeTraceDags(
       Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters);
+
+  /**
+   * Computes {@link TraceDag TraceDags} for the forward {@link Flow Flows} of {@code flows} in
+   * batches, passing each to {@code consumer} as soon as its batch is done. Only one batch of DAGs
+   * is held in memory at a time, so the number of flows is bounded only by what {@code consumer}
+   * retains.
+   *
+   * <p>{@code consumer} is called from the calling thread, in the order of {@code flows}. Repeated
+   * flows within a batch are traced and consumed once.
+   *
+   * @param batchSize the maximum number of flows traced (in parallel) at once
+   */
+  default void computeTraceDags(
+      Iterator<Flow> flows,
+      Set<FirewallSessionTraceInfo> sessions,
+      boolean ignoreFilters,
+      int batchSize,
+      BiConsumer<Flow, TraceDag> consumer) {
+    checkArgument(batchSize > 0, "batchSize must be positive: %s", batchSize);
+    Iterators.partition(flows, batchSize)
+        .forEachRemaining(
+            batch -> {
+              Set<Flow> batchFlows = ImmutableSet.copyOf(batch);
+              Map<Flow, TraceDag> traceDags = computeTraceDags(batchFlows, sessions, ignoreFilters);
+              batchFlows.forEach(flow -> consumer.accept(flow, traceDags.get(flow)));
+            });
+  }
 }
@@ -11,6 +11,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Ordering;
+import com.google.errorprone.annotations.concurrent.LazyInit;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.Arrays;
@@ -20,6 +21,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.apache.commons.lang3.StringUtils;
+import org.batfish.common.util.PatternProvider;
 
 @ParametersAreNonnullByDefault
 public final class AsPath implements Serializable, Comparable<AsPath> {
@@ -48,6 +50,9 @@ public final class AsPath implements Serializable, Comparable<AsPath> {
 
   private final List<AsSet> _asSets;
 
+  @LazyInit private transient String _asPathString;
+  @LazyInit private transient int _hashCode;
+
   // Soft values: let it be garbage collected in times of pressure.
   // Maximum size 2^16: Just some upper bound on cache size, well less than GiB.
   //   (24 bytes seems smallest possible entry (list(set(long)), would be 1.5 MiB total).
@@ -57,6 +62,45 @@ public final class AsPath implements Serializable, Comparable<AsPath> {
           .maximumSize(1 << 16)
           .build(CacheLoader.from(AsPath::new));
 
+  /** A path and a regex to match against it. */
+  private static final class RegexMatch {
+    private final @Nonnull AsPath _path;
+    private final @Nonnull String _regex;
+
+    private RegexMatch(AsPath path, String regex) {
+      _path = path;
+      _regex = regex;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      } else if (!(obj instanceof RegexMatch)) {
+        return false;
+      }
+      RegexMatch other = (RegexMatch) obj;
+      return _path.equals(other._path) && _regex.equals(other._regex);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * _path.hashCode() + _regex.hashCode();
+    }
+  }
+
+  // Memoized results of matchesRegex, shared by all paths so that the memo is bounded as a whole.
+  // Maximum size 2^17: an entry is on the order of 100 bytes, so about 12 MiB total.
+  private static final LoadingCache<RegexMatch, Boolean> REGEX_MATCHES =
+      CacheBuilder.newBuilder()
+          .maximumSize(1 << 17)
+          .build(
+              CacheLoader.from(
+                  match ->
+                      PatternProvider.fromString(match._regex)
+                          .matcher(match._path.getAsPathString())
+                          .find()));
+
   private AsPath(ImmutableList<AsSet> asSets) {
     _asSets = asSets;
   }
@@ -143,7 +187,21 @@ public final class AsPath implements Serializable, Comparable<AsPath> {
   }
 
   public String getAsPathString() {
-    return StringUtils.join(_asSets, " ");
+    String asPathString = _asPathString;
+    if (asPathString == null) {
+      asPathString = StringUtils.join(_asSets, " ");
+      _asPathString = asPathString;
+    }
+    return asPathString;
+  }
+
+  /**
+   * Returns {@code true} iff the given Java regex matches some part of the {@link
+   * #getAsPathString() string form} of this path. Results are memoized per path and regex, in a
+   * bounded cache shared by all paths.
+   */
+  public boolean matchesRegex(String regex) {
+    return REGEX_MATCHES.getUnchecked(new RegexMatch(this, regex));
   }
 
   @JsonValue
@@ -153,7 +211,12 @@ public final class AsPath implements Serializable, Comparable<AsPath> {
 
   @Override
   public int hashCode() {
-    return _asSets.hashCode();
+    int h = _hashCode;
+    if (h == 0) {
+      h = _asSets.hashCode();
+      _hashCode = h;
+    }
+    return h;
   }
 
   public int size() {
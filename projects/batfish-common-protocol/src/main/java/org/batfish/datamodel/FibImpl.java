@@ -6,10 +6,13 @@ import static org.batfish.datamodel.Names.generatedTenantVniInterfaceName;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
+import com.google.common.collect.ImmutableSortedMap;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -91,27 +94,97 @@ public final class FibImpl implements Fib {
 
   private static final int MAX_DEPTH = 10;
 
-  /** This trie is the source of truth for all resolved FIB routes */
-  @Nonnull private final PrefixTrieMultiMap<FibEntry> _root;
+  private static final int NO_PREFIX = -1;
+
+  /** The prefixes of all resolved FIB routes, in ascending order. */
+  @Nonnull private final List<Prefix> _prefixes;
+
+  /** The FIB entries for each prefix in {@link #_prefixes}, at the same index. */
+  @Nonnull private final List<Set<FibEntry>> _prefixEntries;
+
+  /**
+   * First IP, as an unsigned int, of each interval in a partition of the IP address space into
+   * intervals with the same longest-prefix match. Ascending.
+   */
+  @Nonnull private final int[] _intervalStarts;
+
+  /**
+   * Index in {@link #_prefixes} of the longest prefix matching each interval in {@link
+   * #_intervalStarts}, or {@link #NO_PREFIX} if no prefix matches the interval.
+   */
+  @Nonnull private final int[] _intervalPrefixes;
 
   private transient Supplier<Set<FibEntry>> _entries;
 
   public <R extends AbstractRouteDecorator> FibImpl(
       GenericRib<R> rib, ResolutionRestriction<R> restriction) {
-    _root = new PrefixTrieMultiMap<>();
+    PrefixTrieMultiMap<FibEntry> trie = new PrefixTrieMultiMap<>();
     rib.getTypedRoutes().stream()
         .map(AbstractRouteDecorator::getAbstractRoute)
         .filter(r -> !r.getNonForwarding())
-        .forEach(r -> _root.putAll(r.getNetwork(), resolveRoute(rib, r, restriction)));
+        .forEach(r -> trie.putAll(r.getNetwork(), resolveRoute(rib, r, restriction)));
+    ImmutableSortedMap.Builder<Prefix, Set<FibEntry>> entriesByPrefix =
+        ImmutableSortedMap.naturalOrder();
+    trie.traverseEntries(entriesByPrefix::put);
+    ImmutableSortedMap<Prefix, Set<FibEntry>> sortedEntries = entriesByPrefix.build();
+    _prefixes = ImmutableList.copyOf(sortedEntries.keySet());
+    _prefixEntries = ImmutableList.copyOf(sortedEntries.values());
+
+    // Sweep the prefixes in ascending order, tracking the prefixes containing the current IP.
+    int maxIntervals = 2 * _prefixes.size() + 1;
+    int[] starts = new int[maxIntervals];
+    int[] matches = new int[maxIntervals];
+    int numIntervals = addInterval(starts, matches, 0, Ip.ZERO.asLong(), NO_PREFIX);
+    int[] containing = new int[Prefix.MAX_PREFIX_LENGTH + 1];
+    int depth = 0;
+    for (int i = 0; i <= _prefixes.size(); i++) {
+      long nextStart =
+          i < _prefixes.size() ? _prefixes.get(i).getStartIp().asLong() : Ip.MAX.asLong() + 1;
+      // leave the containing prefixes that end before the next prefix
+      while (depth > 0 && _prefixes.get(containing[depth - 1]).getEndIp().asLong() < nextStart) {
+        long end = _prefixes.get(containing[--depth]).getEndIp().asLong();
+        int enclosing = depth > 0 ? containing[depth - 1] : NO_PREFIX;
+        numIntervals = addInterval(starts, matches, numIntervals, end + 1, enclosing);
+      }
+      if (i < _prefixes.size()) {
+        numIntervals = addInterval(starts, matches, numIntervals, nextStart, i);
+        containing[depth++] = i;
+      }
+    }
+    _intervalStarts = Arrays.copyOf(starts, numIntervals);
+    _intervalPrefixes = Arrays.copyOf(matches, numIntervals);
     initSuppliers();
   }
 
+  /**
+   * Appends an interval starting at {@code start} whose longest match is the prefix at index {@code
+   * match}, replacing the last interval if it starts at the same IP and merging with the previous
+   * interval if it has the same match. Returns the new number of intervals.
+   */
+  private static int addInterval(int[] starts, int[] matches, int size, long start, int match) {
+    if (start > Ip.MAX.asLong()) {
+      return size;
+    }
+    int newSize = size;
+    if (newSize > 0 && Integer.toUnsignedLong(starts[newSize - 1]) == start) {
+      newSize--;
+    }
+    if (newSize > 0 && matches[newSize - 1] == match) {
+      return newSize;
+    }
+    starts[newSize] = (int) start;
+    matches[newSize] = match;
+    return newSize + 1;
+  }
+
   private void initSuppliers() {
     _entries = Suppliers.memoize(this::computeEntries);
   }
 
   private Set<FibEntry> computeEntries() {
-    return _root.getAllElements();
+    ImmutableSet.Builder<FibEntry> entries = ImmutableSet.builder();
+    _prefixEntries.forEach(entries::addAll);
+    return entries.build();
   }
 
   @Nonnull
@@ -300,7 +373,30 @@ public final class FibImpl implements Fib {
   @Nonnull
   @Override
   public Set<FibEntry> get(Ip ip) {
-    return _root.longestPrefixMatch(ip);
+    int match = _intervalPrefixes[intervalIndex(ip)];
+    return match == NO_PREFIX ? ImmutableSet.of() : _prefixEntries.get(match);
+  }
+
+  /** Returns the index of the interval containing the given IP. */
+  private int intervalIndex(Ip ip) {
+    int key = (int) ip.asLong();
+    // the first interval starts at 0, so search for the last interval starting at or before key
+    int low = 0;
+    int high = _intervalStarts.length - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (Integer.compareUnsigned(_intervalStarts[mid], key) <= 0) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  @VisibleForTesting
+  int getNumIntervals() {
+    return _intervalStarts.length;
   }
 
   @Nonnull
@@ -313,7 +409,11 @@ public final class FibImpl implements Fib {
      * the matching Ips of the prefix, whitelist the prefix and blacklist the IPs matched by
      * subtrie prefixes (i.e. longer prefixes).
      */
-    _root.fold(
+    PrefixTrieMultiMap<FibEntry> trie = new PrefixTrieMultiMap<>();
+    for (int i = 0; i < _prefixes.size(); i++) {
+      trie.putAll(_prefixes.get(i), _prefixEntries.get(i));
+    }
+    trie.fold(
         new FoldOperator<FibEntry, Set<IpWildcard>>() {
           @Nonnull
           @Override
@@ -10,6 +10,7 @@ import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.concurrent.LazyInit;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
@@ -34,6 +35,8 @@ public class RouteFilterList implements Serializable {
 
   private final Supplier<Set<Prefix>> _deniedCache;
 
+  @LazyInit private transient RouteFilterListIndex _index;
+
   @Nonnull private List<RouteFilterLine> _lines;
 
   @Nullable private final String _name;
@@ -80,6 +83,7 @@ public class RouteFilterList implements Serializable {
 
   public void addLine(RouteFilterLine r) {
     _lines = ImmutableList.<RouteFilterLine>builder().addAll(_lines).add(r).build();
+    _index = null;
   }
 
   @Override
@@ -117,18 +121,18 @@ public class RouteFilterList implements Serializable {
     return _vendorStructureId;
   }
 
-  private boolean evaluatePrefix(Prefix prefix) {
-    boolean accept = false;
-    for (RouteFilterLine line : _lines) {
-      if (line.getIpWildcard().containsIp(prefix.getStartIp())) {
-        int prefixLength = prefix.getPrefixLength();
-        SubRange range = line.getLengthRange();
-        if (prefixLength >= range.getStart() && prefixLength <= range.getEnd()) {
-          accept = line.getAction() == LineAction.PERMIT;
-          break;
-        }
-      }
+  private @Nonnull RouteFilterListIndex getIndex() {
+    RouteFilterListIndex index = _index;
+    if (index == null) {
+      index = RouteFilterListIndex.create(_lines);
+      _index = index;
     }
+    return index;
+  }
+
+  private boolean evaluatePrefix(Prefix prefix) {
+    RouteFilterLine line = getIndex().firstMatchingLine(prefix);
+    boolean accept = line != null && line.getAction() == LineAction.PERMIT;
     if (accept) {
       _permittedCache.get().add(prefix);
     } else {
@@ -171,6 +175,7 @@ public class RouteFilterList implements Serializable {
   /** Set the list of lines against which to match a route's prefix. */
   public void setLines(@Nonnull List<RouteFilterLine> lines) {
     _lines = lines;
+    _index = null;
   }
 
   /**
@@ -0,0 +1,121 @@
+package org.batfish.datamodel;
+
+import com.google.common.primitives.ImmutableIntArray;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * An index of the lines of a {@link RouteFilterList}, for finding the first line matching a prefix
+ * without walking every line.
+ *
+ * <p>Lines whose {@link IpWildcard} is a prefix are grouped by the length and network of that
+ * prefix. Such a line can only match a prefix whose start IP is in its network, so the candidate
+ * lines for a prefix are found with one binary search per distinct line prefix length. The
+ * remaining lines are checked for every prefix.
+ */
+@ParametersAreNonnullByDefault
+final class RouteFilterListIndex {
+
+  static @Nonnull RouteFilterListIndex create(List<RouteFilterLine> lines) {
+    // for prefixes, ordering masks orders lengths
+    SortedMap<Long, SortedMap<Long, ImmutableIntArray.Builder>> linesByMaskAndNetwork =
+        new TreeMap<>();
+    ImmutableIntArray.Builder unindexedLines = ImmutableIntArray.builder();
+    for (int i = 0; i < lines.size(); i++) {
+      IpWildcard wildcard = lines.get(i).getIpWildcard();
+      if (!wildcard.isPrefix()) {
+        unindexedLines.add(i);
+        continue;
+      }
+      long mask = wildcard.getMask();
+      linesByMaskAndNetwork
+          .computeIfAbsent(mask, m -> new TreeMap<>())
+          .computeIfAbsent(wildcard.getIp().asLong() & mask, n -> ImmutableIntArray.builder())
+          .add(i);
+    }
+
+    int numMasks = linesByMaskAndNetwork.size();
+    long[] masks = new long[numMasks];
+    long[][] networks = new long[numMasks][];
+    int[][][] networkLines = new int[numMasks][][];
+    int l = 0;
+    for (Map.Entry<Long, SortedMap<Long, ImmutableIntArray.Builder>> byMask :
+        linesByMaskAndNetwork.entrySet()) {
+      SortedMap<Long, ImmutableIntArray.Builder> byNetwork = byMask.getValue();
+      masks[l] = byMask.getKey();
+      networks[l] = byNetwork.keySet().stream().mapToLong(Long::longValue).toArray();
+      networkLines[l] =
+          byNetwork.values().stream().map(b -> b.build().toArray()).toArray(int[][]::new);
+      l++;
+    }
+    return new RouteFilterListIndex(
+        lines, masks, networks, networkLines, unindexedLines.build().toArray());
+  }
+
+  private RouteFilterListIndex(
+      List<RouteFilterLine> lines,
+      long[] masks,
+      long[][] networks,
+      int[][][] networkLines,
+      int[] unindexedLines) {
+    _lines = lines;
+    _masks = masks;
+    _networks = networks;
+    _networkLines = networkLines;
+    _unindexedLines = unindexedLines;
+  }
+
+  /**
+   * Returns the first line whose {@link IpWildcard} contains the start IP of {@code prefix} and
+   * whose length range contains its length, or {@code null} if there is no such line.
+   */
+  @Nullable
+  RouteFilterLine firstMatchingLine(Prefix prefix) {
+    Ip startIp = prefix.getStartIp();
+    int prefixLength = prefix.getPrefixLength();
+    int first = Integer.MAX_VALUE;
+    for (int l = 0; l < _masks.length; l++) {
+      int n = Arrays.binarySearch(_networks[l], startIp.asLong() & _masks[l]);
+      if (n < 0) {
+        continue;
+      }
+      for (int line : _networkLines[l][n]) {
+        if (line >= first) {
+          break;
+        }
+        if (_lines.get(line).getLengthRange().includes(prefixLength)) {
+          first = line;
+          break;
+        }
+      }
+    }
+    for (int line : _unindexedLines) {
+      if (line >= first) {
+        break;
+      }
+      RouteFilterLine routeFilterLine = _lines.get(line);
+      if (routeFilterLine.getIpWildcard().containsIp(startIp)
+          && routeFilterLine.getLengthRange().includes(prefixLength)) {
+        first = line;
+        break;
+      }
+    }
+    return first == Integer.MAX_VALUE ? null : _lines.get(first);
+  }
+
+  private final @Nonnull List<RouteFilterLine> _lines;
+  /** The distinct masks of the lines whose wildcard is a prefix, by increasing length. */
+  private final @Nonnull long[] _masks;
+  /** For each mask, the sorted distinct networks of the lines with that mask. */
+  private final @Nonnull long[][] _networks;
+  /** For each mask and network, the indices of the lines with that mask and network, in order. */
+  private final @Nonnull int[][][] _networkLines;
+  /** The indices of the lines whose wildcard is not a prefix, in order. */
+  private final @Nonnull int[] _unindexedLines;
+}
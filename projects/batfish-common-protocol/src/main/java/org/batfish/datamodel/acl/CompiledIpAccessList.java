@@ -0,0 +1,292 @@
+package org.batfish.datamodel.acl;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.BoundType;
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+import com.google.common.primitives.ImmutableIntArray;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.AclLine;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.visitors.IpSpaceDereferencer;
+import org.batfish.datamodel.visitors.IpSpaceToRangeSet;
+
+/**
+ * A form of an {@link IpAccessList} compiled for filtering many concrete {@link Flow flows}.
+ *
+ * <p>The destination IPs each line can match are computed once, and the IPv4 address space is
+ * split into intervals, each labeled with the lines that can match destinations in it. Filtering a
+ * flow finds the interval of its destination IP by binary search, and evaluates only the lines of
+ * that interval in order, so lines that cannot match the flow are never walked. Lines whose
+ * destination IPs are unconstrained or cannot be determined, e.g. lines referencing other ACLs, are
+ * evaluated for every flow.
+ *
+ * <p>{@link #filter} returns the same {@link FilterResult} as {@link IpAccessList#filter}, so trace
+ * elements for the matching line can still be reconstructed with {@link AclTracer} when needed.
+ */
+@ParametersAreNonnullByDefault
+public final class CompiledIpAccessList {
+
+  /**
+   * Maximum number of line labels per line of the ACL. If the destinations of the lines overlap so
+   * much that labeling the intervals would exceed this, every line is evaluated for every flow.
+   */
+  private static final int MAX_LABELS_PER_LINE = 64;
+
+  /**
+   * Compiles the given {@link IpAccessList}.
+   *
+   * @param acl The ACL to compile
+   * @param namedIpSpaces The named {@link IpSpace IpSpaces} the ACL will be evaluated with
+   */
+  public static @Nonnull CompiledIpAccessList compile(
+      IpAccessList acl, Map<String, IpSpace> namedIpSpaces) {
+    List<AclLine> lines = acl.getLines();
+    DstIps dstIpsVisitor = new DstIps(namedIpSpaces);
+    List<RangeSet<Ip>> lineDstIps = new ArrayList<>(lines.size());
+    ImmutableIntArray.Builder unindexedLines = ImmutableIntArray.builder();
+    for (int i = 0; i < lines.size(); i++) {
+      AclLine line = lines.get(i);
+      RangeSet<Ip> dstIps =
+          line instanceof ExprAclLine
+              ? dstIpsVisitor.visit(((ExprAclLine) line).getMatchCondition())
+              : null;
+      if (dstIps != null && dstIps.encloses(Range.closed(Ip.ZERO, Ip.MAX))) {
+        dstIps = null;
+      }
+      if (dstIps == null) {
+        unindexedLines.add(i);
+      }
+      lineDstIps.add(dstIps);
+    }
+
+    long[] intervalStarts =
+        LongStream.concat(
+                LongStream.of(Ip.ZERO.asLong()),
+                lineDstIps.stream()
+                    .filter(dstIps -> dstIps != null)
+                    .flatMap(dstIps -> dstIps.asRanges().stream())
+                    .flatMapToLong(
+                        range -> LongStream.of(firstIp(range), lastIp(range) + 1)))
+            .filter(ip -> ip <= Ip.MAX.asLong())
+            .sorted()
+            .distinct()
+            .toArray();
+    List<ImmutableIntArray.Builder> labels = new ArrayList<>(intervalStarts.length);
+    for (int i = 0; i < intervalStarts.length; i++) {
+      labels.add(ImmutableIntArray.builder());
+    }
+    long numLabels = 0;
+    for (int i = 0; i < lines.size(); i++) {
+      RangeSet<Ip> dstIps = lineDstIps.get(i);
+      if (dstIps == null) {
+        continue;
+      }
+      for (Range<Ip> range : dstIps.asRanges()) {
+        long last = lastIp(range);
+        for (int interval = Arrays.binarySearch(intervalStarts, firstIp(range));
+            interval < intervalStarts.length && intervalStarts[interval] <= last;
+            interval++) {
+          labels.get(interval).add(i);
+          numLabels++;
+        }
+      }
+      if (numLabels > (long) MAX_LABELS_PER_LINE * lines.size()) {
+        return new CompiledIpAccessList(
+            acl,
+            new long[] {Ip.ZERO.asLong()},
+            new int[][] {new int[0]},
+            IntStream.range(0, lines.size()).toArray());
+      }
+    }
+    return new CompiledIpAccessList(
+        acl,
+        intervalStarts,
+        labels.stream().map(b -> b.build().toArray()).toArray(int[][]::new),
+        unindexedLines.build().toArray());
+  }
+
+  private static long firstIp(Range<Ip> range) {
+    long ip = range.lowerEndpoint().asLong();
+    return range.lowerBoundType() == BoundType.CLOSED ? ip : ip + 1;
+  }
+
+  private static long lastIp(Range<Ip> range) {
+    long ip = range.upperEndpoint().asLong();
+    return range.upperBoundType() == BoundType.CLOSED ? ip : ip - 1;
+  }
+
+  private CompiledIpAccessList(
+      IpAccessList acl, long[] intervalStarts, int[][] intervalLines, int[] unindexedLines) {
+    _acl = acl;
+    _intervalStarts = intervalStarts;
+    _intervalLines = intervalLines;
+    _unindexedLines = unindexedLines;
+  }
+
+  /** Returns the compiled {@link IpAccessList}. */
+  public @Nonnull IpAccessList getAcl() {
+    return _acl;
+  }
+
+  /**
+   * Filters the given {@link Flow}, with the same result as {@link IpAccessList#filter}.
+   *
+   * @param flow The flow to filter
+   * @param srcInterface The interface the flow entered, or {@code null} if it originated on the
+   *     device
+   * @param availableAcls The ACLs that may be referenced by the compiled ACL
+   * @param namedIpSpaces The named {@link IpSpace IpSpaces} the ACL was compiled with
+   */
+  public @Nonnull FilterResult filter(
+      Flow flow,
+      @Nullable String srcInterface,
+      Map<String, IpAccessList> availableAcls,
+      Map<String, IpSpace> namedIpSpaces) {
+    List<AclLine> lines = _acl.getLines();
+    int[] intervalLines = _intervalLines[interval(flow.getDstIp())];
+    AclLineEvaluator lineEvaluator =
+        new AclLineEvaluator(flow, srcInterface, availableAcls, namedIpSpaces);
+    // evaluate the lines labeling the interval and the unindexed lines, merged in line order
+    int i = 0;
+    int j = 0;
+    while (i < intervalLines.length || j < _unindexedLines.length) {
+      int line =
+          j == _unindexedLines.length
+                  || (i < intervalLines.length && intervalLines[i] < _unindexedLines[j])
+              ? intervalLines[i++]
+              : _unindexedLines[j++];
+      LineAction action = lineEvaluator.visit(lines.get(line));
+      if (action != null) {
+        return new FilterResult(line, action);
+      }
+    }
+    return new FilterResult(null, LineAction.DENY);
+  }
+
+  /** Returns the index of the interval containing the given IP. */
+  private int interval(Ip ip) {
+    int index = Arrays.binarySearch(_intervalStarts, ip.asLong());
+    return index >= 0 ? index : -index - 2;
+  }
+
+  @VisibleForTesting
+  int getNumIntervals() {
+    return _intervalStarts.length;
+  }
+
+  /**
+   * Over-approximates the destination IPs an {@link AclLineMatchExpr} can match. Returns {@code
+   * null} if the destination IPs are unconstrained or cannot be determined.
+   */
+  private static final class DstIps implements GenericAclLineMatchExprVisitor<RangeSet<Ip>> {
+    private final Map<String, IpSpace> _namedIpSpaces;
+
+    private DstIps(Map<String, IpSpace> namedIpSpaces) {
+      _namedIpSpaces = namedIpSpaces;
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitAndMatchExpr(AndMatchExpr andMatchExpr) {
+      RangeSet<Ip> dstIps = null;
+      for (AclLineMatchExpr conjunct : andMatchExpr.getConjuncts()) {
+        RangeSet<Ip> conjunctDstIps = visit(conjunct);
+        if (conjunctDstIps == null) {
+          continue;
+        }
+        if (dstIps == null) {
+          dstIps = TreeRangeSet.create(conjunctDstIps);
+        } else {
+          dstIps.removeAll(conjunctDstIps.complement());
+        }
+      }
+      return dstIps;
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitDeniedByAcl(DeniedByAcl deniedByAcl) {
+      return null;
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitFalseExpr(FalseExpr falseExpr) {
+      return ImmutableRangeSet.of();
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitMatchHeaderSpace(MatchHeaderSpace matchHeaderSpace) {
+      IpSpace dstIps = matchHeaderSpace.getHeaderspace().getDstIps();
+      if (dstIps == null) {
+        return null;
+      }
+      try {
+        return IpSpaceToRangeSet.toRangeSet(
+            dstIps.accept(new IpSpaceDereferencer(_namedIpSpaces)));
+      } catch (BatfishException | UnsupportedOperationException e) {
+        // undefined or circular reference, or an IpSpace with no equivalent RangeSet
+        return null;
+      }
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitMatchSrcInterface(MatchSrcInterface matchSrcInterface) {
+      return null;
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitNotMatchExpr(NotMatchExpr notMatchExpr) {
+      return null;
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitOriginatingFromDevice(
+        OriginatingFromDevice originatingFromDevice) {
+      return null;
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitOrMatchExpr(OrMatchExpr orMatchExpr) {
+      RangeSet<Ip> dstIps = TreeRangeSet.create();
+      for (AclLineMatchExpr disjunct : orMatchExpr.getDisjuncts()) {
+        RangeSet<Ip> disjunctDstIps = visit(disjunct);
+        if (disjunctDstIps == null) {
+          return null;
+        }
+        dstIps.addAll(disjunctDstIps);
+      }
+      return dstIps;
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitPermittedByAcl(PermittedByAcl permittedByAcl) {
+      return null;
+    }
+
+    @Override
+    public @Nullable RangeSet<Ip> visitTrueExpr(TrueExpr trueExpr) {
+      return null;
+    }
+  }
+
+  private final @Nonnull IpAccessList _acl;
+  private final @Nonnull long[] _intervalStarts;
+  private final @Nonnull int[][] _intervalLines;
+  private final @Nonnull int[] _unindexedLines;
+}
@@ -1,5 +1,6 @@
 package org.batfish.datamodel.answers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -18,7 +19,7 @@ import org.batfish.common.BatfishLogger;
 import org.batfish.common.util.CollectionUtil;
 import org.batfish.datamodel.table.ColumnMetadata;
 import org.batfish.datamodel.table.ExcludedRows;
-import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.Rows;
 import org.batfish.datamodel.table.TableAnswerElement;
 
 public final class AnswerMetadataUtil {
@@ -98,17 +99,19 @@ public final class AnswerMetadataUtil {
       throw new IllegalArgumentException(message);
     }
     Schema schema = columnMetadata.getSchema();
-    Function<Row, Integer> rowToInteger;
+    Function<JsonNode, Integer> cellToInteger;
     if (schema.equals(Schema.INTEGER)) {
-      rowToInteger = r -> r.getInteger(column);
+      cellToInteger = cell -> (Integer) SchemaUtils.convertType(cell, Schema.INTEGER);
     } else if (schema.equals(Schema.ISSUE)) {
-      rowToInteger = r -> r.getIssue(column).getSeverity();
+      cellToInteger = cell -> ((Issue) SchemaUtils.convertType(cell, Schema.ISSUE)).getSeverity();
     } else {
       // unsupported
       return null;
     }
-    return table.getRows().getData().stream()
-        .map(rowToInteger)
+    // duplicate rows cannot change the max
+    Rows rows = table.getRows();
+    return rows.getDistinctCells(column)
+        .map(cellToInteger)
         .filter(Objects::nonNull)
         .max(Comparator.naturalOrder())
         .orElse(null);
@@ -117,7 +120,7 @@ public final class AnswerMetadataUtil {
   @VisibleForTesting
   static Set<String> computeEmptyColumns(TableAnswerElement table) {
     return table.getMetadata().toColumnMap().keySet().stream()
-        .filter(column -> table.getRowsList().stream().allMatch(row -> !row.hasNonNull(column)))
+        .filter(column -> !table.getRows().hasNonNull(column))
         .collect(ImmutableSet.toImmutableSet());
   }
 
@@ -131,9 +134,9 @@ public final class AnswerMetadataUtil {
       return null;
     }
     TableAnswerElement table = (TableAnswerElement) ae;
-    int numRows = table.getRowsList().size();
+    int numRows = table.getRows().size();
     int numExcludedRows =
-        table.getExcludedRows().stream().map(ExcludedRows::getRowsList).mapToInt(List::size).sum();
+        table.getExcludedRows().stream().map(ExcludedRows::getRows).mapToInt(Rows::size).sum();
     ImmutableList.Builder<ColumnAggregation> columnAggregationsBuilder = ImmutableList.builder();
     table.getMetadata().getColumnMetadata().stream()
         .map(ColumnMetadata::getName)
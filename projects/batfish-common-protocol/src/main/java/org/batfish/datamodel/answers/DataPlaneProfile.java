@@ -0,0 +1,304 @@
+package org.batfish.datamodel.answers;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static java.util.Objects.requireNonNull;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Profile of a data plane computation: the time spent in each phase of each iteration, the routes
+ * processed and messages queued in each iteration, the virtual routers that took the most time
+ * overall, and how often BGP import policy results were reused.
+ */
+@ParametersAreNonnullByDefault
+public final class DataPlaneProfile {
+  private static final String PROP_IMPORT_POLICY_CACHE_HITS = "importPolicyCacheHits";
+  private static final String PROP_IMPORT_POLICY_CACHE_MISSES = "importPolicyCacheMisses";
+  private static final String PROP_ITERATIONS = "iterations";
+  private static final String PROP_SLOWEST_VRFS = "slowestVrfs";
+
+  private final long _importPolicyCacheHits;
+  private final long _importPolicyCacheMisses;
+  private final @Nonnull List<IterationProfile> _iterations;
+  private final @Nonnull List<VrfProfile> _slowestVrfs;
+
+  public DataPlaneProfile(
+      List<IterationProfile> iterations,
+      List<VrfProfile> slowestVrfs,
+      long importPolicyCacheHits,
+      long importPolicyCacheMisses) {
+    _iterations = ImmutableList.copyOf(iterations);
+    _slowestVrfs = ImmutableList.copyOf(slowestVrfs);
+    _importPolicyCacheHits = importPolicyCacheHits;
+    _importPolicyCacheMisses = importPolicyCacheMisses;
+  }
+
+  @JsonCreator
+  private static @Nonnull DataPlaneProfile create(
+      @JsonProperty(PROP_ITERATIONS) @Nullable List<IterationProfile> iterations,
+      @JsonProperty(PROP_SLOWEST_VRFS) @Nullable List<VrfProfile> slowestVrfs,
+      @JsonProperty(PROP_IMPORT_POLICY_CACHE_HITS) long importPolicyCacheHits,
+      @JsonProperty(PROP_IMPORT_POLICY_CACHE_MISSES) long importPolicyCacheMisses) {
+    return new DataPlaneProfile(
+        firstNonNull(iterations, ImmutableList.of()),
+        firstNonNull(slowestVrfs, ImmutableList.of()),
+        importPolicyCacheHits,
+        importPolicyCacheMisses);
+  }
+
+  /**
+   * Number of BGP import policy evaluations whose result was reused from an identical earlier
+   * evaluation in the same virtual router, summed over all virtual routers.
+   */
+  @JsonProperty(PROP_IMPORT_POLICY_CACHE_HITS)
+  public long getImportPolicyCacheHits() {
+    return _importPolicyCacheHits;
+  }
+
+  /**
+   * Number of BGP import policy evaluations that had to run the policy, summed over all virtual
+   * routers.
+   */
+  @JsonProperty(PROP_IMPORT_POLICY_CACHE_MISSES)
+  public long getImportPolicyCacheMisses() {
+    return _importPolicyCacheMisses;
+  }
+
+  /** Profiles of each dependent-routes iteration, in order of execution. */
+  @JsonProperty(PROP_ITERATIONS)
+  public @Nonnull List<IterationProfile> getIterations() {
+    return _iterations;
+  }
+
+  /** The virtual routers that spent the most time computing routes, slowest first. */
+  @JsonProperty(PROP_SLOWEST_VRFS)
+  public @Nonnull List<VrfProfile> getSlowestVrfs() {
+    return _slowestVrfs;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DataPlaneProfile)) {
+      return false;
+    }
+    DataPlaneProfile that = (DataPlaneProfile) o;
+    return _importPolicyCacheHits == that._importPolicyCacheHits
+        && _importPolicyCacheMisses == that._importPolicyCacheMisses
+        && _iterations.equals(that._iterations)
+        && _slowestVrfs.equals(that._slowestVrfs);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        _importPolicyCacheHits, _importPolicyCacheMisses, _iterations, _slowestVrfs);
+  }
+
+  /** Profile of a single dependent-routes iteration. */
+  public static final class IterationProfile {
+    private static final String PROP_ITERATION = "iteration";
+    private static final String PROP_MAIN_RIB_UPDATES_BY_PROTOCOL = "mainRibUpdatesByProtocol";
+    private static final String PROP_PHASES = "phases";
+    private static final String PROP_QUEUED_MESSAGES = "queuedMessages";
+
+    private final int _iteration;
+    private final @Nonnull SortedMap<String, Integer> _mainRibUpdatesByProtocol;
+    private final @Nonnull List<PhaseProfile> _phases;
+    private final int _queuedMessages;
+
+    public IterationProfile(
+        int iteration,
+        List<PhaseProfile> phases,
+        SortedMap<String, Integer> mainRibUpdatesByProtocol,
+        int queuedMessages) {
+      _iteration = iteration;
+      _phases = ImmutableList.copyOf(phases);
+      _mainRibUpdatesByProtocol = ImmutableSortedMap.copyOfSorted(mainRibUpdatesByProtocol);
+      _queuedMessages = queuedMessages;
+    }
+
+    @JsonCreator
+    private static @Nonnull IterationProfile create(
+        @JsonProperty(PROP_ITERATION) int iteration,
+        @JsonProperty(PROP_PHASES) @Nullable List<PhaseProfile> phases,
+        @JsonProperty(PROP_MAIN_RIB_UPDATES_BY_PROTOCOL) @Nullable
+            SortedMap<String, Integer> mainRibUpdatesByProtocol,
+        @JsonProperty(PROP_QUEUED_MESSAGES) int queuedMessages) {
+      return new IterationProfile(
+          iteration,
+          firstNonNull(phases, ImmutableList.of()),
+          firstNonNull(mainRibUpdatesByProtocol, ImmutableSortedMap.of()),
+          queuedMessages);
+    }
+
+    @JsonProperty(PROP_ITERATION)
+    public int getIteration() {
+      return _iteration;
+    }
+
+    /**
+     * Number of routes added to or withdrawn from main RIBs in this iteration, by the name of the
+     * protocol of the route.
+     */
+    @JsonProperty(PROP_MAIN_RIB_UPDATES_BY_PROTOCOL)
+    public @Nonnull SortedMap<String, Integer> getMainRibUpdatesByProtocol() {
+      return _mainRibUpdatesByProtocol;
+    }
+
+    /** The phases of this iteration, in order of first execution. */
+    @JsonProperty(PROP_PHASES)
+    public @Nonnull List<PhaseProfile> getPhases() {
+      return _phases;
+    }
+
+    /** Number of route advertisements left queued between virtual routers after this iteration. */
+    @JsonProperty(PROP_QUEUED_MESSAGES)
+    public int getQueuedMessages() {
+      return _queuedMessages;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof IterationProfile)) {
+        return false;
+      }
+      IterationProfile that = (IterationProfile) o;
+      return _iteration == that._iteration
+          && _queuedMessages == that._queuedMessages
+          && _mainRibUpdatesByProtocol.equals(that._mainRibUpdatesByProtocol)
+          && _phases.equals(that._phases);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_iteration, _mainRibUpdatesByProtocol, _phases, _queuedMessages);
+    }
+  }
+
+  /** Time spent in one phase of an iteration, summed over all its executions in that iteration. */
+  public static final class PhaseProfile {
+    private static final String PROP_CPU_MILLIS = "cpuMillis";
+    private static final String PROP_NAME = "name";
+    private static final String PROP_WALL_MILLIS = "wallMillis";
+
+    private final long _cpuMillis;
+    private final @Nonnull String _name;
+    private final long _wallMillis;
+
+    @JsonCreator
+    public PhaseProfile(
+        @JsonProperty(PROP_NAME) String name,
+        @JsonProperty(PROP_WALL_MILLIS) long wallMillis,
+        @JsonProperty(PROP_CPU_MILLIS) long cpuMillis) {
+      _name = requireNonNull(name);
+      _wallMillis = wallMillis;
+      _cpuMillis = cpuMillis;
+    }
+
+    /**
+     * CPU time consumed by the whole process (all threads) during this phase, in milliseconds, or
+     * {@code -1} if the JVM does not report process CPU time.
+     */
+    @JsonProperty(PROP_CPU_MILLIS)
+    public long getCpuMillis() {
+      return _cpuMillis;
+    }
+
+    @JsonProperty(PROP_NAME)
+    public @Nonnull String getName() {
+      return _name;
+    }
+
+    @JsonProperty(PROP_WALL_MILLIS)
+    public long getWallMillis() {
+      return _wallMillis;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PhaseProfile)) {
+        return false;
+      }
+      PhaseProfile that = (PhaseProfile) o;
+      return _cpuMillis == that._cpuMillis
+          && _wallMillis == that._wallMillis
+          && _name.equals(that._name);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_cpuMillis, _name, _wallMillis);
+    }
+  }
+
+  /** Total time a single virtual router spent computing routes, across all iterations. */
+  public static final class VrfProfile {
+    private static final String PROP_HOSTNAME = "hostname";
+    private static final String PROP_MILLIS = "millis";
+    private static final String PROP_VRF = "vrf";
+
+    private final @Nonnull String _hostname;
+    private final long _millis;
+    private final @Nonnull String _vrf;
+
+    @JsonCreator
+    public VrfProfile(
+        @JsonProperty(PROP_HOSTNAME) String hostname,
+        @JsonProperty(PROP_VRF) String vrf,
+        @JsonProperty(PROP_MILLIS) long millis) {
+      _hostname = requireNonNull(hostname);
+      _vrf = requireNonNull(vrf);
+      _millis = millis;
+    }
+
+    @JsonProperty(PROP_HOSTNAME)
+    public @Nonnull String getHostname() {
+      return _hostname;
+    }
+
+    @JsonProperty(PROP_MILLIS)
+    public long getMillis() {
+      return _millis;
+    }
+
+    @JsonProperty(PROP_VRF)
+    public @Nonnull String getVrf() {
+      return _vrf;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof VrfProfile)) {
+        return false;
+      }
+      VrfProfile that = (VrfProfile) o;
+      return _millis == that._millis && _hostname.equals(that._hostname) && _vrf.equals(that._vrf);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_hostname, _millis, _vrf);
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.batfish.datamodel.answers;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import javax.annotation.Nullable;
 import org.batfish.common.Warnings;
 
 /** This answer contains summary information and warning about dataplane computation. */
@@ -15,6 +16,7 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
       "bgpMultipathRibRoutesByIteration";
   private static final String PROP_DEPENDENT_ROUTES_ITERATIONS = "dependentRoutesIterations";
   private static final String PROP_OSPF_INTERNAL_ITERATIONS = "ospfInternalIterations";
+  private static final String PROP_PROFILE = "profile";
   private static final String PROP_WARNINGS = "warnings";
 
   private SortedMap<Integer, Integer> _bgpBestPathRibRoutesByIteration;
@@ -22,6 +24,7 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
   private int _dependentRoutesIterations;
   private SortedMap<Integer, Integer> _mainRibRoutesByIteration;
   private int _ospfInternalIterations;
+  @Nullable private DataPlaneProfile _profile;
   private String _version;
   private Warnings _warnings;
 
@@ -57,6 +60,13 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     return _ospfInternalIterations;
   }
 
+  /** Profile of the computation, or {@code null} if profiling was not enabled. */
+  @JsonProperty(PROP_PROFILE)
+  @Nullable
+  public DataPlaneProfile getProfile() {
+    return _profile;
+  }
+
   @Override
   @JsonProperty(PROP_VERSION)
   public String getVersion() {
@@ -95,6 +105,11 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     _ospfInternalIterations = ospfInternalIterations;
   }
 
+  @JsonProperty(PROP_PROFILE)
+  public void setProfile(@Nullable DataPlaneProfile profile) {
+    _profile = profile;
+  }
+
   @JsonProperty(PROP_VERSION)
   public void setVersion(String version) {
     _version = version;
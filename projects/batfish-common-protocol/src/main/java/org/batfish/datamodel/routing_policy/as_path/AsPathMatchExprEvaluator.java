@@ -3,7 +3,6 @@ package org.batfish.datamodel.routing_policy.as_path;
 import com.google.common.collect.Range;
 import java.util.List;
 import javax.annotation.Nonnull;
-import org.batfish.common.util.PatternProvider;
 import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.AsSet;
 import org.batfish.datamodel.routing_policy.expr.IntMatchExprEvaluator;
@@ -34,10 +33,7 @@ public final class AsPathMatchExprEvaluator implements AsPathMatchExprVisitor<Bo
 
   @Override
   public Boolean visitAsPathMatchRegex(AsPathMatchRegex asPathMatchRegex, AsPath arg) {
-    // TODO: optimize
-    return PatternProvider.fromString(asPathMatchRegex.getRegex())
-        .matcher(arg.getAsPathString())
-        .find();
+    return arg.matchesRegex(asPathMatchRegex.getRegex());
   }
 
   @Override
@@ -171,7 +171,7 @@ public class Row implements Serializable {
   }
 
   @JsonCreator
-  private Row(ObjectNode data) {
+  Row(ObjectNode data) {
     _data = firstNonNull(data, BatfishObjectMapper.mapper().createObjectNode());
   }
 
@@ -255,7 +255,7 @@ public class Row implements Serializable {
   }
 
   @JsonValue
-  private ObjectNode getData() {
+  ObjectNode getData() {
     return _data;
   }
 
@@ -2,39 +2,523 @@ package org.batfish.datamodel.table;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultiset;
-import com.google.common.collect.LinkedHashMultiset;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Multiset;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.Schema;
 
-/** Represents data rows insider {@link TableAnswerElement} */
+/**
+ * Represents data rows insider {@link TableAnswerElement}
+ *
+ * <p>Rows are insertion-ordered, with duplicates appearing next to their first instance.
+ *
+ * <p>Rows are stored column by column rather than as one JSON object each. Cells of columns whose
+ * {@link Schema} is integral or floating-point are stored as primitives, and cells of all other
+ * columns are dictionary-encoded, so that repeated values such as node names are stored once.
+ * {@link Row} objects are only materialized when iterating, e.g., while serializing to JSON.
+ */
 public class Rows implements Serializable {
 
-  private final Multiset<Row> _data;
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** How the cells of a column are stored. */
+  private enum CellType {
+    /** Integer or long cells, stored as primitives. */
+    INTEGRAL,
+    /** Double cells, stored as primitives. */
+    FLOATING,
+    /** Any other cells, dictionary-encoded. */
+    OTHER
+  }
+
+  /** The cells of one column, indexed by distinct row. */
+  private abstract static class Column implements Serializable {
+    protected int _size;
+
+    /** Appends {@code cell}, or returns {@code false} if it cannot be stored in this column. */
+    abstract boolean tryAppend(JsonNode cell);
+
+    /** Appends a placeholder for a row that does not have this column. */
+    abstract void appendAbsent();
+
+    abstract @Nonnull JsonNode get(int row);
+
+    abstract boolean cellEquals(int row1, int row2);
+
+    abstract int cellHash(int row);
+
+    /** Returns the hash that {@link #cellHash(int)} would return for a row holding {@code cell}. */
+    abstract int cellHash(JsonNode cell);
+
+    void removeLast() {
+      _size--;
+    }
+  }
+
+  private static final class IntegralColumn extends Column {
+    private long[] _values = new long[INITIAL_CAPACITY];
+    /** Rows whose cell is a {@link LongNode} rather than an {@link IntNode}. */
+    private final BitSet _longs = new BitSet();
+    private final BitSet _nulls = new BitSet();
+
+    @Override
+    boolean tryAppend(JsonNode cell) {
+      if (!cell.isInt() && !cell.isLong() && !cell.isNull()) {
+        return false;
+      }
+      _values = ensureCapacity(_values, _size);
+      _values[_size] = cell.longValue();
+      _longs.set(_size, cell.isLong());
+      _nulls.set(_size, cell.isNull());
+      _size++;
+      return true;
+    }
+
+    @Override
+    void appendAbsent() {
+      tryAppend(NullNode.getInstance());
+    }
+
+    @Override
+    @Nonnull
+    JsonNode get(int row) {
+      if (_nulls.get(row)) {
+        return NullNode.getInstance();
+      }
+      return _longs.get(row) ? LongNode.valueOf(_values[row]) : IntNode.valueOf((int) _values[row]);
+    }
+
+    @Override
+    boolean cellEquals(int row1, int row2) {
+      return _values[row1] == _values[row2]
+          && _longs.get(row1) == _longs.get(row2)
+          && _nulls.get(row1) == _nulls.get(row2);
+    }
+
+    @Override
+    int cellHash(int row) {
+      return Long.hashCode(_values[row]);
+    }
+
+    @Override
+    int cellHash(JsonNode cell) {
+      return Long.hashCode(cell.longValue());
+    }
+  }
+
+  private static final class FloatingColumn extends Column {
+    private double[] _values = new double[INITIAL_CAPACITY];
+    private final BitSet _nulls = new BitSet();
+
+    @Override
+    boolean tryAppend(JsonNode cell) {
+      if (!cell.isDouble() && !cell.isNull()) {
+        return false;
+      }
+      _values = ensureCapacity(_values, _size);
+      _values[_size] = cell.doubleValue();
+      _nulls.set(_size, cell.isNull());
+      _size++;
+      return true;
+    }
+
+    @Override
+    void appendAbsent() {
+      tryAppend(NullNode.getInstance());
+    }
+
+    @Override
+    @Nonnull
+    JsonNode get(int row) {
+      return _nulls.get(row) ? NullNode.getInstance() : DoubleNode.valueOf(_values[row]);
+    }
+
+    @Override
+    boolean cellEquals(int row1, int row2) {
+      // same as DoubleNode#equals
+      return Double.compare(_values[row1], _values[row2]) == 0
+          && _nulls.get(row1) == _nulls.get(row2);
+    }
+
+    @Override
+    int cellHash(int row) {
+      return Double.hashCode(_values[row]);
+    }
+
+    @Override
+    int cellHash(JsonNode cell) {
+      return Double.hashCode(cell.doubleValue());
+    }
+  }
+
+  private static final class DictionaryColumn extends Column {
+    private int[] _codes = new int[INITIAL_CAPACITY];
+    private final Map<JsonNode, Integer> _codesByValue = new HashMap<>();
+    private final List<JsonNode> _values = new ArrayList<>();
+
+    @Override
+    boolean tryAppend(JsonNode cell) {
+      appendCode(
+          _codesByValue.computeIfAbsent(
+              cell,
+              c -> {
+                _values.add(c);
+                return _values.size() - 1;
+              }));
+      return true;
+    }
+
+    @Override
+    void appendAbsent() {
+      appendCode(-1);
+    }
+
+    private void appendCode(int code) {
+      _codes = ensureCapacity(_codes, _size);
+      _codes[_size] = code;
+      _size++;
+    }
+
+    @Override
+    @Nonnull
+    JsonNode get(int row) {
+      return _values.get(_codes[row]);
+    }
+
+    @Override
+    boolean cellEquals(int row1, int row2) {
+      return _codes[row1] == _codes[row2];
+    }
+
+    @Override
+    int cellHash(int row) {
+      return _codes[row];
+    }
+
+    @Override
+    int cellHash(JsonNode cell) {
+      // a cell not in the dictionary matches no row, so any hash will do
+      return _codesByValue.getOrDefault(cell, -1);
+    }
+  }
+
+  /** The columns of a row, in the order they appear in its JSON object. */
+  private static final class Layout implements Serializable {
+    private final int[] _columns;
+    private final BitSet _columnSet;
+
+    private Layout(int[] columns) {
+      _columns = columns;
+      _columnSet = new BitSet();
+      Arrays.stream(columns).forEach(_columnSet::set);
+    }
+  }
+
+  private final Map<String, CellType> _cellTypes;
+  private final List<Column> _columns;
+  private final Map<String, Integer> _columnIndexes;
+  private final List<String> _columnNames;
+  private final Map<List<String>, Integer> _layoutIds;
+  private final List<Layout> _layouts;
+
+  /** The number of times each distinct row was added. */
+  private int[] _counts;
+
+  /** Open-addressing hash table of distinct rows, holding each row's index plus one. */
+  private int[] _distinctRows;
+
+  private int _numDistinct;
+  private int[] _rowLayouts;
+  private int _size;
 
   public Rows() {
-    _data = LinkedHashMultiset.create();
+    this(ImmutableMap.of());
+  }
+
+  /** Creates rows whose cells are stored according to the schemas of the given columns. */
+  public Rows(List<ColumnMetadata> columnMetadata) {
+    this(
+        columnMetadata.stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    ColumnMetadata::getName, c -> cellType(c.getSchema()))));
+  }
+
+  private Rows(Map<String, CellType> cellTypes) {
+    _cellTypes = cellTypes;
+    _columns = new ArrayList<>();
+    _columnIndexes = new HashMap<>();
+    _columnNames = new ArrayList<>();
+    _layoutIds = new HashMap<>();
+    _layouts = new ArrayList<>();
+    _counts = new int[INITIAL_CAPACITY];
+    _distinctRows = new int[INITIAL_CAPACITY];
+    _rowLayouts = new int[INITIAL_CAPACITY];
   }
 
   @VisibleForTesting
   public Rows(@Nonnull Multiset<Row> rows) {
-    _data = ImmutableMultiset.copyOf(rows);
+    this();
+    rows.forEach(this::add);
+  }
+
+  private static @Nonnull CellType cellType(Schema schema) {
+    if (schema.equals(Schema.INTEGER) || schema.equals(Schema.LONG)) {
+      return CellType.INTEGRAL;
+    } else if (schema.equals(Schema.DOUBLE)) {
+      return CellType.FLOATING;
+    }
+    return CellType.OTHER;
   }
 
   public Rows add(Row row) {
-    _data.add(row);
+    int layoutId = layoutId(row.getData());
+    Layout layout = _layouts.get(layoutId);
+    int index = _numDistinct;
+    boolean columnsChanged = false;
+    for (int column = 0; column < _columns.size(); column++) {
+      if (!layout._columnSet.get(column)) {
+        _columns.get(column).appendAbsent();
+      } else if (!_columns.get(column).tryAppend(row.get(_columnNames.get(column)))) {
+        // the cell does not fit the schema of the column, so fall back to a dictionary
+        toDictionaryColumn(column);
+        _columns.get(column).tryAppend(row.get(_columnNames.get(column)));
+        columnsChanged = true;
+      }
+    }
+    _rowLayouts = ensureCapacity(_rowLayouts, index);
+    _rowLayouts[index] = layoutId;
+    if (columnsChanged) {
+      // cell hashes of the converted column changed
+      rehash(_distinctRows.length);
+    }
+    int existing = findDistinct(index);
+    if (existing >= 0) {
+      _columns.forEach(Column::removeLast);
+      _counts[existing]++;
+    } else {
+      _counts = ensureCapacity(_counts, index);
+      _counts[index] = 1;
+      _numDistinct++;
+      insertDistinct(index);
+    }
+    _size++;
     return this;
   }
 
+  private int layoutId(ObjectNode data) {
+    ImmutableList.Builder<String> columnNames = ImmutableList.builder();
+    data.fieldNames().forEachRemaining(columnNames::add);
+    return _layoutIds.computeIfAbsent(
+        columnNames.build(),
+        names -> {
+          int[] columns = names.stream().mapToInt(this::columnIndex).toArray();
+          _layouts.add(new Layout(columns));
+          return _layouts.size() - 1;
+        });
+  }
+
+  private int columnIndex(String columnName) {
+    return _columnIndexes.computeIfAbsent(
+        columnName,
+        name -> {
+          Column column = newColumn(_cellTypes.getOrDefault(name, CellType.OTHER));
+          // earlier rows do not have this column
+          for (int i = 0; i < _numDistinct; i++) {
+            column.appendAbsent();
+          }
+          _columns.add(column);
+          _columnNames.add(name);
+          return _columns.size() - 1;
+        });
+  }
+
+  private static @Nonnull Column newColumn(CellType cellType) {
+    switch (cellType) {
+      case INTEGRAL:
+        return new IntegralColumn();
+      case FLOATING:
+        return new FloatingColumn();
+      default:
+        return new DictionaryColumn();
+    }
+  }
+
+  private void toDictionaryColumn(int column) {
+    Column original = _columns.get(column);
+    Column dictionary = new DictionaryColumn();
+    for (int i = 0; i < original._size; i++) {
+      if (_layouts.get(_rowLayouts[i])._columnSet.get(column)) {
+        dictionary.tryAppend(original.get(i));
+      } else {
+        dictionary.appendAbsent();
+      }
+    }
+    _columns.set(column, dictionary);
+  }
+
+  private boolean rowEquals(int row1, int row2) {
+    BitSet columnSet = _layouts.get(_rowLayouts[row1])._columnSet;
+    if (!columnSet.equals(_layouts.get(_rowLayouts[row2])._columnSet)) {
+      return false;
+    }
+    for (int column = columnSet.nextSetBit(0);
+        column >= 0;
+        column = columnSet.nextSetBit(column + 1)) {
+      if (!_columns.get(column).cellEquals(row1, row2)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int rowHash(int row) {
+    BitSet columnSet = _layouts.get(_rowLayouts[row])._columnSet;
+    int hash = columnSet.hashCode();
+    for (int column = columnSet.nextSetBit(0);
+        column >= 0;
+        column = columnSet.nextSetBit(column + 1)) {
+      hash = 31 * hash + _columns.get(column).cellHash(row);
+    }
+    // spread the bits, since the table is indexed by the low bits
+    return hash ^ (hash >>> 16);
+  }
+
+  /** Returns the index of the distinct row equal to the given row, or -1 if none. */
+  private int findDistinct(int row) {
+    int mask = _distinctRows.length - 1;
+    for (int slot = rowHash(row) & mask; _distinctRows[slot] != 0; slot = (slot + 1) & mask) {
+      int candidate = _distinctRows[slot] - 1;
+      if (rowEquals(candidate, row)) {
+        return candidate;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the distinct row equal to row {@code otherRow} of {@code other}, or -1 if
+   * none. The rows are compared cell by cell, without materializing either of them.
+   */
+  private int findDistinct(Rows other, int otherRow) {
+    int[] otherColumns = other._layouts.get(other._rowLayouts[otherRow])._columns;
+    BitSet columnSet = new BitSet();
+    JsonNode[] cells = new JsonNode[_columns.size()];
+    for (int otherColumn : otherColumns) {
+      Integer column = _columnIndexes.get(other._columnNames.get(otherColumn));
+      if (column == null) {
+        return -1;
+      }
+      columnSet.set(column);
+      cells[column] = other._columns.get(otherColumn).get(otherRow);
+    }
+    // same as rowHash
+    int hash = columnSet.hashCode();
+    for (int column = columnSet.nextSetBit(0);
+        column >= 0;
+        column = columnSet.nextSetBit(column + 1)) {
+      hash = 31 * hash + _columns.get(column).cellHash(cells[column]);
+    }
+    hash ^= hash >>> 16;
+    int mask = _distinctRows.length - 1;
+    for (int slot = hash & mask; _distinctRows[slot] != 0; slot = (slot + 1) & mask) {
+      int candidate = _distinctRows[slot] - 1;
+      if (rowEquals(candidate, columnSet, cells)) {
+        return candidate;
+      }
+    }
+    return -1;
+  }
+
+  private boolean rowEquals(int row, BitSet columnSet, JsonNode[] cells) {
+    if (!columnSet.equals(_layouts.get(_rowLayouts[row])._columnSet)) {
+      return false;
+    }
+    for (int column = columnSet.nextSetBit(0);
+        column >= 0;
+        column = columnSet.nextSetBit(column + 1)) {
+      if (!_columns.get(column).get(row).equals(cells[column])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void insertDistinct(int row) {
+    if (2 * _numDistinct > _distinctRows.length) {
+      // rehashing inserts all distinct rows, including this one
+      rehash(2 * _distinctRows.length);
+      return;
+    }
+    int mask = _distinctRows.length - 1;
+    int slot = rowHash(row) & mask;
+    while (_distinctRows[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    _distinctRows[slot] = row + 1;
+  }
+
+  private void rehash(int capacity) {
+    _distinctRows = new int[capacity];
+    int mask = capacity - 1;
+    for (int row = 0; row < _numDistinct; row++) {
+      int slot = rowHash(row) & mask;
+      while (_distinctRows[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      _distinctRows[slot] = row + 1;
+    }
+  }
+
+  private @Nonnull Row materialize(int row) {
+    ObjectNode data = BatfishObjectMapper.mapper().createObjectNode();
+    for (int column : _layouts.get(_rowLayouts[row])._columns) {
+      data.set(_columnNames.get(column), _columns.get(column).get(row));
+    }
+    return new Row(data);
+  }
+
   @Override
   public boolean equals(Object o) {
-    if (!(o instanceof Rows)) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof Rows)) {
+      return false;
+    }
+    Rows other = (Rows) o;
+    if (_size != other._size || _numDistinct != other._numDistinct) {
       return false;
     }
-    return _data.equals(((Rows) o)._data);
+    // distinct rows are unique on both sides, so matching each of the other's rows suffices
+    for (int row = 0; row < other._numDistinct; row++) {
+      int match = findDistinct(other, row);
+      if (match < 0 || _counts[match] != other._counts[row]) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -43,35 +527,119 @@ public class Rows implements Serializable {
    * @return An ImmutableMultiset
    */
   public Multiset<Row> getData() {
-    return ImmutableMultiset.copyOf(_data);
+    ImmutableMultiset.Builder<Row> data = ImmutableMultiset.builder();
+    for (int row = 0; row < _numDistinct; row++) {
+      data.addCopies(materialize(row), _counts[row]);
+    }
+    return data.build();
+  }
+
+  /**
+   * Returns the cells of {@code column}, once per distinct row and without materializing the rows.
+   *
+   * @throws NoSuchElementException if a row does not have the column, like {@link Row#get(String)}
+   */
+  public @Nonnull Stream<JsonNode> getDistinctCells(String column) {
+    Integer index = _columnIndexes.get(column);
+    return IntStream.range(0, _numDistinct)
+        .mapToObj(
+            row ->
+                index != null && _layouts.get(_rowLayouts[row])._columnSet.get(index)
+                    ? _columns.get(index).get(row)
+                    // throws with the usual message
+                    : materialize(row).get(column));
+  }
+
+  /** Returns whether any row has a non-null cell in {@code column}, like {@link Row#hasNonNull}. */
+  public boolean hasNonNull(String column) {
+    Integer index = _columnIndexes.get(column);
+    if (index == null) {
+      return false;
+    }
+    for (int row = 0; row < _numDistinct; row++) {
+      if (_layouts.get(_rowLayouts[row])._columnSet.get(index)
+          && !_columns.get(index).get(row).isNull()) {
+        return true;
+      }
+    }
+    return false;
   }
 
   public Iterator<Row> iterator() {
-    return _data.iterator();
+    return new Iterator<Row>() {
+      private int _row;
+      private int _copiesLeft;
+      private Row _current;
+
+      @Override
+      public boolean hasNext() {
+        return _copiesLeft > 0 || _row < _numDistinct;
+      }
+
+      @Override
+      public Row next() {
+        if (_copiesLeft == 0) {
+          if (_row >= _numDistinct) {
+            throw new NoSuchElementException();
+          }
+          _current = materialize(_row);
+          _copiesLeft = _counts[_row];
+          _row++;
+        }
+        _copiesLeft--;
+        return _current;
+      }
+    };
   }
 
+  /**
+   * Like the hash code of a multiset of rows, independent of row and column order. Cells are hashed
+   * as JSON rather than by how they are stored, since equal rows may be stored differently.
+   */
   @Override
   public int hashCode() {
-    return _data.hashCode();
+    int hash = 0;
+    for (int row = 0; row < _numDistinct; row++) {
+      int rowHash = 0;
+      for (int column : _layouts.get(_rowLayouts[row])._columns) {
+        rowHash += _columnNames.get(column).hashCode() ^ _columns.get(column).get(row).hashCode();
+      }
+      hash += rowHash ^ _counts[row];
+    }
+    return hash;
   }
 
   public int size() {
-    return _data.size();
+    return _size;
   }
 
   @Override
   public String toString() {
-    return _data.toString();
+    return Iterators.toString(iterator());
   }
 
-  // Jackson serializes a Multiset as a list of items.
+  // Jackson serializes the rows as a list of items.
   @JsonCreator
   private Rows(Iterable<Row> data) {
-    _data = ImmutableMultiset.copyOf(data);
+    this();
+    data.forEach(this::add);
   }
 
+  /** Materializes rows one at a time as they are serialized. */
   @JsonValue
   private Iterable<Row> asJsonValue() {
-    return _data;
+    return this::iterator;
+  }
+
+  private static @Nonnull int[] ensureCapacity(int[] array, int index) {
+    return index < array.length ? array : Arrays.copyOf(array, 2 * array.length);
+  }
+
+  private static @Nonnull long[] ensureCapacity(long[] array, int index) {
+    return index < array.length ? array : Arrays.copyOf(array, 2 * array.length);
+  }
+
+  private static @Nonnull double[] ensureCapacity(double[] array, int index) {
+    return index < array.length ? array : Arrays.copyOf(array, 2 * array.length);
   }
 }
@@ -40,7 +40,7 @@ public final class TableAnswerElement extends AnswerElement {
         tableMetadata.getColumnMetadata().stream()
             .map(ColumnMetadata::getName)
             .collect(ImmutableSet.toImmutableSet());
-    _rows = new Rows();
+    _rows = new Rows(tableMetadata.getColumnMetadata());
     _excludedRows = new LinkedList<>();
     _warnings = new LinkedList<>();
   }
@@ -194,7 +194,7 @@ public final class TableAnswerElement extends AnswerElement {
 
   @JsonProperty(PROP_ROWS)
   private void setRowsList(List<Row> rows) {
-    _rows = new Rows();
+    _rows = new Rows(_tableMetadata.getColumnMetadata());
     if (rows != null) {
       rows.forEach(_rows::add);
     }
@@ -80,10 +80,22 @@ public class BatfishANTLRErrorStrategy extends DefaultErrorStrategy {
    */
   private BatfishANTLRErrorStrategy(
       int separatorToken, String minimumRequiredSeparatorText, String text) {
-    _lines = text.split(Pattern.quote(minimumRequiredSeparatorText), -1);
+    this(separatorToken, text.split(Pattern.quote(minimumRequiredSeparatorText), -1));
+  }
+
+  private BatfishANTLRErrorStrategy(int separatorToken, String[] lines) {
+    _lines = lines;
     _separatorToken = separatorToken;
   }
 
+  /**
+   * Returns a new {@link BatfishANTLRErrorStrategy} for another parser of the same text, sharing
+   * the lines of this strategy.
+   */
+  BatfishANTLRErrorStrategy copy() {
+    return new BatfishANTLRErrorStrategy(_separatorToken, _lines);
+  }
+
   /**
    * Consume all tokens a whole line at a time until the next token is one expected by the current
    * rule. Each line (as delimited by supplied separator token) starting from the current line up to
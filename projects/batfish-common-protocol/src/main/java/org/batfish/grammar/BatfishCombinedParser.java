@@ -1,24 +1,39 @@
 package org.batfish.grammar;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.ListTokenSource;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.WritableToken;
 import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
 import org.batfish.common.BatfishException;
 import org.batfish.grammar.flattener.FlattenerLineMap;
 
 public abstract class BatfishCombinedParser<P extends BatfishParser, L extends BatfishLexer> {
 
+  /**
+   * Default minimum number of characters in each chunk of lines parsed in parallel by {@link
+   * #parseLines}. Inputs shorter than two chunks are parsed sequentially.
+   */
+  private static final int DEFAULT_MIN_PARALLEL_CHUNK_CHARS = 1 << 20;
+
   private int _currentModeStart;
 
   private final List<String> _errors;
@@ -33,8 +48,12 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
 
   private FlattenerLineMap _lineMap;
 
+  private int _minParallelChunkChars;
+
   protected P _parser;
 
+  private Class<P> _parserClass;
+
   private BatfishParserErrorListener _parserErrorListener;
 
   private boolean _recovery;
@@ -56,6 +75,8 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
     _errors = new ArrayList<>();
     _input = input;
     _lineMap = null;
+    _minParallelChunkChars = DEFAULT_MIN_PARALLEL_CHUNK_CHARS;
+    _parserClass = pClass;
     CharStream inputStream = CharStreams.fromString(input);
     try {
       _lexer = lClass.getConstructor(CharStream.class).newInstance(inputStream);
@@ -196,6 +217,128 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
 
   public abstract ParserRuleContext parse();
 
+  /**
+   * Parses the input with {@code startRule}, splitting large inputs into chunks of whole lines that
+   * are parsed in parallel.
+   *
+   * <p>The input is lexed sequentially, so the tokens are exactly those of a sequential parse. The
+   * tokens are then split after separator tokens into chunks, each chunk is parsed with {@code
+   * startRule} by its own parser, and the top-level children of the resulting trees are
+   * concatenated in input order under the tree of the first chunk.
+   *
+   * <p>This is only equivalent to a sequential parse if {@code startRule} is an unlabeled loop of
+   * line rules followed by {@code EOF}, and the separator token only ever appears at the end of a
+   * line. Inputs are parsed sequentially if recovery is disabled, since errors are then reported
+   * in terms of the state of {@link #getParser()}.
+   *
+   * @param startRule Invokes the start rule on a parser
+   * @param separatorToken The type of the token ending each line
+   */
+  protected @Nonnull <C extends ParserRuleContext> C parseLines(
+      Function<P, C> startRule, int separatorToken) {
+    if (!_recovery || _input.length() < 2L * _minParallelChunkChars) {
+      return startRule.apply(_parser);
+    }
+    _tokens.fill();
+    List<Token> tokens = _tokens.getTokens();
+    List<List<Token>> chunks = splitLines(tokens, separatorToken);
+    if (chunks.size() < 2) {
+      return startRule.apply(_parser);
+    }
+    List<C> trees;
+    try {
+      trees =
+          chunks.parallelStream()
+              .map(chunk -> startRule.apply(chunkParser(chunk)))
+              .collect(ImmutableList.toImmutableList());
+    } finally {
+      // the token stream of each chunk renumbers its tokens
+      for (int i = 0; i < tokens.size(); i++) {
+        ((WritableToken) tokens.get(i)).setTokenIndex(i);
+      }
+    }
+    C tree = trees.get(0);
+    for (C chunkTree : trees.subList(1, trees.size())) {
+      // drop the EOF ending the previous chunk
+      ParseTree last = tree.getChild(tree.getChildCount() - 1);
+      if (last instanceof TerminalNode
+          && ((TerminalNode) last).getSymbol().getType() == Token.EOF) {
+        tree.children.remove(tree.children.size() - 1);
+      }
+      for (ParseTree child : chunkTree.children) {
+        child.setParent(tree);
+        tree.addAnyChild(child);
+      }
+      tree.stop = chunkTree.stop;
+    }
+    return tree;
+  }
+
+  /**
+   * Splits the given tokens after separator tokens into chunks of at least {@link
+   * #_minParallelChunkChars} characters. Chunks only start at tokens the parser would consume at
+   * the start of a line in the default lexer mode.
+   */
+  private @Nonnull List<List<Token>> splitLines(List<Token> tokens, int separatorToken) {
+    int chunkChars =
+        Math.max(
+            _minParallelChunkChars,
+            _input.length() / (4 * ForkJoinPool.getCommonPoolParallelism()));
+    ImmutableList.Builder<List<Token>> chunks = ImmutableList.builder();
+    int chunkStart = 0;
+    int chunkStartChar = 0;
+    for (int i = 0; i < tokens.size() - 1; i++) {
+      Token token = tokens.get(i);
+      Token next = tokens.get(i + 1);
+      if (token.getType() == separatorToken
+          && token.getChannel() == Token.DEFAULT_CHANNEL
+          && token.getStopIndex() + 1 - chunkStartChar >= chunkChars
+          && next.getChannel() == Token.DEFAULT_CHANNEL
+          && next.getType() != Token.EOF
+          && next.getType() != BatfishLexer.UNMATCHABLE_TOKEN
+          && getTokenMode(next) == Lexer.DEFAULT_MODE) {
+        chunks.add(tokens.subList(chunkStart, i + 1));
+        chunkStart = i + 1;
+        chunkStartChar = next.getStartIndex();
+      }
+    }
+    chunks.add(tokens.subList(chunkStart, tokens.size()));
+    return chunks.build();
+  }
+
+  /** Returns a parser of the given chunk of tokens, configured like {@link #getParser()}. */
+  private @Nonnull P chunkParser(List<Token> chunk) {
+    P parser;
+    try {
+      parser =
+          _parserClass
+              .getConstructor(TokenStream.class)
+              .newInstance(new CommonTokenStream(new ListTokenSource(chunk)));
+    } catch (InstantiationException
+        | IllegalAccessException
+        | IllegalArgumentException
+        | InvocationTargetException
+        | NoSuchMethodException
+        | SecurityException e) {
+      throw new Error(e);
+    }
+    parser.removeErrorListeners();
+    parser.addErrorListener(_parserErrorListener);
+    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+    parser.setInterpreter(new BatfishParserATNSimulator(parser.getInterpreter()));
+    parser.setErrorHandler(((BatfishANTLRErrorStrategy) _parser.getErrorHandler()).copy());
+    return parser;
+  }
+
+  /**
+   * Sets the minimum number of characters in each chunk of lines parsed in parallel by {@link
+   * #parseLines}.
+   */
+  @VisibleForTesting
+  public void setMinParallelChunkChars(int minParallelChunkChars) {
+    _minParallelChunkChars = minParallelChunkChars;
+  }
+
   public void setLexerErrorListener(BatfishLexerErrorListener lexerErrorListener) {
     _lexerErrorListener = lexerErrorListener;
   }
@@ -0,0 +1,38 @@
+package org.batfish.storage;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * An {@link ObjectOutputStream} that writes each distinct {@link String} value at most once.
+ *
+ * <p>Java serialization only shares objects that are identical ({@code ==}). Configurations
+ * contain many equal but distinct strings (interface, VRF, and structure names repeated across
+ * thousands of objects), each of which would otherwise be written in full. This stream replaces
+ * every string with the first equal string it wrote, so later occurrences are written as
+ * back-references. The output is a standard serialization stream and needs no special reader;
+ * since the deserialized strings are shared, loading also produces less garbage.
+ */
+@ParametersAreNonnullByDefault
+final class DeduplicatingObjectOutputStream extends ObjectOutputStream {
+
+  /** The first instance written of each distinct string value. */
+  private final Map<String, String> _strings = new HashMap<>();
+
+  DeduplicatingObjectOutputStream(OutputStream out) throws IOException {
+    super(out);
+    enableReplaceObject(true);
+  }
+
+  @Override
+  protected Object replaceObject(Object obj) {
+    if (obj instanceof String) {
+      return _strings.computeIfAbsent((String) obj, s -> s);
+    }
+    return obj;
+  }
+}
@@ -13,6 +13,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Sets;
@@ -83,6 +84,7 @@ import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.ForwardingAnalysis;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
@@ -152,15 +154,20 @@ public class FileBasedStorage implements StorageProvider {
   private final BatfishLogger _logger;
   private final BiFunction<String, Integer, AtomicInteger> _newBatch;
   private final Path _baseDir;
+  private final SerializationBackend _serializationBackend;
 
   /**
-   * Create a new {@link FileBasedStorage} instance that uses the given root path and job batch
-   * provider function.
+   * Create a new {@link FileBasedStorage} instance that uses the given root path, job batch
+   * provider function, and backend for writing serialized objects.
    */
   public FileBasedStorage(
-      Path baseDir, BatfishLogger logger, BiFunction<String, Integer, AtomicInteger> newBatch) {
+      Path baseDir,
+      BatfishLogger logger,
+      BiFunction<String, Integer, AtomicInteger> newBatch,
+      SerializationBackend serializationBackend) {
     _logger = logger;
     _newBatch = newBatch;
+    _serializationBackend = serializationBackend;
     try {
       _baseDir = baseDir.toFile().getCanonicalFile().toPath();
     } catch (IOException e) {
@@ -169,6 +176,16 @@ public class FileBasedStorage implements StorageProvider {
     }
   }
 
+  /**
+   * Create a new {@link FileBasedStorage} instance that uses the given root path and job batch
+   * provider function, and writes serialized objects with {@link
+   * SerializationBackend#JAVA_DEDUPLICATED}.
+   */
+  public FileBasedStorage(
+      Path baseDir, BatfishLogger logger, BiFunction<String, Integer, AtomicInteger> newBatch) {
+    this(baseDir, logger, newBatch, SerializationBackend.JAVA_DEDUPLICATED);
+  }
+
   /**
    * Create a new {@link FileBasedStorage} instance that uses the given root path job and whose job
    * batch provider function is a NOP.
@@ -529,6 +546,14 @@ public class FileBasedStorage implements StorageProvider {
     writeStringToFile(answerPath, answerStr, UTF_8);
   }
 
+  @Override
+  public void storeAnswer(NetworkId network, SnapshotId snapshot, Answer answer, AnswerId answerId)
+      throws IOException {
+    Path answerPath = getAnswerPath(network, snapshot, answerId);
+    mkdirs(answerPath.getParent());
+    writeJsonFile(answerPath, answer);
+  }
+
   @Override
   public void storeAnswerMetadata(
       NetworkId networkId, SnapshotId snapshotId, AnswerMetadata answerMetadata, AnswerId answerId)
@@ -546,6 +571,11 @@ public class FileBasedStorage implements StorageProvider {
       FileInputStream fis = closer.register(new FileInputStream(sanitizedInputFile.toFile()));
       PushbackInputStream pbstream =
           closer.register(new PushbackInputStream(fis, DEFAULT_HEADER_LENGTH_BYTES));
+      Optional<SerializationBackend> backend = SerializationBackend.readHeader(pbstream);
+      if (backend.isPresent()) {
+        return backend.get().readObject(closer.register(new LZ4FrameInputStream(pbstream)));
+      }
+      // written before serialization backends existed
       Format f = detectFormat(pbstream);
       InputStream ois;
       if (f == Format.GZIP) {
@@ -607,8 +637,9 @@ public class FileBasedStorage implements StorageProvider {
   }
 
   /**
-   * Writes a single object of the given class to the given file. Uses the {@link FileBasedStorage}
-   * default file encoding including serialization format and compression.
+   * Writes a single object of the given class to the given file: a header identifying this
+   * storage's {@link SerializationBackend}, followed by the LZ4-compressed object as encoded by
+   * that backend.
    */
   @VisibleForTesting
   void serializeObject(Serializable object, Path outputFile) {
@@ -616,10 +647,12 @@ public class FileBasedStorage implements StorageProvider {
     try {
       Path tmpFile = Files.createTempFile(null, null);
       try {
-        try (OutputStream out = Files.newOutputStream(tmpFile);
-            LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
-            ObjectOutputStream oos = new ObjectOutputStream(gos)) {
-          oos.writeObject(object);
+        try (OutputStream out = Files.newOutputStream(tmpFile)) {
+          _serializationBackend.writeHeader(out);
+          try (LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
+              ObjectOutputStream oos = _serializationBackend.newObjectOutputStream(gos)) {
+            oos.writeObject(object);
+          }
         } catch (Throwable e) {
           throw new BatfishException(
               "Failed to serialize object to output file: " + sanitizedOutputFile, e);
@@ -1545,10 +1578,20 @@ public class FileBasedStorage implements StorageProvider {
         .map(Object::toString);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Data planes stored in the segmented format (one file per host per component) are loaded
+   * lazily: each component is only deserialized, for all hosts in parallel, the first time it is
+   * requested. Such a data plane is a {@link StoredDataPlane}, whose stored size is known without
+   * loading any component. Data planes stored in the older format (one file per host) are loaded
+   * eagerly.
+   */
   @Nonnull
   @Override
   public DataPlane loadDataPlane(NetworkSnapshot snapshot) throws IOException {
     Map<Path, String> namesByPath = new TreeMap<>();
+    boolean segmented = true;
     Path dataplanePath = getDataPlanePath(snapshot);
     try (DirectoryStream<Path> hostDataPlanes = Files.newDirectoryStream(dataplanePath)) {
       for (Path hostDataPlane : hostDataPlanes) {
@@ -1557,10 +1600,19 @@ public class FileBasedStorage implements StorageProvider {
           continue;
         }
         namesByPath.put(hostDataPlane, fromBase64(name));
+        segmented &= Files.isDirectory(hostDataPlane);
       }
     } catch (IOException e) {
       throw new BatfishException("Error reading data plane directory", e);
     }
+    if (segmented) {
+      return new SegmentedDataPlane(
+          ImmutableSet.copyOf(namesByPath.values()),
+          (hostname, segment) ->
+              deserializeObjectUnchecked(getDataPlaneSegmentPath(snapshot, hostname, segment)),
+          () -> deserializeObjectUnchecked(getDataPlaneForwardingAnalysisPath(snapshot)),
+          sizeOfFiles(dataplanePath));
+    }
     Map<String, PerHostDataPlane> perNodeDataPlanes =
         deserializeObjects(namesByPath, PerHostDataPlane.class);
     ForwardingAnalysis forwardingAnalysis =
@@ -1568,23 +1620,59 @@ public class FileBasedStorage implements StorageProvider {
     return new SimpleFieldsDataPlane(perNodeDataPlanes, forwardingAnalysis);
   }
 
+  /** Returns the total size in bytes of the regular files under the given directory. */
+  private static long sizeOfFiles(Path dir) throws IOException {
+    long size = 0;
+    try (Stream<Path> paths = Files.walk(dir)) {
+      for (Path path : (Iterable<Path>) paths::iterator) {
+        if (Files.isRegularFile(path)) {
+          size += Files.size(path);
+        }
+      }
+    }
+    return size;
+  }
+
   @Override
   public void storeDataPlane(DataPlane dataPlane, NetworkSnapshot snapshot) throws IOException {
     dataPlane.getFibs().keySet().parallelStream()
         .forEach(
             hostname -> {
-              PerHostDataPlane dp =
-                  new PerHostDataPlane(
-                      dataPlane.getBgpRoutes().row(hostname),
-                      dataPlane.getBgpBackupRoutes().row(hostname),
-                      dataPlane.getEvpnRoutes().row(hostname),
-                      dataPlane.getEvpnBackupRoutes().row(hostname),
-                      dataPlane.getFibs().get(hostname),
-                      dataPlane.getLayer2Vnis().row(hostname),
-                      dataPlane.getLayer3Vnis().row(hostname),
-                      dataPlane.getPrefixTracingInfoSummary().get(hostname),
-                      dataPlane.getRibs().row(hostname));
-              serializeObject(dp, getDataPlaneHostPath(snapshot, hostname));
+              Map<String, Serializable> segments =
+                  ImmutableMap.<String, Serializable>builder()
+                      .put(
+                          SegmentedDataPlane.SEGMENT_BGP_ROUTES,
+                          ImmutableMap.copyOf(dataPlane.getBgpRoutes().row(hostname)))
+                      .put(
+                          SegmentedDataPlane.SEGMENT_BGP_BACKUP_ROUTES,
+                          ImmutableMap.copyOf(dataPlane.getBgpBackupRoutes().row(hostname)))
+                      .put(
+                          SegmentedDataPlane.SEGMENT_EVPN_ROUTES,
+                          ImmutableMap.copyOf(dataPlane.getEvpnRoutes().row(hostname)))
+                      .put(
+                          SegmentedDataPlane.SEGMENT_EVPN_BACKUP_ROUTES,
+                          ImmutableMap.copyOf(dataPlane.getEvpnBackupRoutes().row(hostname)))
+                      .put(
+                          SegmentedDataPlane.SEGMENT_FIBS,
+                          ImmutableMap.copyOf(dataPlane.getFibs().get(hostname)))
+                      .put(
+                          SegmentedDataPlane.SEGMENT_LAYER2_VNIS,
+                          ImmutableMap.copyOf(dataPlane.getLayer2Vnis().row(hostname)))
+                      .put(
+                          SegmentedDataPlane.SEGMENT_LAYER3_VNIS,
+                          ImmutableMap.copyOf(dataPlane.getLayer3Vnis().row(hostname)))
+                      .put(
+                          SegmentedDataPlane.SEGMENT_PREFIX_TRACING_INFO_SUMMARY,
+                          ImmutableSortedMap.copyOfSorted(
+                              dataPlane.getPrefixTracingInfoSummary().get(hostname)))
+                      .put(
+                          SegmentedDataPlane.SEGMENT_RIBS,
+                          ImmutableMap.copyOf(dataPlane.getRibs().row(hostname)))
+                      .build();
+              segments.forEach(
+                  (segment, value) ->
+                      serializeObject(
+                          value, getDataPlaneSegmentPath(snapshot, hostname, segment)));
             });
     serializeObject(
         dataPlane.getForwardingAnalysis(), getDataPlaneForwardingAnalysisPath(snapshot));
@@ -1717,6 +1805,11 @@ public class FileBasedStorage implements StorageProvider {
     return getDataPlanePath(snapshot).resolve(toBase64(hostname));
   }
 
+  private @Nonnull Path getDataPlaneSegmentPath(
+      NetworkSnapshot snapshot, String hostname, String segment) {
+    return getDataPlaneHostPath(snapshot, hostname).resolve(segment);
+  }
+
   private @Nonnull Path getDataPlaneForwardingAnalysisPath(NetworkSnapshot snapshot) {
     return getDataPlanePath(snapshot).resolve(RELPATH_DATA_PLANE_FORWARDING_ANALYSIS);
   }
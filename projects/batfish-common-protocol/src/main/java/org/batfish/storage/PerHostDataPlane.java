@@ -6,6 +6,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import javax.annotation.Nonnull;
 import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.EvpnRoute;
 import org.batfish.datamodel.Fib;
 import org.batfish.datamodel.FinalMainRib;
@@ -25,6 +26,20 @@ final class PerHostDataPlane implements Serializable {
       _prefixTracingInfoSummary;
   private final @Nonnull Map<String, FinalMainRib> _ribs;
 
+  /** Extracts the portion of {@code dataPlane} pertaining to {@code hostname}. */
+  static @Nonnull PerHostDataPlane of(DataPlane dataPlane, String hostname) {
+    return new PerHostDataPlane(
+        dataPlane.getBgpRoutes().row(hostname),
+        dataPlane.getBgpBackupRoutes().row(hostname),
+        dataPlane.getEvpnRoutes().row(hostname),
+        dataPlane.getEvpnBackupRoutes().row(hostname),
+        dataPlane.getFibs().get(hostname),
+        dataPlane.getLayer2Vnis().row(hostname),
+        dataPlane.getLayer3Vnis().row(hostname),
+        dataPlane.getPrefixTracingInfoSummary().get(hostname),
+        dataPlane.getRibs().row(hostname));
+  }
+
   public PerHostDataPlane(
       @Nonnull Map<String, Set<Bgpv4Route>> bgpRoutes,
       @Nonnull Map<String, Set<Bgpv4Route>> bgpBackupRoutes,
@@ -0,0 +1,217 @@
+package org.batfish.storage;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import java.io.ObjectStreamException;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.EvpnRoute;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.vxlan.Layer2Vni;
+import org.batfish.datamodel.vxlan.Layer3Vni;
+
+/**
+ * A {@link DataPlane} stored as one file per host per component ("segment"), each of which is only
+ * read when the corresponding getter is first called. For example, answering a question that only
+ * needs {@link #getFibs()} and {@link #getForwardingAnalysis()} never deserializes any RIB.
+ *
+ * <p>Loaded segments are softly referenced, and read again if the garbage collector clears them.
+ * The cache holding this data plane weighs it once, when it is inserted, by its stored size; the
+ * segments loaded later therefore do not grow its weight, but do not pin memory either.
+ *
+ * <p>Segments are Java-serialized per host rather than laid out per VRF for memory mapping: RIB
+ * and FIB entries are object graphs (routes, next hops, forwarding actions) that would have to be
+ * decoded into objects on every access anyway, and a host is the unit most questions read.
+ */
+final class SegmentedDataPlane implements StoredDataPlane {
+  static final String SEGMENT_BGP_ROUTES = "bgp_routes";
+  static final String SEGMENT_BGP_BACKUP_ROUTES = "bgp_backup_routes";
+  static final String SEGMENT_EVPN_ROUTES = "evpn_routes";
+  static final String SEGMENT_EVPN_BACKUP_ROUTES = "evpn_backup_routes";
+  static final String SEGMENT_FIBS = "fibs";
+  static final String SEGMENT_LAYER2_VNIS = "layer2_vnis";
+  static final String SEGMENT_LAYER3_VNIS = "layer3_vnis";
+  static final String SEGMENT_PREFIX_TRACING_INFO_SUMMARY = "prefix_tracing_info_summary";
+  static final String SEGMENT_RIBS = "ribs";
+
+  /** Loads a segment (second argument) for a host (first argument). */
+  interface SegmentLoader extends BiFunction<String, String, Object> {}
+
+  private final @Nonnull Set<String> _hostnames;
+  private final @Nonnull SegmentLoader _loader;
+  private final long _storedSizeBytes;
+
+  private final @Nonnull Supplier<Table<String, String, Set<Bgpv4Route>>> _bgpRoutes;
+  private final @Nonnull Supplier<Table<String, String, Set<Bgpv4Route>>> _bgpBackupRoutes;
+  private final @Nonnull Supplier<Table<String, String, Set<EvpnRoute<?, ?>>>> _evpnRoutes;
+  private final @Nonnull Supplier<Table<String, String, Set<EvpnRoute<?, ?>>>> _evpnBackupRoutes;
+  private final @Nonnull Supplier<Map<String, Map<String, Fib>>> _fibs;
+  private final @Nonnull Supplier<ForwardingAnalysis> _forwardingAnalysis;
+  private final @Nonnull Supplier<Table<String, String, Set<Layer2Vni>>> _layer2Vnis;
+  private final @Nonnull Supplier<Table<String, String, Set<Layer3Vni>>> _layer3Vnis;
+  private final @Nonnull Supplier<
+          SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>>
+      _prefixTracingInfoSummary;
+  private final @Nonnull Supplier<Table<String, String, FinalMainRib>> _ribs;
+
+  SegmentedDataPlane(
+      Set<String> hostnames,
+      SegmentLoader loader,
+      Supplier<ForwardingAnalysis> forwardingAnalysis,
+      long storedSizeBytes) {
+    _hostnames = ImmutableSet.copyOf(hostnames);
+    _loader = loader;
+    _storedSizeBytes = storedSizeBytes;
+    _bgpRoutes = lazyTable(SEGMENT_BGP_ROUTES);
+    _bgpBackupRoutes = lazyTable(SEGMENT_BGP_BACKUP_ROUTES);
+    _evpnRoutes = lazyTable(SEGMENT_EVPN_ROUTES);
+    _evpnBackupRoutes = lazyTable(SEGMENT_EVPN_BACKUP_ROUTES);
+    _fibs = new SoftMemoizingSupplier<>(() -> loadSegment(SEGMENT_FIBS));
+    _forwardingAnalysis = new SoftMemoizingSupplier<>(forwardingAnalysis);
+    _layer2Vnis = lazyTable(SEGMENT_LAYER2_VNIS);
+    _layer3Vnis = lazyTable(SEGMENT_LAYER3_VNIS);
+    _prefixTracingInfoSummary =
+        new SoftMemoizingSupplier<>(
+            () -> {
+              Map<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>> byHost =
+                  loadSegment(SEGMENT_PREFIX_TRACING_INFO_SUMMARY);
+              return ImmutableSortedMap.copyOf(byHost);
+            });
+    _ribs = lazyTable(SEGMENT_RIBS);
+  }
+
+  /** Loads the given segment for every host, in parallel. */
+  @SuppressWarnings("unchecked")
+  private <T> Map<String, T> loadSegment(String segment) {
+    return _hostnames.parallelStream()
+        .collect(
+            toImmutableMap(
+                Function.identity(), hostname -> (T) _loader.apply(hostname, segment)));
+  }
+
+  private <T> Supplier<Table<String, String, T>> lazyTable(String segment) {
+    return new SoftMemoizingSupplier<>(
+        () -> {
+          Map<String, Map<String, T>> byHost = loadSegment(segment);
+          ImmutableTable.Builder<String, String, T> ret = ImmutableTable.builder();
+          byHost.forEach(
+              (hostname, byVrf) -> byVrf.forEach((key, t) -> ret.put(hostname, key, t)));
+          return ret.build();
+        });
+  }
+
+  /**
+   * Memoizes the value of a supplier through a soft reference, calling the supplier again once the
+   * value is cleared.
+   */
+  @VisibleForTesting
+  static final class SoftMemoizingSupplier<T> implements Supplier<T> {
+    private final @Nonnull Supplier<T> _delegate;
+    private @Nullable SoftReference<T> _value;
+
+    SoftMemoizingSupplier(Supplier<T> delegate) {
+      _delegate = delegate;
+    }
+
+    @Override
+    public synchronized T get() {
+      T value = _value == null ? null : _value.get();
+      if (value == null) {
+        value = _delegate.get();
+        _value = new SoftReference<>(value);
+      }
+      return value;
+    }
+
+    /** Drops the memoized value, as the garbage collector may. */
+    @VisibleForTesting
+    synchronized void clear() {
+      if (_value != null) {
+        _value.clear();
+      }
+    }
+  }
+
+  /** Materialize all segments when serialized, since the loader is not serializable. */
+  private Object writeReplace() throws ObjectStreamException {
+    return new SimpleFieldsDataPlane(
+        _hostnames.stream()
+            .collect(
+                toImmutableMap(
+                    Function.identity(), hostname -> PerHostDataPlane.of(this, hostname))),
+        getForwardingAnalysis());
+  }
+
+  @Override
+  public long getStoredSizeBytes() {
+    return _storedSizeBytes;
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
+    return _bgpRoutes.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Bgpv4Route>> getBgpBackupRoutes() {
+    return _bgpBackupRoutes.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnRoutes() {
+    return _evpnRoutes.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnBackupRoutes() {
+    return _evpnBackupRoutes.get();
+  }
+
+  @Override
+  public @Nonnull Map<String, Map<String, Fib>> getFibs() {
+    return _fibs.get();
+  }
+
+  @Override
+  public @Nonnull ForwardingAnalysis getForwardingAnalysis() {
+    return _forwardingAnalysis.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
+    return _layer2Vnis.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Layer3Vni>> getLayer3Vnis() {
+    return _layer3Vnis.get();
+  }
+
+  @Override
+  public @Nonnull SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+      getPrefixTracingInfoSummary() {
+    return _prefixTracingInfoSummary.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, FinalMainRib> getRibs() {
+    return _ribs.get();
+  }
+}
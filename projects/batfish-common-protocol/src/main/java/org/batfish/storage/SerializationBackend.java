@@ -0,0 +1,119 @@
+package org.batfish.storage;
+
+import com.google.common.io.ByteStreams;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.BatfishException;
+
+/**
+ * How {@link FileBasedStorage} encodes the objects it stores.
+ *
+ * <p>Every file written by a backend starts with a header naming the backend and the version of
+ * its encoding. A file is always read by the backend that wrote it, whichever backend is
+ * configured for writing, and a file written with another version of that backend's encoding is
+ * rejected instead of misread. Files written before the header existed are plain Java
+ * serialization, and are still read as such.
+ */
+@ParametersAreNonnullByDefault
+public enum SerializationBackend {
+  /** Plain Java serialization. */
+  JAVA(1, 1) {
+    @Override
+    @Nonnull
+    ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException {
+      return new ObjectOutputStream(out);
+    }
+  },
+  /**
+   * Java serialization that writes each distinct string once. See {@link
+   * DeduplicatingObjectOutputStream}.
+   */
+  JAVA_DEDUPLICATED(2, 1) {
+    @Override
+    @Nonnull
+    ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException {
+      return new DeduplicatingObjectOutputStream(out);
+    }
+  };
+
+  /** The first bytes of every file written with a header. No other supported format uses them. */
+  private static final byte[] HEADER_MAGIC = {'B', 'F', 'S', 'O'};
+
+  /** Identifies this backend in file headers. Must never be reused. */
+  private final int _id;
+
+  /**
+   * The version of this backend's encoding. Increment it whenever the encoding changes, so that
+   * files written with the old encoding are rejected.
+   */
+  private final int _version;
+
+  SerializationBackend(int id, int version) {
+    _id = id;
+    _version = version;
+  }
+
+  /** Returns a stream that encodes objects with this backend, without a header. */
+  abstract @Nonnull ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException;
+
+  /** Decodes an object written by {@link #newObjectOutputStream(OutputStream)}. */
+  @Nonnull
+  <S extends Serializable> S readObject(InputStream in) {
+    return SerializationUtils.deserialize(in);
+  }
+
+  /** Writes the header identifying this backend and the version of its encoding. */
+  void writeHeader(OutputStream out) throws IOException {
+    out.write(HEADER_MAGIC);
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeByte(_id);
+    data.writeByte(_version);
+    data.flush();
+  }
+
+  /**
+   * Reads the header of a stored file, returning the backend that wrote the rest of the file. If
+   * the file has no header, returns {@link Optional#empty()} and leaves the stream unchanged.
+   *
+   * @param in a stream that can push back at least {@code 4} bytes
+   * @throws BatfishException if the file was written by an unknown backend, or with another version
+   *     of the encoding of its backend
+   */
+  static @Nonnull Optional<SerializationBackend> readHeader(PushbackInputStream in)
+      throws IOException {
+    byte[] magic = new byte[HEADER_MAGIC.length];
+    int read = ByteStreams.read(in, magic, 0, magic.length);
+    if (read < magic.length || !Arrays.equals(magic, HEADER_MAGIC)) {
+      in.unread(magic, 0, read);
+      return Optional.empty();
+    }
+    DataInputStream data = new DataInputStream(in);
+    int id = data.readUnsignedByte();
+    int version = data.readUnsignedByte();
+    SerializationBackend backend =
+        Arrays.stream(values())
+            .filter(b -> b._id == id)
+            .findFirst()
+            .orElseThrow(
+                () -> new BatfishException("Unknown serialization backend with id " + id));
+    if (version != backend._version) {
+      throw new BatfishException(
+          String.format(
+              "Stored object was written with version %d of serialization backend %s, but the"
+                  + " current version is %d",
+              version, backend, backend._version));
+    }
+    return Optional.of(backend);
+  }
+}
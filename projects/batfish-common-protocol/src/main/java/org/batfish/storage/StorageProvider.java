@@ -23,6 +23,7 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
@@ -158,6 +159,21 @@ public interface StorageProvider {
   void storeAnswer(NetworkId network, SnapshotId snapshot, String answerStr, AnswerId answerId)
       throws IOException;
 
+  /**
+   * Store the answer to an ad-hoc question, serializing it to JSON incrementally as it is written
+   * to storage. The stored text is the same as that of {@link #storeAnswer(NetworkId, SnapshotId,
+   * String, AnswerId)} given the JSON serialization of {@code answer}, but no string holding the
+   * whole serialized answer is built.
+   *
+   * @param network The id of the network
+   * @param snapshot The id of the snapshot
+   * @param answer The answer
+   * @param answerId The ID of the answer
+   * @throws IOException if there is an error
+   */
+  void storeAnswer(NetworkId network, SnapshotId snapshot, Answer answer, AnswerId answerId)
+      throws IOException;
+
   /**
    * Store the metadata for the answer to an ad-hoc question.
    *
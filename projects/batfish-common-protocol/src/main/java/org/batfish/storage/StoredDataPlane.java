@@ -0,0 +1,13 @@
+package org.batfish.storage;
+
+import org.batfish.datamodel.DataPlane;
+
+/**
+ * A {@link DataPlane} loaded lazily from storage, whose size can be estimated without reading any
+ * of its components.
+ */
+public interface StoredDataPlane extends DataPlane {
+
+  /** The total size in bytes of the stored (serialized and compressed) components. */
+  long getStoredSizeBytes();
+}
@@ -0,0 +1,48 @@
+package org.batfish.common;
+
+import static org.batfish.common.BatfishInterruptedException.checkNotInterrupted;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/** Tests of {@link BatfishInterruptedException}. */
+public final class BatfishInterruptedExceptionTest {
+
+  @Test
+  public void testCheckNotInterrupted() {
+    // no-op when not interrupted
+    checkNotInterrupted("phase");
+
+    Thread.currentThread().interrupt();
+    try {
+      checkNotInterrupted("phase");
+      fail("Expected BatfishInterruptedException");
+    } catch (BatfishInterruptedException e) {
+      assertThat(e.getMessage(), containsString("Interrupted before phase"));
+      // the interrupted status is kept, so that later checks fail too
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  public void testCheckNotInterruptedThread() {
+    Thread thread = Thread.currentThread();
+    Thread other = new Thread(() -> {});
+    thread.interrupt();
+    try {
+      // checks the given thread, not the current one
+      checkNotInterrupted(other, "phase");
+      checkNotInterrupted(thread, "phase");
+      fail("Expected BatfishInterruptedException");
+    } catch (BatfishInterruptedException e) {
+      assertThat(e.getMessage(), containsString("Interrupted before phase"));
+    } finally {
+      Thread.interrupted();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package org.batfish.common.plugin;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.batfish.common.traceroute.TraceDag;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
+import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.junit.Test;
+
+/** Tests of {@link TracerouteEngine}. */
+public final class TracerouteEngineTest {
+
+  private static final TraceDag EMPTY_DAG =
+      new TraceDag() {
+        @Override
+        public int countEdges() {
+          return 0;
+        }
+
+        @Override
+        public int countNodes() {
+          return 0;
+        }
+
+        @Override
+        public int size() {
+          return 0;
+        }
+
+        @Override
+        public Stream<TraceAndReverseFlow> getTraces() {
+          return Stream.of();
+        }
+      };
+
+  /** Records the sizes of the sets of flows it traces, and returns their DAGs in reverse order. */
+  private static final class BatchRecordingEngine implements TracerouteEngine {
+    private final List<Integer> _batchSizes = new ArrayList<>();
+
+    @Override
+    public SortedMap<Flow, List<Trace>> computeTraces(Set<Flow> flows, boolean ignoreFilters) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedMap<Flow, List<TraceAndReverseFlow>> computeTracesAndReverseFlows(
+        Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<Flow, TraceDag> computeTraceDags(
+        Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters) {
+      _batchSizes.add(flows.size());
+      return ImmutableList.copyOf(flows).reverse().stream()
+          .collect(ImmutableMap.toImmutableMap(Function.identity(), flow -> EMPTY_DAG));
+    }
+  }
+
+  private static Flow flow(String node) {
+    return Flow.builder().setIngressNode(node).build();
+  }
+
+  @Test
+  public void testComputeTraceDagsStreaming() {
+    BatchRecordingEngine engine = new BatchRecordingEngine();
+    List<Flow> flows = ImmutableList.of(flow("a"), flow("b"), flow("c"), flow("d"), flow("e"));
+    List<Flow> consumed = new ArrayList<>();
+
+    engine.computeTraceDags(
+        flows.iterator(), ImmutableSet.of(), false, 2, (flow, dag) -> consumed.add(flow));
+
+    assertThat(engine._batchSizes, contains(2, 2, 1));
+    // consumed in input order, regardless of the order of the engine's result
+    assertThat(consumed, contains(flows.toArray()));
+  }
+}
@@ -40,4 +40,16 @@ public class AsPathTest {
     assertThat(path.length(), equalTo(1));
     assertThat(path.size(), equalTo(3));
   }
+
+  @Test
+  public void testMatchesRegex() {
+    AsPath path = AsPath.ofSingletonAsSets(ImmutableList.of(100L, 200L));
+    assertThat(path.getAsPathString(), equalTo("100 200"));
+    assertThat(path.matchesRegex("^100 "), equalTo(true));
+    assertThat(path.matchesRegex("(^| )200$"), equalTo(true));
+    assertThat(path.matchesRegex("^200"), equalTo(false));
+    // memoized results are unchanged
+    assertThat(path.matchesRegex("^100 "), equalTo(true));
+    assertThat(path.matchesRegex("^200"), equalTo(false));
+  }
 }
@@ -2,9 +2,12 @@ package org.batfish.datamodel;
 
 import static org.batfish.datamodel.matchers.RouteFilterListMatchers.permits;
 import static org.batfish.datamodel.matchers.RouteFilterListMatchers.rejects;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Random;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -75,4 +78,81 @@ public class RouteFilterListTest {
     assertThat(_rfPrefixExact, permits(acceptedPrefix1));
     assertThat(_rfPrefixExact, rejects(deniedPrefix1));
   }
+
+  @Test
+  public void testFirstMatchingLineAcrossPrefixLengths() {
+    RouteFilterList rfl =
+        new RouteFilterList(
+            "test-route-filter-order",
+            ImmutableList.of(
+                new RouteFilterLine(
+                    LineAction.DENY, Prefix.parse("10.1.0.0/16"), new SubRange(24, 32)),
+                new RouteFilterLine(
+                    LineAction.PERMIT,
+                    IpWildcard.parse("10.0.0.0:0.255.0.255"),
+                    new SubRange(24, 24)),
+                new RouteFilterLine(
+                    LineAction.PERMIT, Prefix.parse("10.0.0.0/8"), new SubRange(8, 32)),
+                new RouteFilterLine(
+                    LineAction.DENY, Prefix.parse("10.2.0.0/16"), new SubRange(16, 32))));
+
+    // denied by the earlier, more specific line
+    assertThat(rfl, rejects(Prefix.parse("10.1.2.0/24")));
+    // permitted by the wildcard line before the /8 line
+    assertThat(rfl, permits(Prefix.parse("10.2.0.0/24")));
+    // permitted by the /8 line before the later, more specific line
+    assertThat(rfl, permits(Prefix.parse("10.2.0.0/16")));
+    assertThat(rfl, permits(Prefix.parse("10.1.0.0/16")));
+    assertThat(rfl, rejects(Prefix.parse("11.0.0.0/8")));
+  }
+
+  /** The first line matching {@code prefix}, found by walking all lines in order. */
+  private static RouteFilterLine firstMatchingLineLinear(
+      List<RouteFilterLine> lines, Prefix prefix) {
+    for (RouteFilterLine line : lines) {
+      if (line.getIpWildcard().containsIp(prefix.getStartIp())
+          && line.getLengthRange().includes(prefix.getPrefixLength())) {
+        return line;
+      }
+    }
+    return null;
+  }
+
+  /** A random IP in 10.0.0.0/8 with only a few bits set, so that lines and queries overlap. */
+  private static Ip randomIp(Random random) {
+    long ip = Ip.parse("10.0.0.0").asLong();
+    for (int i = 0; i < 3; i++) {
+      ip |= 1L << (8 + random.nextInt(24));
+    }
+    return Ip.create(ip);
+  }
+
+  @Test
+  public void testIndexMatchesLinearWalk() {
+    Random random = new Random(42);
+    for (int list = 0; list < 200; list++) {
+      ImmutableList.Builder<RouteFilterLine> linesBuilder = ImmutableList.builder();
+      int numLines = random.nextInt(40);
+      for (int i = 0; i < numLines; i++) {
+        int length = 8 + random.nextInt(25);
+        int low = length + random.nextInt(33 - length);
+        SubRange lengthRange = new SubRange(low, low + random.nextInt(33 - low));
+        IpWildcard wildcard =
+            random.nextInt(4) == 0
+                // not a prefix: some host bits are wildcarded
+                ? IpWildcard.ipWithWildcardMask(randomIp(random), 0xFF00L << random.nextInt(9))
+                : IpWildcard.create(Prefix.create(randomIp(random), length));
+        linesBuilder.add(new RouteFilterLine(LineAction.PERMIT, wildcard, lengthRange));
+      }
+      List<RouteFilterLine> lines = linesBuilder.build();
+      RouteFilterListIndex index = RouteFilterListIndex.create(lines);
+      for (int query = 0; query < 500; query++) {
+        Prefix prefix = Prefix.create(randomIp(random), random.nextInt(33));
+        assertSame(
+            prefix.toString(),
+            firstMatchingLineLinear(lines, prefix),
+            index.firstMatchingLine(prefix));
+      }
+    }
+  }
 }
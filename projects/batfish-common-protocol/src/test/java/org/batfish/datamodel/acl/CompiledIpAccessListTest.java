@@ -0,0 +1,93 @@
+package org.batfish.datamodel.acl;
+
+import static org.batfish.datamodel.ExprAclLine.accepting;
+import static org.batfish.datamodel.ExprAclLine.rejecting;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDstPort;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.or;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.Prefix;
+import org.junit.Test;
+
+/** Tests of {@link CompiledIpAccessList}. */
+public final class CompiledIpAccessListTest {
+
+  private static Flow flow(String dstIp, int dstPort) {
+    return Flow.builder()
+        .setIngressNode("node")
+        .setIpProtocol(IpProtocol.TCP)
+        .setSrcIp(Ip.parse("1.1.1.1"))
+        .setDstIp(Ip.parse(dstIp))
+        .setSrcPort(12345)
+        .setDstPort(dstPort)
+        .build();
+  }
+
+  @Test
+  public void testFilterMatchesUncompiled() {
+    IpAccessList referenced =
+        IpAccessList.builder()
+            .setName("referenced")
+            .setLines(ImmutableList.of(accepting(matchDstPort(443))))
+            .build();
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName("acl")
+            .setLines(
+                ImmutableList.of(
+                    rejecting(and(matchDst(Prefix.parse("10.0.0.0/8")), matchDstPort(22))),
+                    accepting(matchDst(Prefix.parse("10.1.0.0/16"))),
+                    accepting(matchDst(new IpSpaceReference("servers"))),
+                    rejecting(matchDstPort(80)),
+                    new AclAclLine("referenced", referenced.getName()),
+                    accepting(
+                        or(
+                            matchDst(Prefix.parse("30.0.0.0/8")),
+                            matchDst(Prefix.parse("40.0.0.0/24"))))))
+            .build();
+    Map<String, IpAccessList> acls =
+        ImmutableMap.of(acl.getName(), acl, referenced.getName(), referenced);
+    Map<String, IpSpace> namedIpSpaces =
+        ImmutableMap.of("servers", Prefix.parse("20.0.0.0/8").toIpSpace());
+
+    CompiledIpAccessList compiled = CompiledIpAccessList.compile(acl, namedIpSpaces);
+
+    for (String dstIp :
+        ImmutableList.of(
+            "0.0.0.0", "10.0.0.1", "10.1.2.3", "20.1.1.1", "30.0.0.1", "40.0.0.1", "40.0.1.1",
+            "255.255.255.255")) {
+      for (int dstPort : ImmutableList.of(22, 80, 443, 8080)) {
+        Flow flow = flow(dstIp, dstPort);
+        FilterResult expected = acl.filter(flow, null, acls, namedIpSpaces);
+        FilterResult actual = compiled.filter(flow, null, acls, namedIpSpaces);
+        assertThat(flow.toString(), actual.getMatchLine(), equalTo(expected.getMatchLine()));
+        assertThat(flow.toString(), actual.getAction(), equalTo(expected.getAction()));
+      }
+    }
+  }
+
+  @Test
+  public void testUnconstrainedLinesNotIndexed() {
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName("acl")
+            .setLines(ImmutableList.of(accepting(matchDstPort(80)), rejecting(TrueExpr.INSTANCE)))
+            .build();
+
+    assertThat(CompiledIpAccessList.compile(acl, ImmutableMap.of()).getNumIntervals(), equalTo(1));
+  }
+}
@@ -0,0 +1,50 @@
+package org.batfish.datamodel.answers;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.testing.EqualsTester;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.DataPlaneProfile.IterationProfile;
+import org.batfish.datamodel.answers.DataPlaneProfile.PhaseProfile;
+import org.batfish.datamodel.answers.DataPlaneProfile.VrfProfile;
+import org.junit.Test;
+
+public final class DataPlaneProfileTest {
+
+  private static final IterationProfile ITERATION =
+      new IterationProfile(
+          1,
+          ImmutableList.of(new PhaseProfile("bgp", 10L, 40L)),
+          ImmutableSortedMap.of("bgp", 5),
+          2);
+
+  @Test
+  public void testEquals() {
+    new EqualsTester()
+        .addEqualityGroup(
+            new DataPlaneProfile(ImmutableList.of(), ImmutableList.of(), 0L, 0L),
+            new DataPlaneProfile(ImmutableList.of(), ImmutableList.of(), 0L, 0L))
+        .addEqualityGroup(
+            new DataPlaneProfile(ImmutableList.of(ITERATION), ImmutableList.of(), 0L, 0L))
+        .addEqualityGroup(
+            new DataPlaneProfile(
+                ImmutableList.of(), ImmutableList.of(new VrfProfile("r1", "default", 3L)), 0L, 0L))
+        .addEqualityGroup(new DataPlaneProfile(ImmutableList.of(), ImmutableList.of(), 1L, 0L))
+        .addEqualityGroup(new DataPlaneProfile(ImmutableList.of(), ImmutableList.of(), 0L, 1L))
+        .testEquals();
+  }
+
+  @Test
+  public void testJsonSerialization() {
+    DataPlaneProfile profile =
+        new DataPlaneProfile(
+            ImmutableList.of(ITERATION),
+            ImmutableList.of(new VrfProfile("r1", "default", 3L)),
+            5L,
+            2L);
+    assertThat(BatfishObjectMapper.clone(profile, DataPlaneProfile.class), equalTo(profile));
+  }
+}
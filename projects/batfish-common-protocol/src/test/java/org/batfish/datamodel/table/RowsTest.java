@@ -1,18 +1,29 @@
 package org.batfish.datamodel.table;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
+import com.fasterxml.jackson.databind.node.IntNode;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Lists;
 import com.google.common.testing.EqualsTester;
 import java.util.List;
+import java.util.NoSuchElementException;
 import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.Schema;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 public final class RowsTest {
 
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
   @Test
   public void testEquals() {
     Row r1 = Row.of("val", 1);
@@ -58,4 +69,59 @@ public final class RowsTest {
           equalTo(reversedRows));
     }
   }
+
+  @Test
+  public void testTypedColumns() {
+    List<ColumnMetadata> columns =
+        ImmutableList.of(
+            new ColumnMetadata("int", Schema.INTEGER, "int"),
+            new ColumnMetadata("long", Schema.LONG, "long"),
+            new ColumnMetadata("double", Schema.DOUBLE, "double"),
+            new ColumnMetadata("string", Schema.STRING, "string"));
+    List<Row> rows =
+        ImmutableList.of(
+            Row.of("int", 1, "long", 5000000000L, "double", 1.5, "string", "a"),
+            Row.of("int", null, "long", 2L, "double", null, "string", "a"),
+            // column order differs, but the row equals the first one
+            Row.of("string", "a", "double", 1.5, "long", 5000000000L, "int", 1),
+            // cell does not match the schema of its column
+            Row.of("int", "x", "long", 2L, "double", 2.0, "string", "b"),
+            Row.of("int", null, "long", 2L, "double", null, "string", "a"));
+    Rows typed = new Rows(columns);
+    rows.forEach(typed::add);
+
+    // Typed rows keep the same order and contents as untyped ones
+    List<Row> expected = ImmutableList.copyOf(LinkedHashMultiset.create(rows));
+    assertThat(ImmutableList.copyOf(typed.iterator()), equalTo(expected));
+    assertThat(typed.size(), equalTo(rows.size()));
+    assertThat(typed, equalTo(new Rows(LinkedHashMultiset.create(rows))));
+    assertThat(typed.hashCode(), equalTo(new Rows(LinkedHashMultiset.create(rows)).hashCode()));
+    // Survives cloning
+    assertThat(
+        ImmutableList.copyOf(SerializationUtils.clone(typed).iterator()), equalTo(expected));
+  }
+
+  @Test
+  public void testColumnAccess() {
+    Rows rows =
+        new Rows(ImmutableList.of(new ColumnMetadata("int", Schema.INTEGER, "int")))
+            .add(Row.of("int", 1, "string", null))
+            .add(Row.of("int", 1, "string", null))
+            .add(Row.of("int", 2, "string", null));
+
+    assertTrue(rows.hasNonNull("int"));
+    assertFalse(rows.hasNonNull("string"));
+    assertFalse(rows.hasNonNull("missing"));
+    // once per distinct row
+    assertThat(
+        rows.getDistinctCells("int").collect(ImmutableList.toImmutableList()),
+        contains(IntNode.valueOf(1), IntNode.valueOf(2)));
+  }
+
+  @Test
+  public void testDistinctCellsMissingColumn() {
+    Rows rows = new Rows().add(Row.of("a", 1)).add(Row.of("b", 1));
+    _thrown.expect(NoSuchElementException.class);
+    rows.getDistinctCells("a").forEach(cell -> {});
+  }
 }
@@ -0,0 +1,43 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.List;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+/** Tests of {@link DeduplicatingObjectOutputStream}. */
+public final class DeduplicatingObjectOutputStreamTest {
+
+  private static byte[] serialize(Serializable object, boolean deduplicate) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos =
+        deduplicate ? new DeduplicatingObjectOutputStream(baos) : new ObjectOutputStream(baos)) {
+      oos.writeObject(object);
+    }
+    return baos.toByteArray();
+  }
+
+  @Test
+  public void testEqualStringsAreShared() throws IOException {
+    String name = "GigabitEthernet0/0/0/0.100";
+    // equal, but not identical
+    String copy = new String(name);
+    ImmutableList<String> strings = ImmutableList.of(name, copy, "other");
+
+    byte[] deduplicated = serialize(strings, true);
+    assertThat(deduplicated.length, lessThan(serialize(strings, false).length));
+
+    List<String> deserialized = SerializationUtils.deserialize(deduplicated);
+    assertThat(deserialized, equalTo(strings));
+    assertThat(deserialized.get(0), sameInstance(deserialized.get(1)));
+  }
+}
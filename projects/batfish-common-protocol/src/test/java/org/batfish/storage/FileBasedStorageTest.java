@@ -36,6 +36,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -50,6 +52,7 @@ import java.util.Optional;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.batfish.common.BatfishException;
@@ -83,6 +86,7 @@ import org.batfish.datamodel.ReceivedFromIp;
 import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
@@ -180,6 +184,65 @@ public final class FileBasedStorageTest {
     _storage.loadConversionContext(new NetworkSnapshot(networkId, snapshotId));
   }
 
+  @Test
+  public void testSerializationBackendIsReadFromHeader() throws IOException {
+    NetworkId network = new NetworkId("network");
+    SnapshotId snapshot = new SnapshotId("snapshot");
+    FileBasedStorage javaStorage =
+        new FileBasedStorage(
+            _containerDir.getParent(),
+            _logger,
+            (m, n) -> new AtomicInteger(),
+            SerializationBackend.JAVA);
+    javaStorage.storeConfigurations(
+        ImmutableMap.of("node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS)),
+        new ConvertConfigurationAnswerElement(),
+        Layer1Topology.EMPTY,
+        network,
+        snapshot);
+
+    // _storage writes with another backend, but reads with the one that wrote each file
+    Map<String, Configuration> deserialized = _storage.loadConfigurations(network, snapshot);
+    assertThat(deserialized, not(nullValue()));
+    assertThat(deserialized.keySet(), contains("node1"));
+  }
+
+  @Test
+  public void testSerializationBackendStaleVersionRejected() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    _storage.storeConversionContext(new ConversionContext(), snapshot);
+
+    // the header is 4 magic bytes, the backend id and the version of its encoding
+    Path ccPath = _storage.getConversionContextPath(snapshot.getNetwork(), snapshot.getSnapshot());
+    byte[] bytes = Files.readAllBytes(ccPath);
+    bytes[5]++;
+    Files.write(ccPath, bytes);
+
+    _thrown.expect(IOException.class);
+    _thrown.expectMessage(
+        containsString(
+            "written with version 2 of serialization backend JAVA_DEDUPLICATED, but the current"
+                + " version is 1"));
+    _storage.loadConversionContext(snapshot);
+  }
+
+  @Test
+  public void testLoadObjectWithoutSerializationHeader() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    Path ccPath = _storage.getConversionContextPath(snapshot.getNetwork(), snapshot.getSnapshot());
+    Files.createDirectories(ccPath.getParent());
+    // written as before serialization backends existed
+    try (OutputStream out = Files.newOutputStream(ccPath);
+        LZ4FrameOutputStream lz4 = new LZ4FrameOutputStream(out);
+        ObjectOutputStream oos = new ObjectOutputStream(lz4)) {
+      oos.writeObject(new ConversionContext());
+    }
+
+    assertThat(_storage.loadConversionContext(snapshot), instanceOf(ConversionContext.class));
+  }
+
   @Test
   public void testLoadIspConfiguration() throws IOException {
     NetworkId networkId = new NetworkId("network");
@@ -521,6 +584,21 @@ public final class FileBasedStorageTest {
             new StoredObjectMetadata(key2, content2.getBytes().length)));
   }
 
+  @Test
+  public void testStoreAnswerObject() throws IOException {
+    NetworkId networkId = new NetworkId("network");
+    SnapshotId snapshotId = new SnapshotId("snapshot");
+    AnswerId answerId = new AnswerId("answerId");
+    Answer answer = Answer.failureAnswer("failed", null);
+
+    _storage.storeAnswer(networkId, snapshotId, answer, answerId);
+
+    // streamed answer is the same as the serialized string
+    assertThat(
+        _storage.loadAnswer(networkId, snapshotId, answerId),
+        equalTo(BatfishObjectMapper.writeString(answer)));
+  }
+
   /**
    * Test that the answer is loaded from the legacy location if nothing is found in the primary
    * location
@@ -1065,4 +1143,32 @@ public final class FileBasedStorageTest {
     assertThat(dp2.getPrefixTracingInfoSummary(), hasEntry(equalTo("n"), hasKey("vp")));
     assertThat(dp2.getRibs().rowMap(), hasEntry(equalTo("n"), hasKey("vr")));
   }
+
+  /** Test that each component of a stored dataplane is only read when it is first requested. */
+  @Test
+  public void testDataplaneLoadedLazily() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    DataPlane dp =
+        MockDataPlane.builder()
+            .setForwardingAnalysis(MockForwardingAnalysis.builder().build())
+            .setFibs(ImmutableMap.of("n", ImmutableMap.of("v", MockFib.builder().build())))
+            .setPrefixTracingInfoSummary(ImmutableSortedMap.of("n", ImmutableSortedMap.of()))
+            .setRibs(ImmutableTable.of("n", "v", FinalMainRib.of()))
+            .build();
+    _storage.storeDataPlane(dp, snapshot);
+    DataPlane dp2 = _storage.loadDataPlane(snapshot);
+
+    // Remove the stored RIBs after loading: FIBs are still available, but RIBs are not.
+    try (Stream<Path> paths = Files.walk(_containerDir.getParent())) {
+      for (Path path : (Iterable<Path>) paths::iterator) {
+        if (path.getFileName().toString().equals("ribs")) {
+          Files.delete(path);
+        }
+      }
+    }
+    assertThat(dp2.getFibs(), hasEntry(equalTo("n"), hasKey("v")));
+    _thrown.expect(BatfishException.class);
+    dp2.getRibs();
+  }
 }
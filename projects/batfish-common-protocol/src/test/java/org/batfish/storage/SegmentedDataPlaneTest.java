@@ -0,0 +1,33 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.storage.SegmentedDataPlane.SoftMemoizingSupplier;
+import org.junit.Test;
+
+/** Tests of {@link SegmentedDataPlane}. */
+public final class SegmentedDataPlaneTest {
+
+  @Test
+  public void testSoftMemoizingSupplier() {
+    AtomicInteger loads = new AtomicInteger();
+    SoftMemoizingSupplier<Object> supplier =
+        new SoftMemoizingSupplier<>(
+            () -> {
+              loads.incrementAndGet();
+              return new Object();
+            });
+
+    Object value = supplier.get();
+    assertThat(supplier.get(), sameInstance(value));
+    assertThat(loads.get(), equalTo(1));
+
+    // once the value is cleared, it is loaded again
+    supplier.clear();
+    supplier.get();
+    assertThat(loads.get(), equalTo(2));
+  }
+}
@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
@@ -19,6 +20,8 @@ import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import net.sf.javabdd.BDD;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.batfish.bddreachability.transition.Transition;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.specifier.Location;
@@ -49,6 +52,19 @@ import org.batfish.symbolic.state.StateExpr;
  * all packets that can reach the query state, backward reachability is much more efficient.
  */
 public class BDDReachabilityAnalysis implements Serializable {
+  private static final Logger LOGGER = LogManager.getLogger(BDDReachabilityAnalysis.class);
+
+  /** How fixpoint computations choose the next state to process. */
+  public enum FixpointScheduling {
+    /** Process the state that has been visited the fewest times first. */
+    VISIT_COUNT,
+    /**
+     * Saturate each strongly connected component of the graph before moving to the next one, in
+     * topological order.
+     */
+    SCC
+  }
+
   private final BDDPacket _bddPacket;
 
   // preState --> postState --> transition from pre to post
@@ -56,6 +72,13 @@ public class BDDReachabilityAnalysis implements Serializable {
   // postState --> preState --> transition from pre to post
   private transient Supplier<Table<StateExpr, StateExpr, Transition>> _transposedEdgeTable;
 
+  // strongly connected components of the forward/transposed edge tables, in topological order.
+  // computed once and reused by every query using FixpointScheduling.SCC.
+  private transient Supplier<List<Set<StateExpr>>> _forwardSccs;
+  private transient Supplier<List<Set<StateExpr>>> _transposedSccs;
+
+  private FixpointScheduling _fixpointScheduling = FixpointScheduling.VISIT_COUNT;
+
   // stateExprs that correspond to the IngressLocations of interest
   private final ImmutableSet<StateExpr> _ingressLocationStates;
 
@@ -76,6 +99,58 @@ public class BDDReachabilityAnalysis implements Serializable {
   private void initTransientFields() {
     _transposedEdgeTable =
         Suppliers.memoize(() -> BDDReachabilityUtils.transposeAndMaterialize(_forwardEdgeTable));
+    _forwardSccs =
+        Suppliers.memoize(
+            () -> BDDReachabilityUtils.computeSccsInTopologicalOrder(_forwardEdgeTable));
+    _transposedSccs =
+        Suppliers.memoize(
+            () -> BDDReachabilityUtils.computeSccsInTopologicalOrder(_transposedEdgeTable.get()));
+  }
+
+  public FixpointScheduling getFixpointScheduling() {
+    return _fixpointScheduling;
+  }
+
+  public void setFixpointScheduling(FixpointScheduling fixpointScheduling) {
+    _fixpointScheduling = fixpointScheduling;
+  }
+
+  /** Runs a backward fixpoint from {@code reverseReachable} using the configured scheduling. */
+  private void backwardFixpoint(Map<StateExpr, BDD> reverseReachable) {
+    FixpointStats stats;
+    switch (_fixpointScheduling) {
+      case SCC:
+        stats =
+            BDDReachabilityUtils.backwardSccFixpointTransposed(
+                _transposedEdgeTable.get(), _transposedSccs.get(), reverseReachable);
+        break;
+      case VISIT_COUNT:
+        stats =
+            BDDReachabilityUtils.backwardFixpointTransposed(
+                _transposedEdgeTable.get(), reverseReachable);
+        break;
+      default:
+        throw new IllegalStateException("Unexpected fixpoint scheduling: " + _fixpointScheduling);
+    }
+    LOGGER.debug("Backward fixpoint ({}): {}", _fixpointScheduling, stats);
+  }
+
+  /** Runs a forward fixpoint from {@code reachable} using the configured scheduling. */
+  private void forwardFixpoint(Map<StateExpr, BDD> reachable) {
+    FixpointStats stats;
+    switch (_fixpointScheduling) {
+      case SCC:
+        stats =
+            BDDReachabilityUtils.forwardSccFixpoint(
+                _forwardEdgeTable, _forwardSccs.get(), reachable);
+        break;
+      case VISIT_COUNT:
+        stats = BDDReachabilityUtils.forwardFixpoint(_forwardEdgeTable, reachable);
+        break;
+      default:
+        throw new IllegalStateException("Unexpected fixpoint scheduling: " + _fixpointScheduling);
+    }
+    LOGGER.debug("Forward fixpoint ({}): {}", _fixpointScheduling, stats);
   }
 
   private void readObject(java.io.ObjectInputStream stream)
@@ -87,8 +162,7 @@ public class BDDReachabilityAnalysis implements Serializable {
   Map<StateExpr, BDD> computeReverseReachableStates() {
     Map<StateExpr, BDD> reverseReachableStates = new HashMap<>();
     reverseReachableStates.put(Query.INSTANCE, _queryHeaderSpaceBdd);
-    BDDReachabilityUtils.backwardFixpointTransposed(
-        _transposedEdgeTable.get(), reverseReachableStates);
+    backwardFixpoint(reverseReachableStates);
     return ImmutableMap.copyOf(reverseReachableStates);
   }
 
@@ -99,8 +173,7 @@ public class BDDReachabilityAnalysis implements Serializable {
    */
   public Map<StateExpr, BDD> computeReverseReachableStates(Map<StateExpr, BDD> roots) {
     Map<StateExpr, BDD> reverseReachableStates = new HashMap<>(roots);
-    BDDReachabilityUtils.backwardFixpointTransposed(
-        _transposedEdgeTable.get(), reverseReachableStates);
+    backwardFixpoint(reverseReachableStates);
     return ImmutableMap.copyOf(reverseReachableStates);
   }
 
@@ -108,7 +181,7 @@ public class BDDReachabilityAnalysis implements Serializable {
     Map<StateExpr, BDD> forwardReachableStates = new LinkedHashMap<>();
     _ingressLocationStates.forEach(
         state -> forwardReachableStates.put(state, _bddPacket.getFactory().one()));
-    BDDReachabilityUtils.forwardFixpoint(_forwardEdgeTable, forwardReachableStates);
+    forwardFixpoint(forwardReachableStates);
     return ImmutableMap.copyOf(forwardReachableStates);
   }
 
@@ -119,7 +192,7 @@ public class BDDReachabilityAnalysis implements Serializable {
   public Map<StateExpr, BDD> computeForwardReachableStates(
       Map<StateExpr, BDD> initialReachableStates) {
     Map<StateExpr, BDD> forwardReachableStates = new LinkedHashMap<>(initialReachableStates);
-    BDDReachabilityUtils.forwardFixpoint(_forwardEdgeTable, forwardReachableStates);
+    forwardFixpoint(forwardReachableStates);
     return ImmutableMap.copyOf(forwardReachableStates);
   }
 
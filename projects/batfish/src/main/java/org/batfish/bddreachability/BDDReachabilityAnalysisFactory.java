@@ -49,6 +49,7 @@ import javax.annotation.ParametersAreNonnullByDefault;
 import net.sf.javabdd.BDD;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.batfish.bddreachability.BDDReachabilityAnalysis.FixpointScheduling;
 import org.batfish.bddreachability.IpsRoutedOutInterfacesFactory.IpsRoutedOutInterfaces;
 import org.batfish.bddreachability.transition.TransformationToTransition;
 import org.batfish.bddreachability.transition.Transition;
@@ -250,6 +251,9 @@ public final class BDDReachabilityAnalysisFactory {
   private final BDD _zero;
   private final IpsRoutedOutInterfacesFactory _ipsRoutesOutInterfacesFactory;
 
+  /** Scheduling of the fixpoints of the {@link BDDReachabilityAnalysis analyses} created. */
+  private @Nonnull FixpointScheduling _fixpointScheduling = FixpointScheduling.VISIT_COUNT;
+
   public BDDReachabilityAnalysisFactory(
       BDDPacket packet,
       Map<String, Configuration> configs,
@@ -1381,8 +1385,7 @@ public final class BDDReachabilityAnalysisFactory {
     BDDLoopDetectionAnalysis loopDetectionAnalysis =
         new BDDLoopDetectionAnalysis(_bddPacket, sharedEdges.stream(), roots.keySet());
     BDDReachabilityAnalysis reachabilityAnalysis =
-        new BDDReachabilityAnalysis(
-            _bddPacket, roots.keySet(), reachabilityEdges, finalHeaderSpaceBdd);
+        newBddReachabilityAnalysis(roots.keySet(), reachabilityEdges, finalHeaderSpaceBdd);
 
     return new BDDReachabilityAndLoopDetectionAnalysis(reachabilityAnalysis, loopDetectionAnalysis);
   }
@@ -1454,7 +1457,7 @@ public final class BDDReachabilityAnalysisFactory {
     edgeStream = instrumentForbiddenTransitNodes(forbiddenTransitNodes, edgeStream);
     edgeStream = instrumentRequiredTransitNodes(requiredTransitNodes, edgeStream);
 
-    return new BDDReachabilityAnalysis(_bddPacket, roots.keySet(), edgeStream, finalHeaderSpaceBdd);
+    return newBddReachabilityAnalysis(roots.keySet(), edgeStream, finalHeaderSpaceBdd);
   }
 
   private BDD computeInitialHeaderSpaceBdd(AclLineMatchExpr initialHeaderSpace) {
@@ -1562,8 +1565,7 @@ public final class BDDReachabilityAnalysisFactory {
     returnPassEdges = instrumentForbiddenTransitNodes(forbiddenTransitNodes, returnPassEdges);
     returnPassEdges = instrumentRequiredTransitNodes(requiredTransitNodes, returnPassEdges);
 
-    return new BDDReachabilityAnalysis(
-        _bddPacket, returnPassOrigBdds.keySet(), returnPassEdges, _one);
+    return newBddReachabilityAnalysis(returnPassOrigBdds.keySet(), returnPassEdges, _one);
   }
 
   /**
@@ -1880,6 +1882,23 @@ public final class BDDReachabilityAnalysisFactory {
     return _lastHopMgr;
   }
 
+  public @Nonnull FixpointScheduling getFixpointScheduling() {
+    return _fixpointScheduling;
+  }
+
+  /** Sets the fixpoint scheduling of the {@link BDDReachabilityAnalysis analyses} created after. */
+  public void setFixpointScheduling(FixpointScheduling fixpointScheduling) {
+    _fixpointScheduling = fixpointScheduling;
+  }
+
+  private @Nonnull BDDReachabilityAnalysis newBddReachabilityAnalysis(
+      Set<StateExpr> ingressLocationStates, Stream<Edge> edges, BDD queryHeaderSpaceBdd) {
+    BDDReachabilityAnalysis analysis =
+        new BDDReachabilityAnalysis(_bddPacket, ingressLocationStates, edges, queryHeaderSpaceBdd);
+    analysis.setFixpointScheduling(_fixpointScheduling);
+    return analysis;
+  }
+
   /**
    * Returns a stream of all active L3 interfaces in the network.
    *
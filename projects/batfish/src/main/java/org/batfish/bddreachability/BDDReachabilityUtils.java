@@ -2,25 +2,35 @@ package org.batfish.bddreachability;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableTable.toImmutableTable;
+import static org.batfish.common.BatfishInterruptedException.checkNotInterrupted;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
 import com.google.common.collect.Table;
 import com.google.common.collect.Tables;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 import net.sf.javabdd.BDD;
@@ -55,13 +65,14 @@ public final class BDDReachabilityUtils {
 
   /** Apply edges to the reachableSets until a fixed point is reached. */
   @VisibleForTesting
-  static void fixpoint(
+  static FixpointStats fixpoint(
       Map<StateExpr, BDD> reachableSets,
       Table<StateExpr, StateExpr, Transition> edges,
       BiFunction<Transition, BDD, BDD> traverse) {
+    FixpointStats stats = new FixpointStats();
     if (reachableSets.isEmpty()) {
       // No work to do.
-      return;
+      return stats;
     }
     // Get a BDDFactory for zero and orAll.
     BDDFactory factory = reachableSets.entrySet().iterator().next().getValue().getFactory();
@@ -87,63 +98,256 @@ public final class BDDReachabilityUtils {
     reachableSets.clear();
 
     while (!dirtyStates.isEmpty()) {
+      checkNotInterrupted("reachability fixpoint");
       StateExpr dirtyState = dirtyStates.remove();
       visitCounts.compute(dirtyState, (unused, oldCount) -> oldCount == null ? 1 : oldCount + 1);
-      List<BDD> inputs = dirtyInputs.removeAll(dirtyState);
-      assert !inputs.isEmpty();
-      BDD prior = reachableSets.get(dirtyState);
-
-      BDD newValue;
-      if (prior != null) {
-        List<BDD> tmp = new ArrayList<>(inputs.size() + 1);
-        tmp.addAll(inputs);
-        tmp.add(prior);
-        newValue = factory.orAll(tmp);
-      } else {
-        newValue = factory.orAll(inputs);
-      }
+      processDirtyState(
+          dirtyState,
+          dirtyInputs.removeAll(dirtyState),
+          reachableSets,
+          edges,
+          traverse,
+          factory,
+          stats,
+          (neighbor, result) -> {
+            // this is a new result. add it to neighbor's inputs. if neighbor isn't already in
+            // the dirtyStates queue, add it.
+            if (!dirtyInputs.containsKey(neighbor)) {
+              dirtyStates.add(neighbor);
+            }
+            dirtyInputs.put(neighbor, result);
+          });
+    }
+    return stats;
+  }
 
-      if (newValue.equals(prior)) {
-        // No change, so no need to update neighbors.
-        newValue.free();
-        inputs.forEach(BDD::free);
-        continue;
-      }
+  /**
+   * Apply edges to the reachableSets until a fixed point is reached, processing the strongly
+   * connected components of the graph in topological order. Each component is saturated before any
+   * downstream component is processed, so every state outside a cycle is visited at most once.
+   *
+   * <p>The result is identical to {@link #fixpoint(Map, Table, BiFunction)}.
+   *
+   * <p>This is a sequential schedule, used by {@link
+   * BDDReachabilityAnalysis.FixpointScheduling#SCC}: components are processed one at a time, all in
+   * the {@link BDDFactory} of the reachable sets.
+   *
+   * @param sccs the strongly connected components of {@code edges}, in topological order. See
+   *     {@link #computeSccsInTopologicalOrder(Table)}.
+   */
+  @VisibleForTesting
+  static FixpointStats sccFixpoint(
+      Map<StateExpr, BDD> reachableSets,
+      Table<StateExpr, StateExpr, Transition> edges,
+      List<Set<StateExpr>> sccs,
+      BiFunction<Transition, BDD, BDD> traverse) {
+    FixpointStats stats = new FixpointStats();
+    if (reachableSets.isEmpty()) {
+      // No work to do.
+      return stats;
+    }
+    // Get a BDDFactory for zero and orAll.
+    BDDFactory factory = reachableSets.entrySet().iterator().next().getValue().getFactory();
 
-      // Update the value and free the old one.
-      reachableSets.put(dirtyState, newValue);
-      if (prior != null) {
-        prior.free();
-      }
+    // For each state to process, all the incoming BDDs.
+    ListMultimap<StateExpr, BDD> dirtyInputs = LinkedListMultimap.create();
 
-      Map<StateExpr, Transition> dirtyStateEdges = edges.row(dirtyState);
-      if (dirtyStateEdges.isEmpty()) {
-        inputs.forEach(BDD::free);
-        continue;
-      }
+    // Seed the dirty inputs with the initial reachable sets, then clear the reachable sets.
+    reachableSets.forEach((key, value) -> dirtyInputs.put(key, value.id()));
+    reachableSets.clear();
 
-      // Compute the newly learned BDDs (union of inputs) and then free them.
-      BDD learned = prior == null ? newValue.id() : factory.orAllAndFree(inputs);
-
-      // Forward the learned BDDs along each outgoing edge.
-      dirtyStateEdges.forEach(
-          (neighbor, edge) -> {
-            long priorBDDs = factory.numOutstandingBDDs();
-            BDD result = traverse.apply(edge, learned);
-            long newBDDs = factory.numOutstandingBDDs();
-            assert newBDDs - priorBDDs == 1
-                : "Leak of size " + (newBDDs - priorBDDs - 1) + ": " + edge;
-            if (!result.isZero()) {
-              // this is a new result. add it to neighbor's inputs. if neighbor isn't already in
-              // the dirtyStates queue, add it.
-              if (!dirtyInputs.containsKey(neighbor)) {
+    for (Set<StateExpr> scc : sccs) {
+      if (dirtyInputs.isEmpty()) {
+        break;
+      }
+      // Dirty states of the current component. Inputs to downstream components are left in
+      // dirtyInputs until their component is processed.
+      // invariant: the queue never contains duplicate elements.
+      Queue<StateExpr> dirtyStates = new ArrayDeque<>();
+      for (StateExpr state : scc) {
+        if (dirtyInputs.containsKey(state)) {
+          dirtyStates.add(state);
+        }
+      }
+      while (!dirtyStates.isEmpty()) {
+        checkNotInterrupted("reachability fixpoint");
+        StateExpr dirtyState = dirtyStates.remove();
+        processDirtyState(
+            dirtyState,
+            dirtyInputs.removeAll(dirtyState),
+            reachableSets,
+            edges,
+            traverse,
+            factory,
+            stats,
+            (neighbor, result) -> {
+              if (scc.contains(neighbor) && !dirtyInputs.containsKey(neighbor)) {
                 dirtyStates.add(neighbor);
               }
               dirtyInputs.put(neighbor, result);
-            }
+            });
+      }
+    }
+
+    // Initial states that are not in the graph at all have no edges, so just record their inputs.
+    for (StateExpr state : ImmutableList.copyOf(dirtyInputs.keySet())) {
+      processDirtyState(
+          state,
+          dirtyInputs.removeAll(state),
+          reachableSets,
+          edges,
+          traverse,
+          factory,
+          stats,
+          (neighbor, result) -> {
+            throw new IllegalArgumentException(
+                "State " + state + " has edges but is not in any strongly connected component");
           });
-      learned.free();
     }
+    return stats;
+  }
+
+  /**
+   * Merge the {@code inputs} of {@code dirtyState} into its reachable set. If the set changes,
+   * forward the newly learned BDD along each outgoing edge, and pass each non-zero result to {@code
+   * propagate}. Takes ownership of (and eventually frees) the {@code inputs}.
+   */
+  private static void processDirtyState(
+      StateExpr dirtyState,
+      List<BDD> inputs,
+      Map<StateExpr, BDD> reachableSets,
+      Table<StateExpr, StateExpr, Transition> edges,
+      BiFunction<Transition, BDD, BDD> traverse,
+      BDDFactory factory,
+      FixpointStats stats,
+      BiConsumer<StateExpr, BDD> propagate) {
+    assert !inputs.isEmpty();
+    stats.recordStateVisit();
+    BDD prior = reachableSets.get(dirtyState);
+
+    BDD newValue;
+    if (prior != null) {
+      List<BDD> tmp = new ArrayList<>(inputs.size() + 1);
+      tmp.addAll(inputs);
+      tmp.add(prior);
+      newValue = factory.orAll(tmp);
+    } else {
+      newValue = factory.orAll(inputs);
+    }
+    stats.recordOrAll();
+
+    if (newValue.equals(prior)) {
+      // No change, so no need to update neighbors.
+      newValue.free();
+      inputs.forEach(BDD::free);
+      return;
+    }
+
+    // Update the value and free the old one.
+    reachableSets.put(dirtyState, newValue);
+    if (prior != null) {
+      prior.free();
+    }
+
+    Map<StateExpr, Transition> dirtyStateEdges = edges.row(dirtyState);
+    if (dirtyStateEdges.isEmpty()) {
+      inputs.forEach(BDD::free);
+      return;
+    }
+
+    // Compute the newly learned BDDs (union of inputs) and then free them.
+    BDD learned;
+    if (prior == null) {
+      learned = newValue.id();
+    } else {
+      learned = factory.orAllAndFree(inputs);
+      stats.recordOrAll();
+    }
+
+    // Forward the learned BDDs along each outgoing edge.
+    dirtyStateEdges.forEach(
+        (neighbor, edge) -> {
+          stats.recordEdgeTraversal();
+          long priorBDDs = factory.numOutstandingBDDs();
+          BDD result = traverse.apply(edge, learned);
+          long newBDDs = factory.numOutstandingBDDs();
+          assert newBDDs - priorBDDs == 1
+              : "Leak of size " + (newBDDs - priorBDDs - 1) + ": " + edge;
+          if (!result.isZero()) {
+            propagate.accept(neighbor, result);
+          }
+        });
+    learned.free();
+  }
+
+  /**
+   * Compute the strongly connected components of the graph defined by {@code edges}, in
+   * topological order: for every edge from a state in component {@code i} to a state in component
+   * {@code j}, {@code i <= j}.
+   */
+  public static List<Set<StateExpr>> computeSccsInTopologicalOrder(
+      Table<StateExpr, StateExpr, ?> edges) {
+    // Iterative version of Tarjan's algorithm (the graph can be too deep for recursion). Tarjan's
+    // algorithm finds components in reverse topological order.
+    Map<StateExpr, Integer> indices = new HashMap<>();
+    Map<StateExpr, Integer> lowLinks = new HashMap<>();
+    Set<StateExpr> onSccStack = new HashSet<>();
+    Deque<StateExpr> sccStack = new ArrayDeque<>();
+    Deque<StateExpr> callStack = new ArrayDeque<>();
+    Deque<Iterator<StateExpr>> successorIterators = new ArrayDeque<>();
+    List<Set<StateExpr>> sccs = new ArrayList<>();
+
+    for (StateExpr root : Sets.union(edges.rowKeySet(), edges.columnKeySet())) {
+      if (indices.containsKey(root)) {
+        continue;
+      }
+      indices.put(root, indices.size());
+      lowLinks.put(root, indices.get(root));
+      sccStack.push(root);
+      onSccStack.add(root);
+      callStack.push(root);
+      successorIterators.push(edges.row(root).keySet().iterator());
+
+      while (!callStack.isEmpty()) {
+        StateExpr state = callStack.peek();
+        Iterator<StateExpr> successors = successorIterators.peek();
+        if (successors.hasNext()) {
+          StateExpr successor = successors.next();
+          if (!indices.containsKey(successor)) {
+            // "recursive call" on successor
+            indices.put(successor, indices.size());
+            lowLinks.put(successor, indices.get(successor));
+            sccStack.push(successor);
+            onSccStack.add(successor);
+            callStack.push(successor);
+            successorIterators.push(edges.row(successor).keySet().iterator());
+          } else if (onSccStack.contains(successor)) {
+            lowLinks.put(state, Math.min(lowLinks.get(state), indices.get(successor)));
+          }
+          continue;
+        }
+
+        // all successors visited: "return" from state
+        callStack.pop();
+        successorIterators.pop();
+        int lowLink = lowLinks.get(state);
+        StateExpr caller = callStack.peek();
+        if (caller != null) {
+          lowLinks.put(caller, Math.min(lowLinks.get(caller), lowLink));
+        }
+        if (lowLink == indices.get(state)) {
+          ImmutableSet.Builder<StateExpr> scc = ImmutableSet.builder();
+          StateExpr member;
+          do {
+            member = sccStack.pop();
+            onSccStack.remove(member);
+            scc.add(member);
+          } while (member != state);
+          sccs.add(scc.build());
+        }
+      }
+    }
+    return Lists.reverse(sccs);
   }
 
   @VisibleForTesting
@@ -167,17 +371,17 @@ public final class BDDReachabilityUtils {
    * #backwardFixpointTransposed(Table, Map)} on a transposed, materialized edge table (see {@link
    * BDDReachabilityUtils#transposeAndMaterialize(Table)}) to save redundant computations.
    */
-  public static void backwardFixpoint(
+  public static FixpointStats backwardFixpoint(
       Table<StateExpr, StateExpr, Transition> forwardEdgeTable,
       Map<StateExpr, BDD> reverseReachable) {
-    backwardFixpointTransposed(transposeAndMaterialize(forwardEdgeTable), reverseReachable);
+    return backwardFixpointTransposed(transposeAndMaterialize(forwardEdgeTable), reverseReachable);
   }
 
   /** See {@link #backwardFixpoint(Table, Map)}. */
-  public static void backwardFixpointTransposed(
+  public static FixpointStats backwardFixpointTransposed(
       Table<StateExpr, StateExpr, Transition> transposedEdgeTable,
       Map<StateExpr, BDD> reverseReachable) {
-    fixpoint(reverseReachable, transposedEdgeTable, Transition::transitBackward);
+    return fixpoint(reverseReachable, transposedEdgeTable, Transition::transitBackward);
   }
 
   /**
@@ -200,9 +404,38 @@ public final class BDDReachabilityUtils {
                 Edge::getPostState, Edge::getPreState, Edge::getTransition));
   }
 
-  public static void forwardFixpoint(
+  public static FixpointStats forwardFixpoint(
       Table<StateExpr, StateExpr, Transition> forwardEdgeTable, Map<StateExpr, BDD> reachable) {
-    fixpoint(reachable, forwardEdgeTable, Transition::transitForward);
+    return fixpoint(reachable, forwardEdgeTable, Transition::transitForward);
+  }
+
+  /**
+   * Like {@link #forwardFixpoint(Table, Map)}, but saturates strongly connected components in
+   * topological order.
+   *
+   * @param forwardSccs the strongly connected components of {@code forwardEdgeTable} in topological
+   *     order, as computed by {@link #computeSccsInTopologicalOrder(Table)}.
+   */
+  public static FixpointStats forwardSccFixpoint(
+      Table<StateExpr, StateExpr, Transition> forwardEdgeTable,
+      List<Set<StateExpr>> forwardSccs,
+      Map<StateExpr, BDD> reachable) {
+    return sccFixpoint(reachable, forwardEdgeTable, forwardSccs, Transition::transitForward);
+  }
+
+  /**
+   * Like {@link #backwardFixpointTransposed(Table, Map)}, but saturates strongly connected
+   * components in topological order.
+   *
+   * @param transposedSccs the strongly connected components of {@code transposedEdgeTable} in
+   *     topological order, as computed by {@link #computeSccsInTopologicalOrder(Table)}.
+   */
+  public static FixpointStats backwardSccFixpointTransposed(
+      Table<StateExpr, StateExpr, Transition> transposedEdgeTable,
+      List<Set<StateExpr>> transposedSccs,
+      Map<StateExpr, BDD> reverseReachable) {
+    return sccFixpoint(
+        reverseReachable, transposedEdgeTable, transposedSccs, Transition::transitBackward);
   }
 
   static Map<IngressLocation, BDD> getIngressLocationBdds(
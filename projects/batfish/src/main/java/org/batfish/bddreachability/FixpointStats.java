@@ -0,0 +1,49 @@
+package org.batfish.bddreachability;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Counts the work done by a single reachability fixpoint computation. Used to compare the
+ * scheduling strategies of {@link BDDReachabilityUtils}.
+ */
+public final class FixpointStats {
+  private long _stateVisits;
+  private long _edgeTraversals;
+  private long _orAllCalls;
+
+  void recordStateVisit() {
+    _stateVisits++;
+  }
+
+  void recordEdgeTraversal() {
+    _edgeTraversals++;
+  }
+
+  void recordOrAll() {
+    _orAllCalls++;
+  }
+
+  /** The number of times a state with pending inputs was processed. */
+  public long getStateVisits() {
+    return _stateVisits;
+  }
+
+  /** The number of times a {@link org.batfish.bddreachability.transition.Transition} was applied. */
+  public long getEdgeTraversals() {
+    return _edgeTraversals;
+  }
+
+  /** The number of calls to {@link net.sf.javabdd.BDDFactory#orAll}. */
+  public long getOrAllCalls() {
+    return _orAllCalls;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(FixpointStats.class)
+        .add("stateVisits", _stateVisits)
+        .add("edgeTraversals", _edgeTraversals)
+        .add("orAllCalls", _orAllCalls)
+        .toString();
+  }
+}
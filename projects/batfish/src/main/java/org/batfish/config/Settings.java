@@ -7,9 +7,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.batfish.bddreachability.BDDReachabilityAnalysis.FixpointScheduling;
 import org.batfish.common.BaseSettings;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
@@ -18,10 +20,13 @@ import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.main.Driver.RunMode;
+import org.batfish.storage.SerializationBackend;
 import org.batfish.version.Versioned;
 
 public final class Settings extends BaseSettings implements GrammarSettings {
 
+  private static final String ARG_BDD_FIXPOINT_SCHEDULING = "bddfixpointscheduling";
+
   public static final String ARG_CHECK_BGP_REACHABILITY = "checkbgpsessionreachability";
 
   private static final String ARG_DATAPLANE_ENGINE_NAME = "dataplaneengine";
@@ -46,6 +51,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_JOBS = "jobs";
 
+  private static final String ARG_MAX_CONCURRENT_TASKS = "maxconcurrenttasks";
+
   private static final String ARG_MAX_PARSER_CONTEXT_LINES = "maxparsercontextlines";
 
   private static final String ARG_MAX_PARSER_CONTEXT_TOKENS = "maxparsercontexttokens";
@@ -64,6 +71,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_SEQUENTIAL = "sequential";
 
+  private static final String ARG_SERIALIZATION_BACKEND = "serializationbackend";
+
   private static final String ARG_THROW_ON_LEXER_ERROR = "throwlexer";
 
   private static final String ARG_THROW_ON_PARSER_ERROR = "throwparser";
@@ -145,6 +154,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(BfConsts.COMMAND_ANSWER);
   }
 
+  /** How the fixpoints of BDD reachability analyses choose the next state to process. */
+  public FixpointScheduling getBddFixpointScheduling() {
+    return FixpointScheduling.valueOf(
+        _config.getString(ARG_BDD_FIXPOINT_SCHEDULING).toUpperCase(Locale.ROOT));
+  }
+
   public int getAvailableThreads() {
     return Math.min(Runtime.getRuntime().availableProcessors(), getJobs());
   }
@@ -236,6 +251,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(ARG_PARSE_REUSE);
   }
 
+  /** Maximum number of tasks a worker service may run at the same time. */
+  public int getMaxConcurrentTasks() {
+    return _config.getInt(ARG_MAX_CONCURRENT_TASKS);
+  }
+
   @Override
   public int getMaxParserContextLines() {
     return _config.getInt(ARG_MAX_PARSER_CONTEXT_LINES);
@@ -302,6 +322,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return Paths.get(storageBase);
   }
 
+  /** How objects written to storage are serialized. */
+  public SerializationBackend getSerializationBackend() {
+    return SerializationBackend.valueOf(
+        _config.getString(ARG_SERIALIZATION_BACKEND).toUpperCase(Locale.ROOT));
+  }
+
   @Nullable
   public String getTaskId() {
     return _config.getString(TASK_ID);
@@ -363,6 +389,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(BfConsts.ARG_BDP_PRINT_ALL_ITERATIONS, false);
     setDefaultProperty(BfConsts.ARG_BDP_PRINT_OSCILLATING_ITERATIONS, false);
     setDefaultProperty(BfConsts.ARG_BDP_RECORD_ALL_ITERATIONS, false);
+    setDefaultProperty(ARG_BDD_FIXPOINT_SCHEDULING, FixpointScheduling.VISIT_COUNT.name());
     setDefaultProperty(CAN_EXECUTE, true);
     setDefaultProperty(BfConsts.ARG_CONTAINER, null);
     setDefaultProperty(ARG_DEBUG_FLAGS, ImmutableList.of());
@@ -383,6 +410,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_IGNORE_UNKNOWN, true);
     setDefaultProperty(ARG_JOBS, Integer.MAX_VALUE);
     setDefaultProperty(BfConsts.ARG_LOG_LEVEL, "debug");
+    setDefaultProperty(ARG_MAX_CONCURRENT_TASKS, 4);
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_LINES, 10);
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_TOKENS, 10);
     setDefaultProperty(ARG_MAX_PARSE_TREE_PRINT_LENGTH, 0);
@@ -395,6 +423,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(BfConsts.ARG_QUESTION_NAME, null);
     setDefaultProperty(ARG_RUN_MODE, RunMode.WORKER.toString());
     setDefaultProperty(ARG_SEQUENTIAL, false);
+    setDefaultProperty(ARG_SERIALIZATION_BACKEND, SerializationBackend.JAVA_DEDUPLICATED.name());
     setDefaultProperty(BfConsts.ARG_SNAPSHOT_NAME, null);
     setDefaultProperty(BfConsts.ARG_STORAGE_BASE, null);
     setDefaultProperty(BfConsts.ARG_TASK_PLUGIN, null);
@@ -449,6 +478,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
         "Set to true to record all iterations, including during oscillation. Ignores max recorded "
             + "iterations value.");
 
+    addOption(
+        ARG_BDD_FIXPOINT_SCHEDULING,
+        "scheduling of BDD reachability fixpoints: visit_count (default) or scc",
+        "scheduling");
+
     addBooleanOption(
         ARG_CHECK_BGP_REACHABILITY,
         "whether to check BGP session reachability during data plane computation");
@@ -513,6 +547,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_HISTOGRAM, "build histogram of unimplemented features");
 
+    addOption(
+        ARG_MAX_CONCURRENT_TASKS,
+        "maximum number of tasks a worker service may run at the same time",
+        ARGNAME_NUMBER);
+
     addOption(
         ARG_MAX_PARSER_CONTEXT_LINES,
         "max number of surrounding lines to print on parser error",
@@ -549,6 +588,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_SEQUENTIAL, "force sequential operation");
 
+    addOption(
+        ARG_SERIALIZATION_BACKEND,
+        "how objects written to storage are serialized: java_deduplicated (default) or java",
+        "backend");
+
     addOption(BfConsts.ARG_SNAPSHOT_NAME, "name of snapshot", ARGNAME_NAME);
 
     addOption(BfConsts.ARG_STORAGE_BASE, "path to the storage base", ARGNAME_PATH);
@@ -658,6 +702,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getBooleanOptionValue(BfConsts.ARG_ALWAYS_INCLUDE_ANSWER_IN_WORK_JSON_LOG);
     getBooleanOptionValue(BfConsts.COMMAND_ANSWER);
     getBooleanOptionValue(BfConsts.ARG_BDP_RECORD_ALL_ITERATIONS);
+    getStringOptionValue(ARG_BDD_FIXPOINT_SCHEDULING);
     getBooleanOptionValue(BfConsts.ARG_BDP_DETAIL);
     getIntOptionValue(BfConsts.ARG_BDP_MAX_OSCILLATION_RECOVERY_ATTEMPTS);
     getIntOptionValue(BfConsts.ARG_BDP_MAX_RECORDED_ITERATIONS);
@@ -682,6 +727,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getBooleanOptionValue(ARG_IGNORE_UNSUPPORTED);
     getBooleanOptionValue(BfConsts.COMMAND_INIT_INFO);
     getIntOptionValue(ARG_JOBS);
+    getIntOptionValue(ARG_MAX_CONCURRENT_TASKS);
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_LINES);
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_TOKENS);
     getIntOptionValue(ARG_MAX_PARSE_TREE_PRINT_LENGTH);
@@ -691,6 +737,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getStringOptionValue(BfConsts.ARG_QUESTION_NAME);
     getStringOptionValue(ARG_RUN_MODE);
     getBooleanOptionValue(ARG_SEQUENTIAL);
+    getStringOptionValue(ARG_SERIALIZATION_BACKEND);
     getBooleanOptionValue(BfConsts.COMMAND_PARSE_VENDOR_INDEPENDENT);
     getBooleanOptionValue(BfConsts.COMMAND_PARSE_VENDOR_SPECIFIC);
     getBooleanOptionValue(ARG_NO_SHUFFLE);
@@ -714,6 +761,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(BfConsts.ARG_CONTAINER, container);
   }
 
+  public void setBddFixpointScheduling(FixpointScheduling fixpointScheduling) {
+    _config.setProperty(ARG_BDD_FIXPOINT_SCHEDULING, fixpointScheduling.name());
+  }
+
   public void setDebugFlags(List<String> debugFlags) {
     _config.setProperty(ARG_DEBUG_FLAGS, debugFlags);
   }
@@ -785,6 +836,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(ARG_SEQUENTIAL, sequential);
   }
 
+  public void setSerializationBackend(SerializationBackend serializationBackend) {
+    _config.setProperty(ARG_SERIALIZATION_BACKEND, serializationBackend.name());
+  }
+
   public void setStorageBase(Path storageBase) {
     _config.setProperty(BfConsts.ARG_STORAGE_BASE, storageBase.toString());
   }
@@ -19,6 +19,9 @@ import static org.batfish.dataplane.protocols.BgpProtocolHelper.transformBgpRout
 import static org.batfish.dataplane.rib.RibDelta.importDeltaToBuilder;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -331,6 +334,24 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
    */
   private boolean _successfulWatchedTracksChanged;
 
+  /** Maximum number of import policy results memoized in {@link #_importPolicyResults}. */
+  private static final int MAX_IMPORT_POLICY_RESULTS = 1 << 14;
+
+  /**
+   * Maximum total number of import policy results memoized by all the processes of a data plane
+   * computation. See {@link #boundImportPolicyCaches(Collection)}.
+   */
+  private static final int MAX_TOTAL_IMPORT_POLICY_RESULTS = 1 << 18;
+
+  /**
+   * Results of import policies on routes received from neighbors, keyed by everything the policies
+   * can read other than track states, so that a route advertised again (e.g., withdrawn after being
+   * added, or re-sent on a new session) is not re-evaluated. Cleared whenever {@link
+   * #_successfulWatchedTracks} changes.
+   */
+  private @Nonnull Cache<ImportPolicyKey, Optional<Bgpv4Route>> _importPolicyResults =
+      newImportPolicyCache(MAX_IMPORT_POLICY_RESULTS);
+
   private static final Logger LOGGER = LogManager.getLogger(BgpRoutingProcess.class);
 
   /**
@@ -975,21 +996,15 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
 
       // Process route through import policy, if one exists
       String importPolicyName = ourBgpConfig.getIpv4UnicastAddressFamily().getImportPolicy();
-      boolean acceptIncoming = true;
       // TODO: ensure there is always an import policy
-      if (importPolicyName != null) {
-        RoutingPolicy importPolicy = _policies.get(importPolicyName).orElse(null);
-        if (importPolicy != null) {
-          acceptIncoming =
-              importPolicy.processBgpRoute(
-                  remoteRoute,
-                  transformedIncomingRouteBuilder,
-                  ourSessionProperties,
-                  IN,
-                  _successfulWatchedTracks::contains);
-        }
-      }
-      if (!acceptIncoming) {
+      RoutingPolicy importPolicy =
+          importPolicyName != null ? _policies.get(importPolicyName).orElse(null) : null;
+      Optional<Bgpv4Route> maybeTransformedIncomingRoute =
+          importPolicy != null
+              ? processImportPolicy(
+                  importPolicy, remoteRoute, transformedIncomingRouteBuilder, ourSessionProperties)
+              : Optional.of(transformedIncomingRouteBuilder.build());
+      if (!maybeTransformedIncomingRoute.isPresent()) {
         // Route could not be imported due to routing policy
         _prefixTracer.filtered(
             remoteRoute.getNetwork(),
@@ -1000,7 +1015,7 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
             IN);
         continue;
       }
-      Bgpv4Route transformedIncomingRoute = transformedIncomingRouteBuilder.build();
+      Bgpv4Route transformedIncomingRoute = maybeTransformedIncomingRoute.get();
 
       // If new route gets leaked to other VRFs via RibGroup, this VRF should be its source VRF.
       AnnotatedRoute<AbstractRoute> annotatedTransformedRoute =
@@ -1044,6 +1059,79 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
     }
   }
 
+  /**
+   * Runs {@code importPolicy} on a route received from a neighbor, returning the resulting route or
+   * {@link Optional#empty()} if the policy rejects it. Results are memoized in {@link
+   * #_importPolicyResults}.
+   *
+   * @param remoteRoute The route as advertised by the neighbor
+   * @param transformedRouteBuilder The route after {@link
+   *     BgpProtocolHelper#transformBgpRouteOnImport import transformations}, to be modified by the
+   *     policy
+   */
+  @Nonnull
+  @VisibleForTesting
+  Optional<Bgpv4Route> processImportPolicy(
+      RoutingPolicy importPolicy,
+      Bgpv4Route remoteRoute,
+      Bgpv4Route.Builder transformedRouteBuilder,
+      BgpSessionProperties sessionProperties) {
+    ImportPolicyKey key =
+        new ImportPolicyKey(
+            importPolicy.getName(),
+            remoteRoute,
+            transformedRouteBuilder.build(),
+            sessionProperties);
+    Optional<Bgpv4Route> result = _importPolicyResults.getIfPresent(key);
+    if (result == null) {
+      result =
+          importPolicy.processBgpRoute(
+                  remoteRoute,
+                  transformedRouteBuilder,
+                  sessionProperties,
+                  IN,
+                  _successfulWatchedTracks::contains)
+              ? Optional.of(transformedRouteBuilder.build())
+              : Optional.empty();
+      _importPolicyResults.put(key, result);
+    }
+    return result;
+  }
+
+  private static @Nonnull Cache<ImportPolicyKey, Optional<Bgpv4Route>> newImportPolicyCache(
+      int maximumSize) {
+    return CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * Returns the maximum number of import policy results each of {@code numProcesses} processes may
+   * memoize, so that they memoize at most {@link #MAX_TOTAL_IMPORT_POLICY_RESULTS} together.
+   */
+  @VisibleForTesting
+  static int maxImportPolicyResults(int numProcesses) {
+    return Math.min(
+        MAX_IMPORT_POLICY_RESULTS, MAX_TOTAL_IMPORT_POLICY_RESULTS / Math.max(numProcesses, 1));
+  }
+
+  /**
+   * Bounds the import policy result caches of the given processes, which are all the processes of a
+   * data plane computation, so that the memory they take together does not grow with the size of
+   * the network. Must be called before the processes evaluate any import policy.
+   */
+  static void boundImportPolicyCaches(Collection<BgpRoutingProcess> processes) {
+    int maximumSize = maxImportPolicyResults(processes.size());
+    for (BgpRoutingProcess process : processes) {
+      assert process._importPolicyResults.size() == 0;
+      process._importPolicyResults = newImportPolicyCache(maximumSize);
+    }
+  }
+
+  /** Returns the hit and miss counts of {@link #_importPolicyResults}. */
+  @Nonnull
+  CacheStats getImportPolicyCacheStats() {
+    return _importPolicyResults.stats();
+  }
+
   /**
    * Generates and returns all BGP advertisements this process should send over the given edge this
    * iteration. These advertisements come from BGP routes, non-BGP routes (if this process does not
@@ -2430,6 +2518,10 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
     _successfulWatchedTracks = computeSuccessfulWatchedTracks(trackMethodEvaluatorProvider);
     _successfulWatchedTracksChanged =
         !_successfulWatchedTracks.equals(_successfulWatchedTracksPrev);
+    if (_successfulWatchedTracksChanged) {
+      // policies may reference tracks, so memoized results may no longer hold
+      _importPolicyResults.invalidateAll();
+    }
     if (_successfulWatchedTracksChanged && !_exportFromBgpRib) {
       // Sanity check that we are calling this method prior to its own execution schedule in the
       // iteration, and prior to any other node's execution schedule that touches this node.
@@ -2687,6 +2779,59 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
     }
   }
 
+  /**
+   * Key of {@link #_importPolicyResults}: the inputs of an import policy evaluation, other than
+   * track states.
+   *
+   * <p>Session properties are compared by identity, since they are not cheap to hash and a session
+   * keeps the same {@link BgpSessionProperties} as long as the {@link BgpTopology} is unchanged.
+   */
+  private static final class ImportPolicyKey {
+    private final @Nonnull String _policyName;
+    private final @Nonnull Bgpv4Route _remoteRoute;
+    private final @Nonnull Bgpv4Route _transformedRoute;
+    private final @Nonnull BgpSessionProperties _sessionProperties;
+    private final int _hashCode;
+
+    private ImportPolicyKey(
+        String policyName,
+        Bgpv4Route remoteRoute,
+        Bgpv4Route transformedRoute,
+        BgpSessionProperties sessionProperties) {
+      _policyName = policyName;
+      _remoteRoute = remoteRoute;
+      _transformedRoute = transformedRoute;
+      _sessionProperties = sessionProperties;
+      _hashCode =
+          Objects.hash(
+              policyName,
+              remoteRoute,
+              transformedRoute,
+              System.identityHashCode(sessionProperties));
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ImportPolicyKey)) {
+        return false;
+      }
+      ImportPolicyKey that = (ImportPolicyKey) o;
+      return _hashCode == that._hashCode
+          && _sessionProperties == that._sessionProperties
+          && _policyName.equals(that._policyName)
+          && _remoteRoute.equals(that._remoteRoute)
+          && _transformedRoute.equals(that._transformedRoute);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+
   /** Type of BGP RIB. Solely for use in {@link BgpRoutingProcess#getRib} */
   private enum RibType {
     /** For eBGP routes only */
@@ -0,0 +1,173 @@
+package org.batfish.dataplane.ibdp;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishException;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.datamodel.answers.DataPlaneProfile;
+import org.batfish.datamodel.answers.DataPlaneProfile.IterationProfile;
+import org.batfish.datamodel.answers.DataPlaneProfile.VrfProfile;
+import org.batfish.dataplane.rib.RouteAdvertisement;
+
+/**
+ * Collects a {@link DataPlaneProfile} over the course of a dataplane computation, along with a
+ * trace of every timed phase in the (Chrome) Trace Event Format, which can be loaded into
+ * chrome://tracing, Perfetto, and similar tools.
+ *
+ * <p>Phases must be recorded from the thread driving the computation. Time spent in individual
+ * virtual routers may be recorded from any thread.
+ */
+@ParametersAreNonnullByDefault
+final class DataPlaneProfiler {
+
+  /** Number of virtual routers to report in {@link DataPlaneProfile#getSlowestVrfs()}. */
+  private static final int NUM_SLOWEST_VRFS = 10;
+
+  private long _importPolicyCacheHits;
+  private long _importPolicyCacheMisses;
+  private final @Nonnull List<IterationProfile> _iterations;
+  private final @Nullable com.sun.management.OperatingSystemMXBean _osBean;
+  private final long _startNanos;
+  private final @Nonnull List<Map<String, Object>> _traceEvents;
+  private final @Nonnull Map<VirtualRouter, LongAdder> _vrNanos;
+
+  DataPlaneProfiler() {
+    _iterations = new ArrayList<>();
+    OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    _osBean =
+        osBean instanceof com.sun.management.OperatingSystemMXBean
+            ? (com.sun.management.OperatingSystemMXBean) osBean
+            : null;
+    _startNanos = System.nanoTime();
+    _traceEvents = new ArrayList<>();
+    _vrNanos = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the CPU time used by the process so far in nanoseconds, or {@code -1} if the JVM does
+   * not report it. Process rather than thread CPU time, since phases run on many threads.
+   */
+  long processCpuNanos() {
+    return _osBean == null ? -1 : _osBean.getProcessCpuTime();
+  }
+
+  /**
+   * Record one execution of a phase.
+   *
+   * @param startNanos value of {@link System#nanoTime()} when the phase started
+   * @param wallNanos wall-clock duration of the phase
+   * @param cpuNanos process CPU time used during the phase, or {@code -1} if unknown
+   */
+  void recordPhase(
+      int iteration, String phaseName, long startNanos, long wallNanos, long cpuNanos) {
+    ImmutableMap.Builder<String, Object> args =
+        ImmutableMap.<String, Object>builder().put("iteration", iteration);
+    if (cpuNanos >= 0) {
+      args.put("cpuMicros", TimeUnit.NANOSECONDS.toMicros(cpuNanos));
+    }
+    _traceEvents.add(
+        ImmutableMap.<String, Object>builder()
+            .put("name", phaseName)
+            .put("cat", "iteration")
+            .put("ph", "X")
+            .put("ts", TimeUnit.NANOSECONDS.toMicros(startNanos - _startNanos))
+            .put("dur", TimeUnit.NANOSECONDS.toMicros(wallNanos))
+            .put("pid", 0)
+            .put("tid", 0)
+            .put("args", args.build())
+            .build());
+  }
+
+  /** Record time spent computing routes in a single virtual router. Thread-safe. */
+  void recordVirtualRouterTime(VirtualRouter vr, long nanos) {
+    _vrNanos.computeIfAbsent(vr, k -> new LongAdder()).add(nanos);
+  }
+
+  /**
+   * Record the end of an iteration. Must be called after {@link VirtualRouter#endOfEgpRound()}, so
+   * that the main RIB deltas of the iteration are available.
+   */
+  void recordIteration(int iteration, IterationTimings timings, List<VirtualRouter> vrs) {
+    SortedMap<String, Integer> mainRibUpdatesByProtocol = new TreeMap<>();
+    int queuedMessages = 0;
+    for (VirtualRouter vr : vrs) {
+      for (RouteAdvertisement<?> ra : vr.getMainRibDeltaPrevRound().getActions()) {
+        mainRibUpdatesByProtocol.merge(
+            ra.getRoute().getAbstractRoute().getProtocol().protocolName(), 1, Integer::sum);
+      }
+      queuedMessages += vr.getNumQueuedMessages();
+    }
+    _iterations.add(
+        new IterationProfile(
+            iteration, timings.getPhaseProfiles(), mainRibUpdatesByProtocol, queuedMessages));
+  }
+
+  /**
+   * Record the hit and miss counts of the BGP import policy result caches of the given virtual
+   * routers. Must be called once, after the dataplane computation has converged.
+   */
+  void recordImportPolicyCacheStats(List<VirtualRouter> vrs) {
+    for (VirtualRouter vr : vrs) {
+      BgpRoutingProcess bgpRoutingProcess = vr.getBgpRoutingProcess();
+      if (bgpRoutingProcess == null) {
+        continue;
+      }
+      CacheStats stats = bgpRoutingProcess.getImportPolicyCacheStats();
+      _importPolicyCacheHits += stats.hitCount();
+      _importPolicyCacheMisses += stats.missCount();
+    }
+  }
+
+  @Nonnull
+  DataPlaneProfile build() {
+    List<VrfProfile> slowestVrfs =
+        _vrNanos.entrySet().stream()
+            .sorted(
+                Comparator.comparingLong((Entry<VirtualRouter, LongAdder> e) -> e.getValue().sum())
+                    .reversed())
+            .limit(NUM_SLOWEST_VRFS)
+            .map(
+                e ->
+                    new VrfProfile(
+                        e.getKey().getConfiguration().getHostname(),
+                        e.getKey().getName(),
+                        TimeUnit.NANOSECONDS.toMillis(e.getValue().sum())))
+            .collect(toImmutableList());
+    return new DataPlaneProfile(
+        _iterations, slowestVrfs, _importPolicyCacheHits, _importPolicyCacheMisses);
+  }
+
+  /** Write the trace of all recorded phases to {@code traceFile}, in the Trace Event Format. */
+  void writeTrace(Path traceFile) {
+    try {
+      CommonUtil.writeFile(
+          traceFile,
+          BatfishObjectMapper.writeString(
+              ImmutableMap.of(
+                  "traceEvents", ImmutableList.copyOf(_traceEvents), "displayTimeUnit", "ms")));
+    } catch (JsonProcessingException e) {
+      throw new BatfishException("Could not serialize dataplane profile trace", e);
+    }
+  }
+}
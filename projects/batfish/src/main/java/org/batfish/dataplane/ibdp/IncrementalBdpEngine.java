@@ -1,5 +1,6 @@
 package org.batfish.dataplane.ibdp;
 
+import static org.batfish.common.BatfishInterruptedException.checkNotInterrupted;
 import static org.batfish.common.topology.TopologyUtil.computeLayer2Topology;
 import static org.batfish.common.topology.TopologyUtil.computeLayer3Topology;
 import static org.batfish.common.topology.TopologyUtil.computeRawLayer3Topology;
@@ -16,13 +17,18 @@ import static org.batfish.dataplane.ibdp.TrackReachabilityUtils.evaluateTrackRea
 import static org.batfish.dataplane.rib.AbstractRib.importRib;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
@@ -32,6 +38,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.BdpOscillationException;
@@ -73,6 +80,7 @@ import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.dataplane.TracerouteEngineImpl;
 import org.batfish.dataplane.ibdp.DataplaneTrackEvaluator.DataPlaneTrackMethodEvaluatorProvider;
 import org.batfish.dataplane.ibdp.TrackRouteUtils.GetRoutesForPrefix;
+import org.batfish.dataplane.ibdp.schedule.ActiveNodesSchedule;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
 import org.batfish.dataplane.rib.RibDelta;
@@ -278,10 +286,16 @@ final class IncrementalBdpEngine {
      * - Finally, compute FIBs, return answer
      */
     IncrementalBdpAnswerElement answerElement = new IncrementalBdpAnswerElement();
+    DataPlaneProfiler profiler = _settings.getProfile() ? new DataPlaneProfiler() : null;
     // TODO: eventually, IGP needs to be part of fixed-point below, because tunnels.
     computeIgpDataPlane(nodes, vrs, initialTopologyContext, answerElement);
 
     LOGGER.info("Initialize virtual routers before topology fixed point");
+    BgpRoutingProcess.boundImportPolicyCaches(
+        vrs.stream()
+            .map(VirtualRouter::getBgpRoutingProcess)
+            .filter(Objects::nonNull)
+            .collect(ImmutableList.toImmutableList()));
     vrs.parallelStream()
         .forEach(
             vr -> vr.initForEgpComputationBeforeTopologyLoop(externalAdverts, initialIpVrfOwners));
@@ -330,6 +344,7 @@ final class IncrementalBdpEngine {
     int topologyIterations = 0;
     boolean converged = false;
     while (!converged && topologyIterations++ < MAX_TOPOLOGY_ITERATIONS) {
+      checkNotInterrupted(String.format("topology iteration %d", topologyIterations));
       LOGGER.info("Starting topology iteration {}", topologyIterations);
       boolean isOscillating =
           computeNonMonotonicPortionOfDataPlane(
@@ -340,7 +355,8 @@ final class IncrementalBdpEngine {
               initialTopologyContext.getLayer3Topology(),
               currentIpOwners,
               networkConfigurations,
-              currentTrackMethodEvaluatorProvider);
+              currentTrackMethodEvaluatorProvider,
+              profiler);
       if (isOscillating) {
         // If we are oscillating here, network has no stable solution.
         LOGGER.error("Network has no stable solution");
@@ -397,6 +413,15 @@ final class IncrementalBdpEngine {
     // TODO: Properly finalize topologies, IpOwners, etc.
     LOGGER.info("Finalizing dataplane");
     answerElement.setVersion(BatfishVersion.getVersionStatic());
+    if (profiler != null) {
+      profiler.recordImportPolicyCacheStats(vrs);
+      answerElement.setProfile(profiler.build());
+      Path traceFile = _settings.getProfileTraceFile();
+      if (traceFile != null) {
+        LOGGER.info("Writing dataplane profile trace to {}", traceFile);
+        profiler.writeTrace(traceFile);
+      }
+    }
     IncrementalDataPlane finalDataplane =
         IncrementalDataPlane.builder()
             .setNodes(nodes)
@@ -634,6 +659,7 @@ final class IncrementalBdpEngine {
    * @param vrs virtual routers that are participating in the computation
    * @param iterationLabel iteration label (for stats tracking)
    * @param allNodes all nodes in the network (for correct neighbor referencing)
+   * @param timings accumulates the time spent in each phase of the current iteration
    */
   private static void computeDependentRoutesIteration(
       List<VirtualRouter> vrs,
@@ -641,27 +667,52 @@ final class IncrementalBdpEngine {
       Map<String, Node> allNodes,
       NetworkConfigurations networkConfigurations,
       DataPlaneTrackMethodEvaluatorProvider provider,
-      int iteration) {
+      int iteration,
+      IterationTimings timings) {
     LOGGER.info("{}: Compute dependent routes", iterationLabel);
 
     // Static nextHopIp routes
     LOGGER.info("{}: Recompute conditional static routes", iterationLabel);
-    vrs.parallelStream()
-        .forEach(vr -> vr.activateStaticRoutes(provider.forConfiguration(vr.getConfiguration())));
+    timings.forEach(
+        "staticRoutes",
+        vrs,
+        vr -> vr.activateStaticRoutes(provider.forConfiguration(vr.getConfiguration())));
 
     // Generated/aggregate routes
     LOGGER.info("{}: Recompute aggregate/generated routes", iterationLabel);
-    vrs.parallelStream().forEach(VirtualRouter::recomputeGeneratedRoutes);
+    timings.forEach("generatedRoutes", vrs, VirtualRouter::recomputeGeneratedRoutes);
 
     // EIGRP
     LOGGER.info("{}: Propagate EIGRP routes", iterationLabel);
-    vrs.parallelStream().forEach(vr -> vr.eigrpIteration(allNodes));
-    vrs.parallelStream().forEach(VirtualRouter::mergeEigrpRoutesToMainRib);
+    timings.forEach("eigrp", vrs, vr -> vr.eigrpIteration(allNodes));
+    timings.forEach("eigrp", vrs, VirtualRouter::mergeEigrpRoutesToMainRib);
+
+    computeIterationOfIsisRoutes(
+        vrs, iterationLabel, allNodes, networkConfigurations, iteration, timings);
 
+    LOGGER.info("{}: Propagate OSPF external", iterationLabel);
+    timings.forEach("ospf", vrs, vr -> vr.ospfIteration(allNodes));
+    timings.forEach("ospf", vrs, VirtualRouter::mergeOspfRoutesToMainRib);
+
+    computeIterationOfBgpRoutes(iterationLabel, allNodes, vrs, timings);
+
+    leakAcrossVrfs(vrs, iterationLabel, timings);
+
+    // Tell each VR that a BGP route computation inner round (schedule) has ended.
+    timings.forEach("endOfInnerRound", vrs, VirtualRouter::endOfEgpInnerRound);
+  }
+
+  private static void computeIterationOfIsisRoutes(
+      List<VirtualRouter> vrs,
+      String iterationLabel,
+      Map<String, Node> allNodes,
+      NetworkConfigurations networkConfigurations,
+      int iteration,
+      IterationTimings timings) {
     // Re-initialize IS-IS exports.
     LOGGER.info("{}: Recompute IS-IS routes", iterationLabel);
-    vrs.parallelStream()
-        .forEach(vr -> vr.initIsisExports(iteration, allNodes, networkConfigurations));
+    timings.forEach(
+        "isis", vrs, vr -> vr.initIsisExports(iteration, allNodes, networkConfigurations));
 
     // IS-IS route propagation
     AtomicBoolean isisChanged = new AtomicBoolean(true);
@@ -670,29 +721,19 @@ final class IncrementalBdpEngine {
       isisSubIterations++;
       LOGGER.info("{}: Recompute IS-IS routes: subIteration {}", iterationLabel, isisSubIterations);
       isisChanged.set(false);
-      vrs.parallelStream()
-          .forEach(
-              vr -> {
-                Entry<RibDelta<IsisRoute>, RibDelta<IsisRoute>> p =
-                    vr.propagateIsisRoutes(networkConfigurations);
-                if (p != null
-                    && vr.unstageIsisRoutes(
-                        allNodes, networkConfigurations, p.getKey(), p.getValue())) {
-                  isisChanged.set(true);
-                }
-              });
+      timings.forEach(
+          "isis",
+          vrs,
+          vr -> {
+            Entry<RibDelta<IsisRoute>, RibDelta<IsisRoute>> p =
+                vr.propagateIsisRoutes(networkConfigurations);
+            if (p != null
+                && vr.unstageIsisRoutes(
+                    allNodes, networkConfigurations, p.getKey(), p.getValue())) {
+              isisChanged.set(true);
+            }
+          });
     }
-
-    LOGGER.info("{}: Propagate OSPF external", iterationLabel);
-    vrs.parallelStream().forEach(vr -> vr.ospfIteration(allNodes));
-    vrs.parallelStream().forEach(VirtualRouter::mergeOspfRoutesToMainRib);
-
-    computeIterationOfBgpRoutes(iterationLabel, allNodes, vrs);
-
-    leakAcrossVrfs(vrs, iterationLabel);
-
-    // Tell each VR that a BGP route computation inner round (schedule) has ended.
-    vrs.parallelStream().forEach(VirtualRouter::endOfEgpInnerRound);
   }
 
   private static void updateLayer3Vnis(List<VirtualRouter> vrs) {
@@ -701,27 +742,32 @@ final class IncrementalBdpEngine {
   }
 
   private static void computeIterationOfBgpRoutes(
-      String iterationLabel, Map<String, Node> allNodes, List<VirtualRouter> vrs) {
+      String iterationLabel,
+      Map<String, Node> allNodes,
+      List<VirtualRouter> vrs,
+      IterationTimings timings) {
     LOGGER.info("{}: Init for new BGP iteration", iterationLabel);
-    vrs.parallelStream().forEach(vr -> vr.bgpIteration(allNodes));
+    timings.forEach("bgp", vrs, vr -> vr.bgpIteration(allNodes));
     LOGGER.info("{}: Init BGP generated/aggregate routes", iterationLabel);
     // first let's initialize nodes-level generated/aggregate routes
-    vrs.parallelStream().forEach(VirtualRouter::initBgpAggregateRoutes);
+    timings.forEach("bgp", vrs, VirtualRouter::initBgpAggregateRoutes);
 
     LOGGER.info("{}: Propagate BGP v4 routes", iterationLabel);
 
     // Merge BGP routes from BGP process into the main RIB
-    vrs.parallelStream().forEach(VirtualRouter::mergeBgpRoutesToMainRib);
+    timings.forEach("bgp", vrs, VirtualRouter::mergeBgpRoutesToMainRib);
   }
 
-  private static void queueRoutesForCrossVrfLeaking(List<VirtualRouter> vrs) {
+  private static void queueRoutesForCrossVrfLeaking(
+      List<VirtualRouter> vrs, IterationTimings timings) {
     LOGGER.info("Queueing routes to leak across VRFs");
-    vrs.parallelStream().forEach(VirtualRouter::queueCrossVrfImports);
+    timings.forEach("queueCrossVrfLeaking", vrs, VirtualRouter::queueCrossVrfImports);
   }
 
-  private static void leakAcrossVrfs(List<VirtualRouter> vrs, String iterationLabel) {
+  private static void leakAcrossVrfs(
+      List<VirtualRouter> vrs, String iterationLabel, IterationTimings timings) {
     LOGGER.info("{}: Leaking routes across VRFs", iterationLabel);
-    vrs.parallelStream().forEach(VirtualRouter::processCrossVrfRoutes);
+    timings.forEach("crossVrfLeaking", vrs, VirtualRouter::processCrossVrfRoutes);
   }
 
   /**
@@ -783,6 +829,7 @@ final class IncrementalBdpEngine {
    * @param ae The output answer element in which to store a report of the computation. Also
    *     contains the current recovery iteration.
    * @param topologyContext The various network topologies
+   * @param profiler collects a profile of the computation, or {@code null} if not profiling
    * @return true iff the computation is oscillating
    */
   private boolean computeNonMonotonicPortionOfDataPlane(
@@ -793,7 +840,8 @@ final class IncrementalBdpEngine {
       Topology initialLayer3Topology,
       IpOwners ipOwners,
       NetworkConfigurations networkConfigurations,
-      DataPlaneTrackMethodEvaluatorProvider provider) {
+      DataPlaneTrackMethodEvaluatorProvider provider,
+      @Nullable DataPlaneProfiler profiler) {
     LOGGER.info("Compute EGP");
     /*
      * Initialize all routers and their message queues (can be done as parallel as possible)
@@ -820,20 +868,34 @@ final class IncrementalBdpEngine {
 
     Schedule currentSchedule = _settings.getScheduleName();
 
+    // Nodes that are dirty at the start of the iteration. Unknown before the first iteration, since
+    // initialization with the new topologies may have left work for any node.
+    Set<String> dirtyNodes = null;
+
+    // Routing protocol adjacencies for the ACTIVE schedule, which are fixed along with the
+    // topologies until the fixed point is reached.
+    SetMultimap<String, String> protocolNeighbors =
+        currentSchedule == Schedule.ACTIVE
+            ? ActiveNodesSchedule.protocolNeighbors(topologyContext)
+            : ImmutableSetMultimap.of();
+
     // Go into iteration mode, until the routes converge (or oscillation is detected)
     do {
       _numIterations++;
+      checkNotInterrupted(String.format("route iteration %d", _numIterations));
       LOGGER.info("Iteration {} begins", _numIterations);
+      IterationTimings timings = new IterationTimings(_numIterations, profiler);
       LOGGER.info("Compute schedule");
       // Compute node schedule
       IbdpSchedule schedule =
-          IbdpSchedule.getSchedule(_settings, currentSchedule, nodes, topologyContext);
+          IbdpSchedule.getSchedule(
+              _settings, currentSchedule, nodes, topologyContext, protocolNeighbors, dirtyNodes);
 
       // (Re)initialization of dependent route calculation
       //  Since this is a local step, coloring not required.
 
       LOGGER.info("Re-Init for new route iteration");
-      vrs.parallelStream().forEach(VirtualRouter::reinitForNewIteration);
+      timings.forEach("reinit", vrs, VirtualRouter::reinitForNewIteration);
 
       /*
       Redistribution: take all the routes merged into the main RIB during previous iteration
@@ -843,11 +905,11 @@ final class IncrementalBdpEngine {
       Since this is a local step, coloring not required.
       */
       LOGGER.info("Redistribute");
-      vrs.parallelStream().forEach(VirtualRouter::redistribute);
+      timings.forEach("redistribute", vrs, VirtualRouter::redistribute);
 
       // Handle process-specific route resolution and cross-VRF leaking here too.
-      vrs.parallelStream().forEach(VirtualRouter::updateResolvableRoutes);
-      queueRoutesForCrossVrfLeaking(vrs);
+      timings.forEach("resolvableRoutes", vrs, VirtualRouter::updateResolvableRoutes);
+      queueRoutesForCrossVrfLeaking(vrs, timings);
 
       // compute dependent routes for each allowable set of nodes until we cover all nodes
       int nodeSet = 0;
@@ -858,13 +920,19 @@ final class IncrementalBdpEngine {
                 iterationNodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
         String iterationlabel = String.format("Iteration %d Schedule %d", _numIterations, nodeSet);
         computeDependentRoutesIteration(
-            iterationVrs, iterationlabel, nodes, networkConfigurations, provider, _numIterations);
+            iterationVrs,
+            iterationlabel,
+            nodes,
+            networkConfigurations,
+            provider,
+            _numIterations,
+            timings);
         ++nodeSet;
       }
 
       // Tell each VR that a route computation round has ended.
       // This must be the last thing called on a VR in a routing round.
-      vrs.parallelStream().forEach(VirtualRouter::endOfEgpRound);
+      timings.forEach("endOfRound", vrs, VirtualRouter::endOfEgpRound);
 
       /*
        * Perform various bookkeeping at the end of the iteration:
@@ -872,10 +940,11 @@ final class IncrementalBdpEngine {
        * - Compute iteration hashcode
        * - Check for oscillations
        */
-      computeIterationStatistics(vrs, ae, _numIterations);
+      int iteration = _numIterations;
+      timings.time("statistics", () -> computeIterationStatistics(vrs, ae, iteration));
 
       // This hashcode uniquely identifies the iteration (i.e., network state)
-      int iterationHashCode = computeIterationHashCode(vrs);
+      int iterationHashCode = timings.timeAndGet("hashCode", () -> computeIterationHashCode(vrs));
       SortedSet<Integer> iterationsWithThisHashCode =
           iterationsByHashCode.computeIfAbsent(iterationHashCode, h -> new TreeSet<>());
 
@@ -890,19 +959,36 @@ final class IncrementalBdpEngine {
               _numIterations);
           currentSchedule = Schedule.NODE_SERIALIZED;
         } else {
+          endIteration(timings, profiler, vrs);
           return true; // Found an oscillation
         }
       }
-    } while (hasNotReachedRoutingFixedPoint(vrs));
+      dirtyNodes = timings.timeAndGet("fixedPointCheck", () -> computeDirtyNodes(nodes));
+      endIteration(timings, profiler, vrs);
+    } while (!dirtyNodes.isEmpty());
 
     ae.setDependentRoutesIterations(_numIterations);
     return false; // No oscillations
   }
 
-  /** Check if we have reached a routing fixed point */
-  private boolean hasNotReachedRoutingFixedPoint(List<VirtualRouter> vrs) {
+  private void endIteration(
+      IterationTimings timings, @Nullable DataPlaneProfiler profiler, List<VirtualRouter> vrs) {
+    LOGGER.info("Iteration {} phase timings: {}", _numIterations, timings);
+    if (profiler != null) {
+      profiler.recordIteration(_numIterations, timings, vrs);
+    }
+  }
+
+  /**
+   * Returns the names of nodes with at least one dirty {@link VirtualRouter}. A routing fixed point
+   * has been reached when there are none.
+   */
+  private Set<String> computeDirtyNodes(Map<String, Node> nodes) {
     LOGGER.info("Iteration {}: Check if fixed point reached", _numIterations);
-    return vrs.parallelStream().anyMatch(VirtualRouter::isDirty);
+    return nodes.entrySet().parallelStream()
+        .filter(e -> e.getValue().getVirtualRouters().stream().anyMatch(VirtualRouter::isDirty))
+        .map(Entry::getKey)
+        .collect(ImmutableSet.toImmutableSet());
   }
 
   /**
@@ -927,7 +1013,7 @@ final class IncrementalBdpEngine {
     ae.getBgpMultipathRibRoutesByIteration()
         .put(dependentRoutesIterations, numBgpMultipathRibRoutes);
     int numMainRibRoutes =
-        vrs.parallelStream().mapToInt(vr -> vr.getMainRib().getTypedRoutes().size()).sum();
+        vrs.parallelStream().mapToInt(vr -> vr.getMainRib().getNumRoutes()).sum();
     ae.getMainRibRoutesByIteration().put(dependentRoutesIterations, numMainRibRoutes);
   }
 
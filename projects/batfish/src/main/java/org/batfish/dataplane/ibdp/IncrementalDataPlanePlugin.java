@@ -1,8 +1,10 @@
 package org.batfish.dataplane.ibdp;
 
 import com.google.auto.service.AutoService;
+import com.google.common.annotations.VisibleForTesting;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nonnull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.NetworkSnapshot;
@@ -35,17 +37,7 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
     LOGGER.info("Building topology for data-plane");
     TopologyProvider topologyProvider = _batfish.getTopologyProvider();
     TopologyContext topologyContext =
-        TopologyContext.builder()
-            .setIpsecTopology(topologyProvider.getInitialIpsecTopology(snapshot))
-            .setIsisTopology(
-                IsisTopology.initIsisTopology(
-                    configurations, topologyProvider.getInitialLayer3Topology(snapshot)))
-            .setLayer3Topology(topologyProvider.getInitialLayer3Topology(snapshot))
-            .setLayer1Topologies(topologyProvider.getLayer1Topologies(snapshot))
-            .setL3Adjacencies(topologyProvider.getInitialL3Adjacencies(snapshot))
-            .setOspfTopology(topologyProvider.getInitialOspfTopology(snapshot))
-            .setTunnelTopology(topologyProvider.getInitialTunnelTopology(snapshot))
-            .build();
+        initialTopologyContext(topologyProvider, snapshot, configurations);
 
     ComputeDataPlaneResult answer =
         _engine.computeDataPlane(
@@ -60,6 +52,25 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
     return answer;
   }
 
+  /** Returns the topologies the data plane computation starts from. */
+  @VisibleForTesting
+  static @Nonnull TopologyContext initialTopologyContext(
+      TopologyProvider topologyProvider,
+      NetworkSnapshot snapshot,
+      Map<String, Configuration> configurations) {
+    return TopologyContext.builder()
+        .setIpsecTopology(topologyProvider.getInitialIpsecTopology(snapshot))
+        .setIsisTopology(
+            IsisTopology.initIsisTopology(
+                configurations, topologyProvider.getInitialLayer3Topology(snapshot)))
+        .setLayer3Topology(topologyProvider.getInitialLayer3Topology(snapshot))
+        .setLayer1Topologies(topologyProvider.getLayer1Topologies(snapshot))
+        .setL3Adjacencies(topologyProvider.getInitialL3Adjacencies(snapshot))
+        .setOspfTopology(topologyProvider.getInitialOspfTopology(snapshot))
+        .setTunnelTopology(topologyProvider.getInitialTunnelTopology(snapshot))
+        .build();
+  }
+
   @Override
   protected void dataPlanePluginInitialize() {
     _engine =
@@ -3,6 +3,9 @@ package org.batfish.dataplane.ibdp;
 import static org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule.NODE_COLORED;
 import static org.batfish.dataplane.ibdp.schedule.NodeColoredSchedule.Coloring.SATURATION;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ConfigurationUtils;
 import org.apache.commons.configuration2.ImmutableConfiguration;
@@ -17,6 +20,8 @@ public final class IncrementalDataPlaneSettings {
   private Configuration _config;
 
   public static final String PROP_COLORING = "coloring";
+  public static final String PROP_PROFILE = "dataplaneprofile";
+  public static final String PROP_PROFILE_TRACE_FILE = "dataplaneprofiletracefile";
   public static final String PROP_SCHEDULE = "schedule";
 
   /**
@@ -48,6 +53,8 @@ public final class IncrementalDataPlaneSettings {
   /** Initialize defaults for all properties */
   private void initDefaults() {
     _config.setProperty(PROP_COLORING, SATURATION.toString());
+    _config.setProperty(PROP_PROFILE, false);
+    _config.setProperty(PROP_PROFILE_TRACE_FILE, "");
     _config.setProperty(PROP_SCHEDULE, NODE_COLORED.toString());
   }
 
@@ -63,4 +70,21 @@ public final class IncrementalDataPlaneSettings {
   public Coloring getColoringType() {
     return Coloring.valueOf(_config.getString(PROP_COLORING));
   }
+
+  /**
+   * Whether to profile the dataplane computation, reporting the result in the {@link
+   * org.batfish.datamodel.answers.IncrementalBdpAnswerElement}
+   */
+  public boolean getProfile() {
+    return _config.getBoolean(PROP_PROFILE);
+  }
+
+  /**
+   * Return the file to which a trace of the profiled dataplane computation should be written, or
+   * {@code null} if no trace should be written. Only used if {@link #getProfile()} is {@code true}.
+   */
+  public @Nullable Path getProfileTraceFile() {
+    String file = _config.getString(PROP_PROFILE_TRACE_FILE);
+    return file.isEmpty() ? null : Paths.get(file);
+  }
 }
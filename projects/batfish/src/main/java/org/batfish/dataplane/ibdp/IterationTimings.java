@@ -0,0 +1,120 @@
+package org.batfish.dataplane.ibdp;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.answers.DataPlaneProfile.PhaseProfile;
+
+/**
+ * Accumulates the wall-clock time spent in each phase of a single dataplane iteration. A phase that
+ * runs more than once per iteration (e.g., once per schedule) accumulates the time of all runs.
+ *
+ * <p>If a {@link DataPlaneProfiler} is given, also measures the CPU time of each phase and the time
+ * spent in each virtual router, and reports every run of a phase to the profiler.
+ *
+ * <p>Not thread-safe: phases are expected to be timed from the thread driving the computation.
+ */
+@ParametersAreNonnullByDefault
+final class IterationTimings {
+
+  private final int _iteration;
+  @Nullable private final DataPlaneProfiler _profiler;
+
+  /** Phase name to total time in nanoseconds, in order of first occurrence. */
+  private final Map<String, Long> _nanosByPhase = new LinkedHashMap<>();
+
+  /** Phase name to total process CPU time in nanoseconds, if known. Only used when profiling. */
+  private final Map<String, Long> _cpuNanosByPhase = new LinkedHashMap<>();
+
+  IterationTimings(int iteration, @Nullable DataPlaneProfiler profiler) {
+    _iteration = iteration;
+    _profiler = profiler;
+  }
+
+  /** Run {@code phase}, adding its running time to the total for {@code phaseName}. */
+  void time(String phaseName, Runnable phase) {
+    timeAndGet(
+        phaseName,
+        () -> {
+          phase.run();
+          return null;
+        });
+  }
+
+  /**
+   * Run {@code phase} and return its result, adding its running time to the total for {@code
+   * phaseName}.
+   */
+  <T> T timeAndGet(String phaseName, Supplier<T> phase) {
+    long start = System.nanoTime();
+    long cpuStart = _profiler == null ? -1 : _profiler.processCpuNanos();
+    try {
+      return phase.get();
+    } finally {
+      long wallNanos = System.nanoTime() - start;
+      _nanosByPhase.merge(phaseName, wallNanos, Long::sum);
+      if (_profiler != null) {
+        long cpuNanos = cpuStart < 0 ? -1 : _profiler.processCpuNanos() - cpuStart;
+        if (cpuNanos >= 0) {
+          _cpuNanosByPhase.merge(phaseName, cpuNanos, Long::sum);
+        }
+        _profiler.recordPhase(_iteration, phaseName, start, wallNanos, cpuNanos);
+      }
+    }
+  }
+
+  /**
+   * Run {@code action} on each of the given virtual routers in parallel, adding the running time to
+   * the total for {@code phaseName}. When profiling, also records the time spent in each virtual
+   * router.
+   */
+  void forEach(String phaseName, List<VirtualRouter> vrs, Consumer<VirtualRouter> action) {
+    DataPlaneProfiler profiler = _profiler;
+    Consumer<VirtualRouter> timedAction =
+        profiler == null
+            ? action
+            : vr -> {
+              long start = System.nanoTime();
+              action.accept(vr);
+              profiler.recordVirtualRouterTime(vr, System.nanoTime() - start);
+            };
+    time(phaseName, () -> vrs.parallelStream().forEach(timedAction));
+  }
+
+  /** Returns the total time spent in each phase in milliseconds, in order of first occurrence. */
+  Map<String, Long> getMillisByPhase() {
+    Map<String, Long> ret = new LinkedHashMap<>();
+    _nanosByPhase.forEach(
+        (phaseName, nanos) -> ret.put(phaseName, TimeUnit.NANOSECONDS.toMillis(nanos)));
+    return ret;
+  }
+
+  /** Returns the time spent in each phase, in order of first occurrence. */
+  List<PhaseProfile> getPhaseProfiles() {
+    return _nanosByPhase.entrySet().stream()
+        .map(
+            e ->
+                new PhaseProfile(
+                    e.getKey(),
+                    TimeUnit.NANOSECONDS.toMillis(e.getValue()),
+                    _cpuNanosByPhase.containsKey(e.getKey())
+                        ? TimeUnit.NANOSECONDS.toMillis(_cpuNanosByPhase.get(e.getKey()))
+                        : -1))
+        .collect(toImmutableList());
+  }
+
+  @Override
+  public String toString() {
+    return getMillisByPhase().entrySet().stream()
+        .map(e -> String.format("%s=%dms", e.getKey(), e.getValue()))
+        .collect(Collectors.joining(", "));
+  }
+}
@@ -1411,6 +1411,27 @@ public final class VirtualRouter {
     return _bgpRoutingProcess == null ? ImmutableSet.of() : _bgpRoutingProcess.getV4BackupRoutes();
   }
 
+  /**
+   * Get the routes added to or removed from the main RIB in the last completed round. To be used
+   * during dataplane computation only
+   */
+  @Nonnull
+  RibDelta<AnnotatedRoute<AbstractRoute>> getMainRibDeltaPrevRound() {
+    return _mainRibDeltaPrevRound;
+  }
+
+  /**
+   * Get the number of route advertisements queued for this VR by other VRs. To be used during
+   * dataplane computation only
+   */
+  int getNumQueuedMessages() {
+    return queuedMessages(_isisIncomingRoutes) + queuedMessages(_crossVrfIncomingRoutes);
+  }
+
+  private static int queuedMessages(@Nullable Map<?, ? extends Queue<?>> queues) {
+    return queues == null ? 0 : queues.values().stream().mapToInt(Queue::size).sum();
+  }
+
   /** Get the number of best-path BGP routes. To be used during dataplane computation only */
   int getNumBgpBestPaths() {
     return _bgpRoutingProcess == null ? 0 : _bgpRoutingProcess.getBestPathRoutes().size();
@@ -1443,8 +1464,9 @@ public final class VirtualRouter {
    */
   int computeIterationHashCode() {
     return Streams.concat(
-            // RIB State
-            Stream.of(_mainRib.getTypedRoutes()),
+            // RIB State. Equal to the hash code of the main RIB's routes, but maintained
+            // incrementally rather than rehashing every route each iteration.
+            Stream.of(_mainRib.getRoutesHashCode()),
             // Message queues
             messageQueueStream(_isisIncomingRoutes),
             messageQueueStream(_crossVrfIncomingRoutes),
@@ -0,0 +1,105 @@
+package org.batfish.dataplane.ibdp.schedule;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.graph.EndpointPair;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.BgpPeerConfigId;
+import org.batfish.datamodel.eigrp.EigrpEdge;
+import org.batfish.datamodel.isis.IsisEdge;
+import org.batfish.datamodel.ospf.OspfTopology.EdgeId;
+import org.batfish.dataplane.ibdp.Node;
+import org.batfish.dataplane.ibdp.TopologyContext;
+
+/**
+ * Allows all nodes that may have work to do in this iteration to exchange routes at the same time,
+ * and skips the rest.
+ *
+ * <p>A node may have work to do if it is dirty (it has queued messages, or route deltas left over
+ * from the previous iteration), or if it is adjacent to a dirty node via a routing protocol, since
+ * neighbors pull the previous iteration's deltas from each other. Any other node would process no
+ * messages and produce no deltas, so skipping it does not change the outcome of the iteration.
+ *
+ * <p>The set of scheduled nodes is a function of the network state at the start of the iteration,
+ * so the computation remains deterministic for the purposes of oscillation detection.
+ */
+public final class ActiveNodesSchedule extends IbdpSchedule {
+  private boolean _hasNext = true;
+  private final Set<String> _activeNodes;
+
+  /**
+   * Create a new schedule.
+   *
+   * @param nodes all nodes in the network
+   * @param protocolNeighbors the routing protocol adjacencies between nodes, as computed by {@link
+   *     #protocolNeighbors(TopologyContext)}
+   * @param dirtyNodes names of the nodes that are dirty at the start of the iteration, or {@code
+   *     null} if unknown, in which case all nodes are scheduled
+   */
+  public ActiveNodesSchedule(
+      Map<String, Node> nodes,
+      SetMultimap<String, String> protocolNeighbors,
+      @Nullable Set<String> dirtyNodes) {
+    super(nodes);
+    _activeNodes =
+        dirtyNodes == null ? _nodes.keySet() : activeNodes(dirtyNodes, protocolNeighbors);
+  }
+
+  private static Set<String> activeNodes(
+      Set<String> dirtyNodes, SetMultimap<String, String> neighbors) {
+    ImmutableSet.Builder<String> active = ImmutableSet.builder();
+    for (String node : dirtyNodes) {
+      active.add(node);
+      active.addAll(neighbors.get(node));
+    }
+    return active.build();
+  }
+
+  /**
+   * Returns the (symmetric) routing protocol adjacencies between nodes. The adjacencies only change
+   * with the topologies, so compute them once per {@link TopologyContext} rather than once per
+   * iteration.
+   */
+  @SuppressWarnings("deprecation")
+  public static SetMultimap<String, String> protocolNeighbors(TopologyContext topologyContext) {
+    ImmutableSetMultimap.Builder<String, String> neighbors = ImmutableSetMultimap.builder();
+    for (EndpointPair<BgpPeerConfigId> edge : topologyContext.getBgpTopology().getGraph().edges()) {
+      addAdjacency(neighbors, edge.source().getHostname(), edge.target().getHostname());
+    }
+    for (EdgeId edge : topologyContext.getOspfTopology().edges()) {
+      addAdjacency(neighbors, edge.getTail().getHostname(), edge.getHead().getHostname());
+    }
+    for (EigrpEdge edge : topologyContext.getEigrpTopology().getNetwork().edges()) {
+      addAdjacency(neighbors, edge.getNode1().getHostname(), edge.getNode2().getHostname());
+    }
+    for (IsisEdge edge : topologyContext.getIsisTopology().getNetwork().edges()) {
+      addAdjacency(neighbors, edge.getNode1().getNode(), edge.getNode2().getNode());
+    }
+    return neighbors.build();
+  }
+
+  private static void addAdjacency(
+      ImmutableSetMultimap.Builder<String, String> neighbors, String n1, String n2) {
+    neighbors.put(n1, n2);
+    neighbors.put(n2, n1);
+  }
+
+  @Override
+  public boolean hasNext() {
+    return _hasNext;
+  }
+
+  @Override
+  public Map<String, Node> next() {
+    if (!_hasNext) {
+      throw new NoSuchElementException();
+    }
+    _hasNext = false;
+    return Maps.filterKeys(_nodes, _activeNodes::contains);
+  }
+}
@@ -2,9 +2,13 @@ package org.batfish.dataplane.ibdp.schedule;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
 import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings;
 import org.batfish.dataplane.ibdp.Node;
@@ -18,6 +22,7 @@ import org.batfish.dataplane.ibdp.schedule.NodeColoredSchedule.Coloring;
 public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
 
   public enum Schedule {
+    ACTIVE,
     ALL,
     NODE_COLORED,
     NODE_SERIALIZED,
@@ -79,7 +84,36 @@ public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
       Schedule schedule,
       Map<String, Node> allNodes,
       TopologyContext topologyContext) {
+    return getSchedule(
+        settings, schedule, allNodes, topologyContext, ImmutableSetMultimap.of(), null);
+  }
+
+  /**
+   * Create a new schedule based on type, the set of all nodes in the network, and the set of nodes
+   * that are dirty at the start of the iteration.
+   *
+   * @param settings {@link IncrementalDataPlaneSettings}
+   * @param schedule {@link Schedule} to use
+   * @param allNodes map of all nodes in the network
+   * @param topologyContext the various network topologies
+   * @param protocolNeighbors the routing protocol adjacencies in {@code topologyContext}, as
+   *     computed by {@link ActiveNodesSchedule#protocolNeighbors(TopologyContext)}. Only used by
+   *     {@link Schedule#ACTIVE}.
+   * @param dirtyNodes names of dirty nodes, or {@code null} if unknown. Only used by {@link
+   *     Schedule#ACTIVE}.
+   * @return a new {@link IbdpSchedule}
+   * @throws BatfishException if the schedule type specified is unsupported
+   */
+  public static IbdpSchedule getSchedule(
+      IncrementalDataPlaneSettings settings,
+      Schedule schedule,
+      Map<String, Node> allNodes,
+      TopologyContext topologyContext,
+      SetMultimap<String, String> protocolNeighbors,
+      @Nullable Set<String> dirtyNodes) {
     switch (schedule) {
+      case ACTIVE:
+        return new ActiveNodesSchedule(allNodes, protocolNeighbors, dirtyNodes);
       case ALL:
         return new MaxParallelSchedule(allNodes);
       case NODE_SERIALIZED:
@@ -36,6 +36,14 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
   /** Memoized set of all routes in this RIB */
   @Nullable private transient Set<R> _allRoutes;
 
+  /**
+   * Number of routes in {@link #_tree} and sum of their hash codes, maintained incrementally as
+   * routes are merged and removed.
+   */
+  private int _numRoutes;
+
+  private int _routesHashCode;
+
   /**
    * Keep a (insert ordered) set of alternative routes. Used to update the RIB if best routes are
    * withdrawn.
@@ -127,6 +135,8 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
   public final void clear() {
     _tree.clear();
     _allRoutes = null;
+    _numRoutes = 0;
+    _routesHashCode = 0;
   }
 
   @Override
@@ -222,6 +232,7 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
     if (!delta.isEmpty()) {
       // A change to routes has been made
       _allRoutes = null;
+      updateRouteCounters(delta);
     }
     return delta;
   }
@@ -253,10 +264,44 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
     if (!delta.isEmpty()) {
       // A change to routes has been made
       _allRoutes = null;
+      updateRouteCounters(delta);
     }
     return delta;
   }
 
+  private void updateRouteCounters(RibDelta<R> delta) {
+    for (RouteAdvertisement<R> action : delta.getActions()) {
+      int hashCode = action.getRoute().hashCode();
+      if (action.isWithdrawn()) {
+        _numRoutes--;
+        _routesHashCode -= hashCode;
+      } else {
+        _numRoutes++;
+        _routesHashCode += hashCode;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of routes in this RIB, including any not returned by {@link
+   * #getTypedRoutes()}, in constant time.
+   */
+  public final int getNumRoutes() {
+    return _numRoutes;
+  }
+
+  /**
+   * Returns the sum of the hash codes of all routes in this RIB, including any not returned by
+   * {@link #getTypedRoutes()}. Computed in constant time: it is maintained incrementally from each
+   * {@link RibDelta} applied to this RIB.
+   *
+   * <p>For RIBs that do not override {@link #computeTypedRoutes()}, this is equal to {@code
+   * getTypedRoutes().hashCode()}, without materializing the set of routes.
+   */
+  public final int getRoutesHashCode() {
+    return _routesHashCode;
+  }
+
   /**
    * Remove given route from the RIB
    *
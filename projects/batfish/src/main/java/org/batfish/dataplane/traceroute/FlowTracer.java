@@ -1424,7 +1424,7 @@ class FlowTracer {
         createFilterStep(
             flow,
             _ingressInterface,
-            filter,
+            _tracerouteContext.getCompiledFilter(filter, _currentConfig.getIpSpaces()),
             filterType,
             _currentConfig.getIpAccessLists(),
             _currentConfig.getIpSpaces(),
@@ -6,6 +6,7 @@ import static org.batfish.dataplane.traceroute.TracerouteUtils.buildSessionsByOr
 import static org.batfish.dataplane.traceroute.TracerouteUtils.validateInputs;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
@@ -14,6 +15,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
@@ -31,8 +33,11 @@ import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.ForwardingAnalysis;
 import org.batfish.datamodel.InterfaceForwardingBehavior;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.IpSpaceContainsIp;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.acl.SourcesReferencedOnDevice;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
@@ -49,6 +54,42 @@ import org.batfish.dataplane.TracerouteEngineImpl;
  * the context is shared among each of the concurrent {@link FlowTracer FlowTracers}.
  */
 public class TracerouteEngineImplContext {
+
+  /**
+   * Key for per-hop decisions that depend only on the dataplane and a destination IP, and so can be
+   * shared by all flows reaching the same node, VRF or interface, and destination IP.
+   */
+  private static final class DstIpKey {
+    private final @Nonnull String _node;
+    private final @Nonnull String _vrfOrInterface;
+    private final @Nonnull Ip _dstIp;
+
+    private DstIpKey(String node, String vrfOrInterface, Ip dstIp) {
+      _node = node;
+      _vrfOrInterface = vrfOrInterface;
+      _dstIp = dstIp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof DstIpKey)) {
+        return false;
+      }
+      DstIpKey other = (DstIpKey) o;
+      return _dstIp.equals(other._dstIp)
+          && _node.equals(other._node)
+          && _vrfOrInterface.equals(other._vrfOrInterface);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_node, _vrfOrInterface, _dstIp);
+    }
+  }
+
   private final Map<String, Configuration> _configurations;
   Function<String, Set<String>> _interfacesMatchedOnDevice;
   private final Multimap<NodeInterfacePair, FirewallSessionTraceInfo> _sessionsByIngressInterface;
@@ -57,6 +98,10 @@ public class TracerouteEngineImplContext {
   private final Set<Flow> _flows;
   private final ForwardingAnalysis _forwardingAnalysis;
   private final Map<Ip, IpSpaceContainsIp> _containsIp;
+  // Memoized per-hop decisions, shared by all flows traced in this context
+  private final Map<DstIpKey, Optional<String>> _acceptingInterfaces;
+  private final Map<DstIpKey, FlowDisposition> _dispositions;
+  private final Map<IpAccessList, CompiledIpAccessList> _compiledFilters;
   private final boolean _ignoreFilters;
   private final Topology _topology;
 
@@ -76,6 +121,11 @@ public class TracerouteEngineImplContext {
     _ignoreFilters = ignoreFilters;
     _forwardingAnalysis = dataPlane.getForwardingAnalysis();
     _containsIp = new ConcurrentHashMap<>();
+    _acceptingInterfaces = new ConcurrentHashMap<>();
+    _dispositions = new ConcurrentHashMap<>();
+    // filters are compared by identity, and only live as long as their configurations
+    _compiledFilters =
+        CacheBuilder.newBuilder().weakKeys().<IpAccessList, CompiledIpAccessList>build().asMap();
     _sessionsByIngressInterface = buildSessionsByIngressInterface(sessions);
     _sessionsByOriginatingVrf = buildSessionsByOriginatingVrf(sessions);
     _topology = topology;
@@ -137,6 +187,13 @@ public class TracerouteEngineImplContext {
    *     FlowDisposition#NEIGHBOR_UNREACHABLE}
    */
   FlowDisposition computeDisposition(String hostname, String outgoingInterfaceName, Ip dstIp) {
+    return _dispositions.computeIfAbsent(
+        new DstIpKey(hostname, outgoingInterfaceName, dstIp),
+        key -> computeDispositionUncached(hostname, outgoingInterfaceName, dstIp));
+  }
+
+  private FlowDisposition computeDispositionUncached(
+      String hostname, String outgoingInterfaceName, Ip dstIp) {
     IpSpaceContainsIp containsIp =
         _containsIp.computeIfAbsent(dstIp, ip -> new IpSpaceContainsIp(ip, ImmutableMap.of()));
     String vrfName =
@@ -164,6 +221,18 @@ public class TracerouteEngineImplContext {
     }
   }
 
+  /**
+   * Returns the {@link CompiledIpAccessList} for the given filter, compiling it the first time it
+   * is applied to any flow.
+   *
+   * @param namedIpSpaces The named {@link IpSpace IpSpaces} of the node defining the filter
+   */
+  @Nonnull
+  CompiledIpAccessList getCompiledFilter(IpAccessList filter, Map<String, IpSpace> namedIpSpaces) {
+    return _compiledFilters.computeIfAbsent(
+        filter, f -> CompiledIpAccessList.compile(f, namedIpSpaces));
+  }
+
   public Map<String, Configuration> getConfigurations() {
     return _configurations;
   }
@@ -204,6 +273,11 @@ public class TracerouteEngineImplContext {
    */
   @Nonnull
   Optional<String> interfaceAcceptingIp(String node, String vrf, Ip ip) {
+    return _acceptingInterfaces.computeIfAbsent(
+        new DstIpKey(node, vrf, ip), key -> interfaceAcceptingIpUncached(node, vrf, ip));
+  }
+
+  private @Nonnull Optional<String> interfaceAcceptingIpUncached(String node, String vrf, Ip ip) {
     IpSpaceContainsIp containsIp =
         _containsIp.computeIfAbsent(ip, i -> new IpSpaceContainsIp(i, ImmutableMap.of()));
     return _forwardingAnalysis
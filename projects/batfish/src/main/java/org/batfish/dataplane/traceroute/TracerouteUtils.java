@@ -38,6 +38,7 @@ import org.batfish.datamodel.IpAccessList;
 import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.LineAction;
 import org.batfish.datamodel.TcpFlags;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.EnterInputIfaceStep;
 import org.batfish.datamodel.flow.EnterInputIfaceStep.EnterInputIfaceStepDetail;
@@ -136,7 +137,7 @@ public final class TracerouteUtils {
   static FilterStep createFilterStep(
       Flow currentFlow,
       @Nullable String inInterfaceName,
-      IpAccessList filter,
+      CompiledIpAccessList filter,
       FilterType filterType,
       Map<String, IpAccessList> aclDefinitions,
       Map<String, IpSpace> namedIpSpaces,
@@ -152,7 +153,8 @@ public final class TracerouteUtils {
     }
 
     return new FilterStep(
-        new FilterStepDetail(filter.getName(), filterType, inInterfaceName, currentFlow), action);
+        new FilterStepDetail(filter.getAcl().getName(), filterType, inInterfaceName, currentFlow),
+        action);
   }
 
   /**
@@ -28,6 +28,7 @@ public class PaloAltoCombinedParser extends BatfishCombinedParser<PaloAltoParser
 
   @Override
   public Palo_alto_configurationContext parse() {
-    return _parser.palo_alto_configuration();
+    // each line is parsed independently, so large configurations are parsed in parallel
+    return parseLines(PaloAltoParser::palo_alto_configuration, PaloAltoLexer.NEWLINE);
   }
 }
@@ -10,6 +10,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishInterruptedException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.answers.AnswerElement;
@@ -131,7 +132,11 @@ public class BatfishJobExecutor {
           // getting the result of the job
           result = completionService.take().get();
         } catch (InterruptedException e) {
-          throw new BatfishException("Job didn't finish", e);
+          // stop the jobs still running too, and keep the interrupted status for later checks
+          pool.shutdownNow();
+          Thread.currentThread().interrupt();
+          throw new BatfishInterruptedException(
+              String.format("Interrupted during %s", description));
         } catch (ExecutionException e) {
           throw new BatfishException(
               String.format("Error executing job: %s", e.getCause().getMessage()), e);
@@ -5,6 +5,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.batfish.common.BatfishInterruptedException;
 import org.batfish.common.Task;
 import org.batfish.common.Task.Batch;
 import org.batfish.config.Settings;
@@ -34,7 +35,15 @@ public final class BatchManager {
     }
   }
 
+  /**
+   * Starts a new batch, i.e., a new phase, of the task with the settings' task ID, returning its
+   * counter of completed jobs.
+   *
+   * @throws BatfishInterruptedException if the current thread was interrupted, since the start of a
+   *     phase is where a cancelled or timed-out task stops
+   */
   public synchronized AtomicInteger newBatch(Settings settings, String description, int jobs) {
+    BatfishInterruptedException.checkNotInterrupted(description);
     Batch batch = null;
     Task task = getTask(settings);
     if (task != null) {
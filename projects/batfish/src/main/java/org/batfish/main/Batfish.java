@@ -8,6 +8,7 @@ import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.stream.Collectors.toMap;
 import static org.batfish.bddreachability.BDDMultipathInconsistency.computeMultipathInconsistencies;
 import static org.batfish.bddreachability.BDDReachabilityUtils.constructFlows;
+import static org.batfish.common.BatfishInterruptedException.checkNotInterrupted;
 import static org.batfish.common.runtime.SnapshotRuntimeData.EMPTY_SNAPSHOT_RUNTIME_DATA;
 import static org.batfish.common.util.CompletionMetadataUtils.getFilterNames;
 import static org.batfish.common.util.CompletionMetadataUtils.getInterfaces;
@@ -43,7 +44,6 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
-import com.google.common.collect.Table;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.errorprone.annotations.MustBeClosed;
@@ -126,25 +126,19 @@ import org.batfish.common.util.isp.IspModelingUtils;
 import org.batfish.common.util.isp.IspModelingUtils.ModeledNodes;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.BgpAdvertisement;
-import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.DeviceType;
 import org.batfish.datamodel.Edge;
-import org.batfish.datamodel.EvpnRoute;
-import org.batfish.datamodel.Fib;
-import org.batfish.datamodel.FinalMainRib;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDisposition;
-import org.batfish.datamodel.ForwardingAnalysis;
 import org.batfish.datamodel.IntegerSpace;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Interface.Dependency;
 import org.batfish.datamodel.Interface.DependencyType;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.NetworkConfigurations;
-import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.SwitchportMode;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.acl.AclLineMatchExpr;
@@ -172,8 +166,6 @@ import org.batfish.datamodel.isp_configuration.IspConfigurationException;
 import org.batfish.datamodel.ospf.OspfTopologyUtils;
 import org.batfish.datamodel.questions.InvalidReachabilityParametersException;
 import org.batfish.datamodel.questions.Question;
-import org.batfish.datamodel.vxlan.Layer2Vni;
-import org.batfish.datamodel.vxlan.Layer3Vni;
 import org.batfish.dataplane.TracerouteEngineImpl;
 import org.batfish.grammar.BatfishCombinedParser;
 import org.batfish.grammar.BatfishParseException;
@@ -480,7 +472,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _storage =
         alternateStorageProvider != null
             ? alternateStorageProvider
-            : new FileBasedStorage(_settings.getStorageBase(), _logger, this::newBatch);
+            : new FileBasedStorage(
+                _settings.getStorageBase(),
+                _logger,
+                this::newBatch,
+                _settings.getSerializationBackend());
     _idResolver =
         alternateIdResolver != null ? alternateIdResolver : new StorageBasedIdResolver(_storage);
     _topologyProvider = new TopologyProviderImpl(this, _storage);
@@ -644,63 +640,6 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return Warnings.forLogger(settings.getLogger());
   }
 
-  private static final NetworkSnapshot DUMMY_SNAPSHOT =
-      new NetworkSnapshot(
-          new NetworkId("__BATFISH_DUMMY_NETWORK"), new SnapshotId("__BATFISH_DUMMY_SNAPSHOT"));
-  private static final DataPlane DUMMY_DATAPLANE =
-      new DataPlane() {
-        @Override
-        public Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<Bgpv4Route>> getBgpBackupRoutes() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnRoutes() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnBackupRoutes() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Map<String, Map<String, Fib>> getFibs() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public ForwardingAnalysis getForwardingAnalysis() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, FinalMainRib> getRibs() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
-            getPrefixTracingInfoSummary() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<Layer3Vni>> getLayer3Vnis() {
-          throw new UnsupportedOperationException();
-        }
-      };
-
   @Override
   public DataPlaneAnswerElement computeDataPlane(NetworkSnapshot snapshot) {
     LOGGER.info("Starting data plane computation");
@@ -708,10 +647,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
     // (unlikely, only when devs force recomputation)
     _cachedDataPlanes.invalidate(snapshot);
 
-    // Reserve space for the new dataplane in the in-memory cache by inserting and invalidating a
-    // dummy value.
-    _cachedDataPlanes.put(DUMMY_SNAPSHOT, DUMMY_DATAPLANE);
-    _cachedDataPlanes.invalidate(DUMMY_SNAPSHOT);
+    // Reserve space for the new dataplane in the in-memory cache.
+    BfCache.reserveDataPlane(_cachedDataPlanes);
 
     ComputeDataPlaneResult result = getDataPlanePlugin().computeDataPlane(snapshot);
     DataPlaneAnswerElement answerElement = result._answerElement;
@@ -1310,13 +1247,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
       // - answering a question
       // - question successful
       // - client did not request full successful answers
-      String answerString = BatfishObjectMapper.writeString(answer);
+      // The full answer is only serialized to a string when it is needed for the log, since it
+      // is otherwise streamed directly to storage.
       boolean summarizeWorkJsonLogAnswer =
           writeLog
               && _settings.getQuestionName() != null
               && !_settings.getAlwaysIncludeAnswerInWorkJsonLog()
               && answer.getStatus() == AnswerStatus.SUCCESS;
-      String workJsonLogAnswerString;
+      String workJsonLogAnswerString = null;
       if (summarizeWorkJsonLogAnswer) {
         Answer summaryAnswer = new Answer();
         summaryAnswer.setQuestion(answer.getQuestion());
@@ -1324,11 +1262,13 @@ public class Batfish extends PluginConsumer implements IBatfish {
         summaryAnswer.setSummary(answer.getSummary());
         // do not include answer elements
         workJsonLogAnswerString = BatfishObjectMapper.writeString(summaryAnswer);
-      } else {
-        workJsonLogAnswerString = answerString;
+      } else if (writeLog) {
+        workJsonLogAnswerString = BatfishObjectMapper.writeString(answer);
+      }
+      if (_logger.isActive(BatfishLogger.LEVEL_DEBUG)) {
+        _logger.debug(BatfishObjectMapper.writeString(answer));
       }
-      _logger.debug(answerString);
-      writeJsonAnswerWithLog(answerString, workJsonLogAnswerString, writeLog);
+      writeJsonAnswerWithLog(answer, workJsonLogAnswerString, writeLog);
     } catch (Exception e) {
       BatfishException be = new BatfishException("Error in sending answer", e);
       try {
@@ -1337,7 +1277,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
         String answerString = BatfishObjectMapper.writeString(failureAnswer);
         _logger.error(answerString);
         // write "answer" to work json log if caller requested
-        writeJsonAnswerWithLog(answerString, answerString, writeLog);
+        writeJsonAnswerWithLog(failureAnswer, answerString, writeLog);
       } catch (Exception e1) {
         _logger.errorf(
             "Could not serialize failure answer. %s", Throwables.getStackTraceAsString(e1));
@@ -2531,10 +2471,13 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
     AtomicInteger batch = newBatch("Parse network configs", jobs.size());
     LOGGER.info("Parsing {} configuration files", jobs.size());
+    // files are parsed on other threads, which must stop if this one is interrupted
+    Thread jobThread = Thread.currentThread();
     parseResults =
         jobs.parallelStream()
             .map(
                 j -> {
+                  checkNotInterrupted(jobThread, "parsing configuration files");
                   ParseVendorConfigurationResult result = getOrParse(j, _settings);
                   int done = batch.incrementAndGet();
                   if (done % 100 == 0) {
@@ -2981,13 +2924,16 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private BDDReachabilityAnalysisFactory getBddReachabilityAnalysisFactory(
       NetworkSnapshot snapshot, BDDPacket pkt, boolean ignoreFilters) {
     DataPlane dataPlane = loadDataPlane(snapshot);
-    return new BDDReachabilityAnalysisFactory(
-        pkt,
-        loadConfigurations(snapshot),
-        dataPlane.getForwardingAnalysis(),
-        new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
-        ignoreFilters,
-        false);
+    BDDReachabilityAnalysisFactory factory =
+        new BDDReachabilityAnalysisFactory(
+            pkt,
+            loadConfigurations(snapshot),
+            dataPlane.getForwardingAnalysis(),
+            new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+            ignoreFilters,
+            false);
+    factory.setFixpointScheduling(_settings.getBddFixpointScheduling());
+    return factory;
   }
 
   public BDDReachabilityAnalysis getBddReachabilityAnalysis(
@@ -3102,7 +3048,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
         .collect(ImmutableSet.toImmutableSet());
   }
 
-  private void writeJsonAnswer(String structuredAnswerString) throws IOException {
+  private void writeJsonAnswer(Answer answer) throws IOException {
     SnapshotId referenceSnapshot = _settings.getDiffQuestion() ? _referenceSnapshot : null;
     NetworkId networkId = _settings.getContainer();
     QuestionId questionId = _settings.getQuestionName();
@@ -3113,12 +3059,19 @@ public class Batfish extends PluginConsumer implements IBatfish {
     AnswerId baseAnswerId =
         _idResolver.getAnswerId(
             networkId, _snapshot, questionId, networkNodeRolesId, referenceSnapshot);
-    _storage.storeAnswer(networkId, _snapshot, structuredAnswerString, baseAnswerId);
+    _storage.storeAnswer(networkId, _snapshot, answer, baseAnswerId);
   }
 
+  /**
+   * Stores {@code answer} if answering a question, and {@code workJsonLogAnswerString} as the work
+   * JSON log if {@code writeLog} is set. {@code workJsonLogAnswerString} must be non-null if {@code
+   * writeLog} is set.
+   */
   private void writeJsonAnswerWithLog(
-      String answerOutput, String workJsonLogAnswerString, boolean writeLog) throws IOException {
+      Answer answer, @Nullable String workJsonLogAnswerString, boolean writeLog)
+      throws IOException {
     if (writeLog && _settings.getTaskId() != null) {
+      assert workJsonLogAnswerString != null;
       _storage.storeWorkJson(
           workJsonLogAnswerString,
           _settings.getContainer(),
@@ -3127,7 +3080,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
     // Write answer if WorkItem was answering a question
     if (_settings.getQuestionName() != null) {
-      writeJsonAnswer(answerOutput);
+      writeJsonAnswer(answer);
     }
   }
 
@@ -1,18 +1,45 @@
 package org.batfish.main;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Table;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.SortedMap;
 import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.EvpnRoute;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
+import org.batfish.datamodel.vxlan.Layer2Vni;
+import org.batfish.datamodel.vxlan.Layer3Vni;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.storage.StoredDataPlane;
 import org.batfish.vendor.VendorConfiguration;
 
-/** Internal caches. */
+/**
+ * Internal caches.
+ *
+ * <p>The data plane, testrig, and vendor configuration caches are each bounded by a fraction of the
+ * maximum heap size, weighed by a rough estimate of the retained size of each entry. Each cache has
+ * its own budget, so that many small entries in one cache cannot push out an expensive entry in
+ * another. Within a cache, the entries that are cheapest to load again per unit of size are evicted
+ * first; see {@link CostAwareCache}. Since the size estimates leave out some components, such as
+ * the forwarding analysis of a data plane, the cached values are also softly referenced.
+ */
 public final class BfCache {
   public static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
   public static final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
@@ -22,18 +49,132 @@ public final class BfCache {
   public static final Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
       CACHED_VENDOR_CONFIGURATIONS = buildVendorConfigurationCache();
 
-  private static final int MAX_CACHED_DATA_PLANES = 2;
+  /** Fraction of the maximum heap size available to cached data planes. */
+  private static final double DATA_PLANE_HEAP_FRACTION = 0.4;
 
   private static final int MAX_CACHED_ENVIRONMENT_BGP_TABLES = 4;
 
-  private static final int MAX_CACHED_TESTRIGS = 5;
+  /** Fraction of the maximum heap size available to cached (vendor-independent) testrigs. */
+  private static final double TESTRIG_HEAP_FRACTION = 0.2;
 
-  private static final int MAX_CACHED_VENDOR_CONFIGURATIONS = 2;
+  /** Fraction of the maximum heap size available to cached vendor configurations. */
+  private static final double VENDOR_CONFIGURATION_HEAP_FRACTION = 0.1;
+
+  // Rough retained sizes, in bytes, used to estimate the size of cache entries.
+  private static final long ROUTE_BYTES = 400;
+  private static final long VRF_BYTES = 4_096;
+  private static final long CONFIGURATION_BYTES = 16_384;
+  private static final long INTERFACE_BYTES = 2_048;
+  private static final long ACL_LINE_BYTES = 512;
+  private static final long VENDOR_CONFIGURATION_BYTES = 1 << 20;
+
+  private static final long FIB_ENTRY_BYTES = 256;
+  private static final long ROUTING_POLICY_BYTES = 4_096;
+  private static final long BGP_PEER_BYTES = 2_048;
+
+  /** Rough ratio of the retained size of a data plane to its compressed size in storage. */
+  private static final long STORED_DATA_PLANE_EXPANSION = 10;
+
+  /**
+   * Fraction of the data plane cache budget reserved for a data plane about to be computed: half,
+   * as when the cache held at most two data planes.
+   */
+  private static final double DATA_PLANE_RESERVATION_FRACTION = 0.5;
+
+  private static final NetworkSnapshot RESERVATION_SNAPSHOT =
+      new NetworkSnapshot(
+          new NetworkId("__BATFISH_DUMMY_NETWORK"), new SnapshotId("__BATFISH_DUMMY_SNAPSHOT"));
+
+  /**
+   * Stands in for a data plane about to be computed, in order to make room for it in the data plane
+   * cache. It is weighed as {@link #DATA_PLANE_RESERVATION_FRACTION} of the cache budget, without
+   * calling any of its methods, all of which throw.
+   */
+  private static final DataPlane RESERVATION_DATA_PLANE =
+      new DataPlane() {
+        @Override
+        public Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Table<String, String, Set<Bgpv4Route>> getBgpBackupRoutes() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnRoutes() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnBackupRoutes() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, Map<String, Fib>> getFibs() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ForwardingAnalysis getForwardingAnalysis() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Table<String, String, FinalMainRib> getRibs() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+            getPrefixTracingInfoSummary() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Table<String, String, Set<Layer3Vni>> getLayer3Vnis() {
+          throw new UnsupportedOperationException();
+        }
+      };
 
   private BfCache() {}
 
+  /** Returns hit, miss, eviction, and load statistics for each bounded cache, by name. */
+  public static Map<String, CacheStats> getCacheStats() {
+    return ImmutableMap.of(
+        "dataPlanes", CACHED_DATA_PLANES.stats(),
+        "testrigs", CACHED_TESTRIGS.stats(),
+        "vendorConfigurations", CACHED_VENDOR_CONFIGURATIONS.stats());
+  }
+
+  /**
+   * Makes room in the given data plane cache for a data plane about to be computed, by inserting
+   * and invalidating a placeholder.
+   */
+  static void reserveDataPlane(Cache<NetworkSnapshot, DataPlane> cache) {
+    cache.put(RESERVATION_SNAPSHOT, RESERVATION_DATA_PLANE);
+    cache.invalidate(RESERVATION_SNAPSHOT);
+  }
+
   static Cache<NetworkSnapshot, DataPlane> buildDataPlaneCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_DATA_PLANES).build();
+    return buildDataPlaneCache(heapBudgetKb(DATA_PLANE_HEAP_FRACTION));
+  }
+
+  /** Builds a data plane cache holding at most {@code maxWeightKb} KiB of estimated size. */
+  @VisibleForTesting
+  static Cache<NetworkSnapshot, DataPlane> buildDataPlaneCache(long maxWeightKb) {
+    int reservationWeight = toWeight((long) (maxWeightKb * DATA_PLANE_RESERVATION_FRACTION) << 10);
+    return new CostAwareCache<>(
+        maxWeightKb,
+        (NetworkSnapshot snapshot, DataPlane dp) ->
+            dp == RESERVATION_DATA_PLANE ? reservationWeight : toWeight(estimateSize(dp)));
   }
 
   static Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
@@ -42,13 +183,86 @@ public final class BfCache {
   }
 
   static Cache<NetworkSnapshot, SortedMap<String, Configuration>> buildTestrigCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_TESTRIGS).build();
+    return buildTestrigCache(heapBudgetKb(TESTRIG_HEAP_FRACTION));
+  }
+
+  /** Builds a testrig cache holding at most {@code maxWeightKb} KiB of estimated size. */
+  @VisibleForTesting
+  static Cache<NetworkSnapshot, SortedMap<String, Configuration>> buildTestrigCache(
+      long maxWeightKb) {
+    return new CostAwareCache<>(
+        maxWeightKb,
+        (NetworkSnapshot snapshot, SortedMap<String, Configuration> configs) ->
+            toWeight(estimateSize(configs)));
   }
 
   static Cache<NetworkSnapshot, Map<String, VendorConfiguration>> buildVendorConfigurationCache() {
-    return CacheBuilder.newBuilder()
-        .softValues()
-        .maximumSize(MAX_CACHED_VENDOR_CONFIGURATIONS)
-        .build();
+    return new CostAwareCache<>(
+        heapBudgetKb(VENDOR_CONFIGURATION_HEAP_FRACTION),
+        (NetworkSnapshot snapshot, Map<String, VendorConfiguration> vendorConfigs) ->
+            toWeight(vendorConfigs.size() * VENDOR_CONFIGURATION_BYTES));
+  }
+
+  /** The given fraction of the maximum heap size, in KiB. */
+  private static long heapBudgetKb(double fraction) {
+    return (long) (Runtime.getRuntime().maxMemory() * fraction) >> 10;
+  }
+
+  /** Converts an estimated size in bytes to a cache weight in KiB. */
+  @VisibleForTesting
+  static int toWeight(long bytes) {
+    return (int) Math.min(Integer.MAX_VALUE, Math.max(1L, bytes >> 10));
+  }
+
+  /**
+   * Estimates the retained size of a data plane in bytes, dominated by its routes and forwarding
+   * entries, of which there is about one per main RIB route.
+   *
+   * <p>A {@link StoredDataPlane} is weighed by its stored size instead, since counting its routes
+   * would load every one of its lazily-loaded components.
+   */
+  @VisibleForTesting
+  static long estimateSize(DataPlane dp) {
+    if (dp instanceof StoredDataPlane) {
+      return ((StoredDataPlane) dp).getStoredSizeBytes() * STORED_DATA_PLANE_EXPANSION;
+    }
+    long mainRibRoutes =
+        dp.getRibs().values().stream().mapToLong(rib -> rib.getRoutes().size()).sum();
+    long routes =
+        mainRibRoutes
+            + dp.getBgpRoutes().values().stream().mapToLong(Set::size).sum()
+            + dp.getEvpnRoutes().values().stream().mapToLong(Set::size).sum();
+    return routes * ROUTE_BYTES
+        + mainRibRoutes * FIB_ENTRY_BYTES
+        + dp.getRibs().size() * VRF_BYTES;
+  }
+
+  /** Estimates the retained size of a set of configurations in bytes. */
+  @VisibleForTesting
+  static long estimateSize(Map<String, Configuration> configs) {
+    long size = 0;
+    for (Configuration c : configs.values()) {
+      size +=
+          CONFIGURATION_BYTES
+              + c.getAllInterfaces().size() * INTERFACE_BYTES
+              + c.getIpAccessLists().values().stream()
+                      .mapToLong(acl -> acl.getLines().size())
+                      .sum()
+                  * ACL_LINE_BYTES
+              + c.getRoutingPolicies().size() * ROUTING_POLICY_BYTES
+              + c.getVrfs().values().stream()
+                      .map(Vrf::getBgpProcess)
+                      .filter(Objects::nonNull)
+                      .mapToLong(BfCache::countBgpPeers)
+                      .sum()
+                  * BGP_PEER_BYTES;
+    }
+    return size;
+  }
+
+  private static long countBgpPeers(BgpProcess proc) {
+    return proc.getActiveNeighbors().size()
+        + proc.getPassiveNeighbors().size()
+        + proc.getInterfaceNeighbors().size();
   }
 }
@@ -0,0 +1,280 @@
+package org.batfish.main;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A cache bounded by the total weight of its entries, which evicts the entries that are cheapest
+ * to recompute per unit of weight first, following the GreedyDual-Size algorithm.
+ *
+ * <p>The cost of an entry is the time it took to load through {@link #get(Object, Callable)}. An
+ * entry inserted with {@link #put(Object, Object)} has no measured cost, so it is charged the
+ * average cost per unit of weight of the entries loaded so far. The priority of an entry is its
+ * cost per unit of weight, plus an inflation value that rises to the priority of each evicted
+ * entry; an entry's priority is refreshed whenever it is used, so that an expensive entry that is
+ * no longer used eventually ages out. Entries of equal priority are evicted least recently used
+ * first. The entry just inserted is never evicted to make room for itself.
+ *
+ * <p>Values are softly referenced, as a backstop for underestimated weights: the garbage collector
+ * may clear them when the heap runs low, which is recorded as an eviction.
+ */
+@ParametersAreNonnullByDefault
+final class CostAwareCache<K, V> extends AbstractCache<K, V> {
+
+  private static final class Entry<K, V> extends SoftReference<V> {
+    private final @Nonnull K _key;
+    private final int _weight;
+    private final double _costPerWeight;
+    private double _priority;
+
+    private Entry(
+        K key,
+        V value,
+        ReferenceQueue<? super V> queue,
+        int weight,
+        double costPerWeight,
+        double priority) {
+      super(value, queue);
+      _key = key;
+      _weight = weight;
+      _costPerWeight = costPerWeight;
+      _priority = priority;
+    }
+  }
+
+  private final long _maxWeight;
+  private final @Nonnull Weigher<? super K, ? super V> _weigher;
+  private final @Nonnull Ticker _ticker;
+  private final @Nonnull StatsCounter _stats = new SimpleStatsCounter();
+
+  /** Entries, in order of least to most recent use. */
+  private final @Nonnull LinkedHashMap<K, Entry<K, V>> _entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Loads in progress, so that concurrent misses on the same key load it only once. */
+  private final @Nonnull Map<K, FutureTask<V>> _loading = new HashMap<>();
+
+  /** Entries whose values were cleared by the garbage collector. */
+  private final @Nonnull ReferenceQueue<V> _cleared = new ReferenceQueue<>();
+
+  private long _totalWeight;
+  private double _inflation;
+  private long _loadedNanos;
+  private long _loadedWeight;
+
+  CostAwareCache(long maxWeight, Weigher<? super K, ? super V> weigher) {
+    this(maxWeight, weigher, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  CostAwareCache(long maxWeight, Weigher<? super K, ? super V> weigher, Ticker ticker) {
+    checkArgument(maxWeight >= 0, "maxWeight must not be negative");
+    _maxWeight = maxWeight;
+    _weigher = weigher;
+    _ticker = ticker;
+  }
+
+  @Override
+  public synchronized @Nullable V getIfPresent(Object key) {
+    purgeCleared();
+    V value = lookUp(key);
+    if (value == null) {
+      _stats.recordMisses(1);
+    } else {
+      _stats.recordHits(1);
+    }
+    return value;
+  }
+
+  @Override
+  public @Nonnull V get(K key, Callable<? extends V> loader) throws ExecutionException {
+    checkNotNull(key);
+    FutureTask<V> load;
+    boolean loadHere = false;
+    synchronized (this) {
+      purgeCleared();
+      V value = lookUp(key);
+      if (value != null) {
+        _stats.recordHits(1);
+        return value;
+      }
+      _stats.recordMisses(1);
+      load = _loading.get(key);
+      if (load == null) {
+        load = new FutureTask<>(loader::call);
+        _loading.put(key, load);
+        loadHere = true;
+      }
+    }
+    if (loadHere) {
+      long start = _ticker.read();
+      load.run();
+      finishLoad(key, load, _ticker.read() - start);
+    }
+    V value;
+    try {
+      value = Uninterruptibles.getUninterruptibly(load);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw new UncheckedExecutionException(cause);
+      } else if (cause instanceof Error) {
+        throw new ExecutionError((Error) cause);
+      }
+      throw e;
+    }
+    if (value == null) {
+      throw new InvalidCacheLoadException("Loader returned null for key " + key + ".");
+    }
+    return value;
+  }
+
+  @Override
+  public synchronized void put(K key, V value) {
+    checkNotNull(key);
+    checkNotNull(value);
+    purgeCleared();
+    double costPerWeight = _loadedWeight == 0 ? 1 : (double) _loadedNanos / _loadedWeight;
+    insert(key, value, weigh(key, value), costPerWeight);
+  }
+
+  @Override
+  public synchronized void invalidate(Object key) {
+    purgeCleared();
+    Entry<K, V> entry = _entries.remove(key);
+    if (entry != null) {
+      _totalWeight -= entry._weight;
+    }
+  }
+
+  @Override
+  public synchronized void invalidateAll() {
+    _entries.clear();
+    _totalWeight = 0;
+  }
+
+  @Override
+  public synchronized long size() {
+    purgeCleared();
+    return _entries.size();
+  }
+
+  @Override
+  public synchronized void cleanUp() {
+    purgeCleared();
+  }
+
+  @Override
+  public @Nonnull CacheStats stats() {
+    return _stats.snapshot();
+  }
+
+  /** The total weight of the entries in this cache. */
+  @VisibleForTesting
+  synchronized long totalWeight() {
+    purgeCleared();
+    return _totalWeight;
+  }
+
+  private synchronized void finishLoad(K key, FutureTask<V> load, long nanos) {
+    _loading.remove(key);
+    V value;
+    try {
+      value = Uninterruptibles.getUninterruptibly(load);
+    } catch (ExecutionException e) {
+      _stats.recordLoadException(nanos);
+      return;
+    }
+    if (value == null) {
+      _stats.recordLoadException(nanos);
+      return;
+    }
+    _stats.recordLoadSuccess(nanos);
+    purgeCleared();
+    int weight = weigh(key, value);
+    _loadedNanos += nanos;
+    _loadedWeight += weight;
+    insert(key, value, weight, (double) nanos / weight);
+  }
+
+  private int weigh(K key, V value) {
+    int weight = _weigher.weigh(key, value);
+    checkState(weight > 0, "Weight of %s must be positive, but was %s", key, weight);
+    return weight;
+  }
+
+  /** Returns the value cached for the key and refreshes its priority, or {@code null}. */
+  private @Nullable V lookUp(Object key) {
+    Entry<K, V> entry = _entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    V value = entry.get();
+    if (value == null) {
+      // cleared since the last purge
+      _entries.remove(key);
+      _totalWeight -= entry._weight;
+      _stats.recordEviction();
+      return null;
+    }
+    entry._priority = _inflation + entry._costPerWeight;
+    return value;
+  }
+
+  private void insert(K key, V value, int weight, double costPerWeight) {
+    Entry<K, V> old = _entries.remove(key);
+    if (old != null) {
+      _totalWeight -= old._weight;
+    }
+    _entries.put(
+        key, new Entry<>(key, value, _cleared, weight, costPerWeight, _inflation + costPerWeight));
+    _totalWeight += weight;
+    while (_totalWeight > _maxWeight && _entries.size() > 1) {
+      Entry<K, V> victim = null;
+      for (Entry<K, V> entry : _entries.values()) {
+        if (!entry._key.equals(key) && (victim == null || entry._priority < victim._priority)) {
+          victim = entry;
+        }
+      }
+      assert victim != null;
+      _entries.remove(victim._key);
+      _totalWeight -= victim._weight;
+      _inflation = victim._priority;
+      _stats.recordEviction();
+    }
+  }
+
+  private void purgeCleared() {
+    Reference<? extends V> reference;
+    while ((reference = _cleared.poll()) != null) {
+      Entry<?, ?> entry = (Entry<?, ?>) reference;
+      if (_entries.remove(entry._key, entry)) {
+        _totalWeight -= entry._weight;
+        _stats.recordEviction();
+      }
+    }
+  }
+}
@@ -1,9 +1,14 @@
 package org.batfish.main;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.IOException;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
@@ -31,8 +36,6 @@ public class Driver {
     WORKSERVICE,
   }
 
-  private static boolean _idle = true;
-
   private static BatfishLogger _mainLogger = null;
 
   private static Settings _mainSettings = null;
@@ -42,14 +45,10 @@ public class Driver {
   static Logger networkListenerLogger =
       Logger.getLogger("org.glassfish.grizzly.http.server.NetworkListener");
 
-  private static synchronized boolean claimIdle() {
-    if (_idle) {
-      _idle = false;
-      return true;
-    }
+  private static volatile WorkerTaskScheduler _scheduler = null;
 
-    return false;
-  }
+  /** How long an interrupted job may take to reach its next interruption check and stop. */
+  private static final long STOP_GRACE_PERIOD_MS = 60_000L;
 
   @Deprecated
   @SuppressWarnings("unused")
@@ -84,6 +83,10 @@ public class Driver {
         mainRunWorker();
         break;
       case WORKSERVICE:
+        _scheduler =
+            new WorkerTaskScheduler(
+                _mainSettings.getMaxConcurrentTasks(),
+                () -> TASK_TERMINATION_LISTENERS.forEach(Runnable::run));
         break;
       default:
         System.err.println(
@@ -123,13 +126,32 @@ public class Driver {
         public LaunchResult runTask(String taskId, String[] args) {
           return runBatfishThroughService(taskId, args);
         }
+
+        @Override
+        public boolean killTask(String taskId) {
+          return _scheduler != null && _scheduler.cancel(taskId);
+        }
+
+        @Override
+        public void addTaskTerminationListener(Runnable listener) {
+          TASK_TERMINATION_LISTENERS.add(listener);
+        }
       };
 
-  private static synchronized void makeIdle() {
-    _idle = true;
+  private static final List<Runnable> TASK_TERMINATION_LISTENERS = new CopyOnWriteArrayList<>();
+
+  /**
+   * Interrupts {@code thread} and waits at most {@code timeoutMs} for it to stop.
+   *
+   * @return {@code true} if the thread stopped in time
+   */
+  @VisibleForTesting
+  static boolean interruptAndJoin(Thread thread, long timeoutMs) {
+    thread.interrupt();
+    Uninterruptibles.joinUninterruptibly(thread, timeoutMs, TimeUnit.MILLISECONDS);
+    return !thread.isAlive();
   }
 
-  @SuppressWarnings("deprecation")
   private static String runBatfish(Settings settings) {
 
     BatfishLogger logger = settings.getLogger();
@@ -195,6 +217,9 @@ public class Driver {
                   answer.addAnswerElement(
                       new BatfishException("Batfish job failed", e).getBatfishStackTrace());
                 } finally {
+                  // An interrupted job still records its answer, which interruptible I/O would
+                  // refuse to write.
+                  Thread.interrupted();
                   try {
                     if (settings.getTaskId() != null) {
                       batfish.outputAnswerWithLog(answer);
@@ -212,17 +237,34 @@ public class Driver {
               });
 
       thread.start();
-      thread.join(settings.getMaxRuntimeMs());
+      boolean cancelled = false;
+      try {
+        thread.join(settings.getMaxRuntimeMs());
+      } catch (InterruptedException e) {
+        // the task was cancelled
+        cancelled = true;
+      }
 
       if (thread.isAlive()) {
-        // this is deprecated but we should be safe since we don't have
-        // locks and such
-        // AF: This doesn't do what you think it does, esp. not in Java 8.
-        // It needs to be replaced. TODO
-        thread.stop();
-        logger.error("Batfish worker took too long. Terminated.");
-        batfish.setTerminatingExceptionMessage("Batfish worker took too long. Terminated.");
+        String msg =
+            cancelled
+                ? "Batfish task was cancelled. Terminated."
+                : "Batfish worker took too long. Terminated.";
+        logger.error(msg);
+        // The job shares caches with other tasks, so it must not be stopped at an arbitrary point.
+        // Instead, interrupt it so that it stops at its next interruption check, and wait for that.
+        if (!interruptAndJoin(thread, STOP_GRACE_PERIOD_MS)) {
+          // Do not block the worker on a job that never checks for interruption: report the task
+          // as failed, which releases its capacity, and let the job thread finish on its own.
+          msg =
+              String.format(
+                  "%s Job did not stop within %d ms of being interrupted.",
+                  msg, STOP_GRACE_PERIOD_MS);
+          logger.error(msg);
+        }
+        batfish.setTerminatingExceptionMessage(msg);
       }
+      logger.debugf("Cache statistics: %s\n", BfCache.getCacheStats());
 
       return batfish.getTerminatingExceptionMessage();
     } catch (Exception e) {
@@ -235,7 +277,7 @@ public class Driver {
   public static @Nonnull LaunchResult runBatfishThroughService(String taskId, String[] args) {
     Settings settings;
     try {
-      if (!_initialized) {
+      if (!_initialized || _scheduler == null) {
         return LaunchResult.busy();
       }
       settings = new Settings(_mainSettings);
@@ -251,11 +293,11 @@ public class Driver {
       return LaunchResult.error("Non-executable command");
     }
 
-    if (!claimIdle()) {
+    if (!_scheduler.tryReserve(taskId, WorkerTaskScheduler.TaskType.forSettings(settings))) {
       return LaunchResult.busy();
     }
 
-    // try/catch so that the worker becomes idle again in case of problem submitting thread.
+    // try/catch so that the reservation is released in case of problem submitting the task.
     try {
 
       BatfishLogger jobLogger =
@@ -266,29 +308,29 @@ public class Driver {
 
       BatchManager.get().logTask(taskId, task);
 
-      // run batfish on a new thread and set idle to true when done
-      Thread thread =
-          new Thread(
-              () -> {
-                task.setStatus(TaskStatus.InProgress);
-                String errMsg = runBatfish(settings);
-                if (errMsg == null) {
-                  task.setStatus(TaskStatus.TerminatedNormally);
-                } else {
-                  task.setStatus(TaskStatus.TerminatedAbnormally);
-                  task.setErrMessage(errMsg);
-                }
-                task.setTerminated(new Date());
-                jobLogger.close();
-                makeIdle();
-              });
-
-      thread.start();
+      // run batfish on a scheduler thread, which releases the reservation when done
+      _scheduler.run(
+          taskId,
+          () -> {
+            task.setStatus(TaskStatus.InProgress);
+            String errMsg = runBatfish(settings);
+            if (_scheduler.isCancelled(taskId)) {
+              task.setStatus(TaskStatus.TerminatedByUser);
+              task.setErrMessage(errMsg);
+            } else if (errMsg == null) {
+              task.setStatus(TaskStatus.TerminatedNormally);
+            } else {
+              task.setStatus(TaskStatus.TerminatedAbnormally);
+              task.setErrMessage(errMsg);
+            }
+            task.setTerminated(new Date());
+            jobLogger.close();
+          });
 
       return LaunchResult.launched();
     } catch (Exception e) {
       _mainLogger.error("Exception while launching task: " + e.getMessage());
-      makeIdle();
+      _scheduler.release(taskId);
       return LaunchResult.error(e.getMessage());
     }
   }
@@ -0,0 +1,199 @@
+package org.batfish.main;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.config.Settings;
+
+/**
+ * Runs worker tasks concurrently. Launching a task is two-phase: the caller first reserves capacity
+ * for the task with {@link #tryReserve(String, TaskType)}, and then either runs it with {@link
+ * #run(String, Runnable)} or gives up the reservation with {@link #release(String)}.
+ *
+ * <p>A task is admitted only if fewer than the maximum number of tasks are running, and if the
+ * estimated heap usage of the running tasks plus that of the new task fits in the heap. Heap usage
+ * is estimated per {@link TaskType}. A task is always admitted if no other task is running, so that
+ * a single task is never starved.
+ *
+ * <p>Running tasks may be cancelled, which interrupts the thread running them. Tasks are expected
+ * to stop cooperatively once interrupted.
+ *
+ * <p>Once a task finishes and its capacity is released, a termination callback is run, so that
+ * clients can submit more work without polling.
+ */
+@ParametersAreNonnullByDefault
+final class WorkerTaskScheduler {
+
+  /**
+   * Coarse classification of worker tasks by their estimated heap usage.
+   *
+   * <p>The estimates are fixed, conservative constants rather than derived from the size of the
+   * snapshot: at most one parse or data plane task runs alongside question tasks, whatever the
+   * snapshot.
+   */
+  enum TaskType {
+    /** Parsing and converting a snapshot. */
+    PARSE(60),
+    /** Computing the data plane of a snapshot. */
+    DATAPLANE(60),
+    /** Answering a question, assuming a parsed snapshot and a cached data plane. */
+    QUESTION(10);
+
+    /** Estimated heap usage, as a percentage of the maximum heap size. */
+    private final int _heapPercent;
+
+    TaskType(int heapPercent) {
+      _heapPercent = heapPercent;
+    }
+
+    int getHeapPercent() {
+      return _heapPercent;
+    }
+
+    static @Nonnull TaskType forSettings(Settings settings) {
+      if (settings.getSerializeVendor() || settings.getSerializeIndependent()) {
+        return PARSE;
+      } else if (settings.getDataPlane()) {
+        return DATAPLANE;
+      }
+      return QUESTION;
+    }
+  }
+
+  private static final class RunningTask {
+    private final @Nonnull TaskType _type;
+    private boolean _cancelled;
+    private @Nullable Thread _thread;
+
+    private RunningTask(TaskType type) {
+      _type = type;
+    }
+  }
+
+  private static final int HEAP_BUDGET_PERCENT = 100;
+
+  private final @Nonnull ExecutorService _executor;
+  private final int _maxConcurrentTasks;
+  private final @Nonnull Runnable _onTaskTerminated;
+  private final @Nonnull Map<String, RunningTask> _running;
+  private int _reservedHeapPercent;
+
+  WorkerTaskScheduler(int maxConcurrentTasks, Runnable onTaskTerminated) {
+    checkArgument(maxConcurrentTasks > 0, "Must allow at least one concurrent task");
+    AtomicInteger numThreads = new AtomicInteger();
+    _executor =
+        Executors.newCachedThreadPool(
+            r -> {
+              Thread t = new Thread(r, "batfish-task-" + numThreads.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+    _maxConcurrentTasks = maxConcurrentTasks;
+    _onTaskTerminated = onTaskTerminated;
+    _running = new HashMap<>();
+  }
+
+  /**
+   * Reserves capacity for a task of the given type with the given ID, if available.
+   *
+   * @return {@code true} if the task was admitted, or {@code false} if the worker is busy or a task
+   *     with the same ID is already running
+   */
+  synchronized boolean tryReserve(String taskId, TaskType type) {
+    if (_running.containsKey(taskId) || !canAdmit(type)) {
+      return false;
+    }
+    _running.put(taskId, new RunningTask(type));
+    _reservedHeapPercent += type.getHeapPercent();
+    return true;
+  }
+
+  /**
+   * Runs {@code task} in the background using the capacity reserved for the given task ID, and
+   * releases that capacity when it finishes.
+   *
+   * @throws IllegalStateException if no capacity was reserved for the given task ID
+   */
+  synchronized void run(String taskId, Runnable task) {
+    RunningTask runningTask = _running.get(taskId);
+    checkState(runningTask != null, "No capacity reserved for task %s", taskId);
+    _executor.execute(
+        () -> {
+          try {
+            start(runningTask);
+            task.run();
+          } finally {
+            release(taskId);
+            // do not leak a cancellation into the next task run on this pooled thread
+            Thread.interrupted();
+          }
+          _onTaskTerminated.run();
+        });
+  }
+
+  private boolean canAdmit(TaskType type) {
+    if (_running.isEmpty()) {
+      return true;
+    }
+    return _running.size() < _maxConcurrentTasks
+        && _reservedHeapPercent + type.getHeapPercent() <= HEAP_BUDGET_PERCENT;
+  }
+
+  private synchronized void start(RunningTask runningTask) {
+    runningTask._thread = Thread.currentThread();
+    if (runningTask._cancelled) {
+      // cancelled before it started
+      runningTask._thread.interrupt();
+    }
+  }
+
+  /** Releases the capacity reserved for the task with the given ID, if any. */
+  synchronized void release(String taskId) {
+    RunningTask runningTask = _running.remove(taskId);
+    if (runningTask != null) {
+      runningTask._thread = null;
+      _reservedHeapPercent -= runningTask._type.getHeapPercent();
+    }
+  }
+
+  /**
+   * Requests cancellation of the running task with the given ID by interrupting it. The task keeps
+   * counting against the capacity of the worker until it actually stops.
+   *
+   * @return {@code true} if a task with the given ID was running
+   */
+  synchronized boolean cancel(String taskId) {
+    RunningTask runningTask = _running.get(taskId);
+    if (runningTask == null) {
+      return false;
+    }
+    runningTask._cancelled = true;
+    if (runningTask._thread != null) {
+      runningTask._thread.interrupt();
+    }
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if the task with the given ID was cancelled. Only meaningful while the
+   * task is running, i.e., when called from the task itself.
+   */
+  synchronized boolean isCancelled(String taskId) {
+    RunningTask runningTask = _running.get(taskId);
+    return runningTask != null && runningTask._cancelled;
+  }
+
+  @VisibleForTesting
+  synchronized int getNumRunningTasks() {
+    return _running.size();
+  }
+}
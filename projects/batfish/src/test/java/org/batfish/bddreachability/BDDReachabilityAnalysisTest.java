@@ -1,7 +1,9 @@
 package org.batfish.bddreachability;
 
 import static org.batfish.bddreachability.BDDReachabilityUtils.computeForwardEdgeTable;
+import static org.batfish.bddreachability.BDDReachabilityUtils.computeSccsInTopologicalOrder;
 import static org.batfish.bddreachability.BDDReachabilityUtils.fixpoint;
+import static org.batfish.bddreachability.BDDReachabilityUtils.sccFixpoint;
 import static org.batfish.bddreachability.BDDReachabilityUtils.toIngressLocation;
 import static org.batfish.bddreachability.TestNetwork.DST_PREFIX_1;
 import static org.batfish.bddreachability.TestNetwork.DST_PREFIX_2;
@@ -640,4 +642,104 @@ public final class BDDReachabilityAnalysisTest {
                   c, start)));
     }
   }
+
+  @Test
+  public void testComputeSccsInTopologicalOrder() {
+    StateExpr a = new NodeAccept("A");
+    StateExpr b = new NodeAccept("B");
+    StateExpr c = new NodeAccept("C");
+    StateExpr d = new NodeAccept("D");
+    BDD one = _pkt.getFactory().one();
+
+    // a -> b <-> c -> d
+    Table<StateExpr, StateExpr, Transition> edges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(a, b, one), new Edge(b, c, one), new Edge(c, b, one), new Edge(c, d, one)));
+    assertEquals(
+        ImmutableList.of(ImmutableSet.of(a), ImmutableSet.of(b, c), ImmutableSet.of(d)),
+        computeSccsInTopologicalOrder(edges));
+    assertEquals(
+        ImmutableList.of(ImmutableSet.of(d), ImmutableSet.of(b, c), ImmutableSet.of(a)),
+        computeSccsInTopologicalOrder(Tables.transpose(edges)));
+  }
+
+  @Test
+  public void testSccFixpoint() {
+    StateExpr a = new NodeAccept("A");
+    StateExpr b = new NodeAccept("B");
+    StateExpr c = new NodeAccept("C");
+    StateExpr d = new NodeAccept("D");
+    StateExpr unconnected = new NodeAccept("E");
+
+    BDD start = _pkt.getSrcPort().value(1);
+    BDD bddAB = _pkt.getDstIp().value(1);
+    BDD bddBC = _pkt.getSrcIp().value(1);
+    BDD bddCB = _pkt.getDstPort().value(1);
+    BDD bddCD = _pkt.getSrcIp().value(1).or(_pkt.getDstPort().value(1));
+
+    // a -> b <-> c -> d
+    Table<StateExpr, StateExpr, Transition> forwardEdges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(a, b, bddAB),
+                new Edge(b, c, bddBC),
+                new Edge(c, b, bddCB),
+                new Edge(c, d, bddCD)));
+    Table<StateExpr, StateExpr, Transition> reverseEdges =
+        BDDReachabilityUtils.transposeAndMaterialize(forwardEdges);
+    List<Set<StateExpr>> forwardSccs = computeSccsInTopologicalOrder(forwardEdges);
+    List<Set<StateExpr>> reverseSccs = computeSccsInTopologicalOrder(reverseEdges);
+
+    // forward from a, and from a state not in the graph
+    {
+      Map<StateExpr, BDD> expected = new HashMap<>(ImmutableMap.of(a, start, unconnected, start));
+      fixpoint(expected, forwardEdges, Transition::transitForward);
+      Map<StateExpr, BDD> actual = new HashMap<>(ImmutableMap.of(a, start, unconnected, start));
+      sccFixpoint(actual, forwardEdges, forwardSccs, Transition::transitForward);
+      assertThat(actual, equalTo(expected));
+      assertThat(actual.get(d), equalTo(start.and(bddAB).and(bddBC).and(bddCD)));
+    }
+
+    // reverse from d
+    {
+      Map<StateExpr, BDD> expected = new HashMap<>(ImmutableMap.of(d, start));
+      fixpoint(expected, reverseEdges, Transition::transitBackward);
+      Map<StateExpr, BDD> actual = new HashMap<>(ImmutableMap.of(d, start));
+      sccFixpoint(actual, reverseEdges, reverseSccs, Transition::transitBackward);
+      assertThat(actual, equalTo(expected));
+      assertThat(actual.keySet(), containsInAnyOrder(a, b, c, d));
+    }
+  }
+
+  @Test
+  public void testFixpointStats() {
+    StateExpr a = new NodeAccept("A");
+    StateExpr b = new NodeAccept("B");
+    StateExpr c = new NodeAccept("C");
+    BDD start = _pkt.getSrcPort().value(1);
+
+    // a -> b -> c
+    Table<StateExpr, StateExpr, Transition> forwardEdges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(a, b, _pkt.getDstIp().value(1)),
+                new Edge(b, c, _pkt.getSrcIp().value(1))));
+
+    for (FixpointStats stats :
+        ImmutableList.of(
+            fixpoint(
+                new HashMap<>(ImmutableMap.of(a, start)),
+                forwardEdges,
+                Transition::transitForward),
+            sccFixpoint(
+                new HashMap<>(ImmutableMap.of(a, start)),
+                forwardEdges,
+                computeSccsInTopologicalOrder(forwardEdges),
+                Transition::transitForward))) {
+      assertEquals(3, stats.getStateVisits());
+      assertEquals(2, stats.getEdgeTraversals());
+      assertEquals(3, stats.getOrAllCalls());
+    }
+  }
 }
@@ -7,9 +7,11 @@ import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import java.nio.file.Paths;
+import org.batfish.bddreachability.BDDReachabilityAnalysis.FixpointScheduling;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.main.Driver.RunMode;
+import org.batfish.storage.SerializationBackend;
 import org.junit.Test;
 
 /** Test for {@link org.batfish.config.Settings} */
@@ -48,6 +50,28 @@ public class SettingsTest {
     assertThat(settings.getRunMode(), equalTo(RunMode.WORKSERVICE));
   }
 
+  /** Test that BDD fixpoint scheduling defaults to visit count and is parsed case insensitively */
+  @Test
+  public void testBddFixpointScheduling() {
+    assertThat(
+        new Settings(new String[] {}).getBddFixpointScheduling(),
+        equalTo(FixpointScheduling.VISIT_COUNT));
+    assertThat(
+        new Settings(new String[] {"-bddfixpointscheduling=scc"}).getBddFixpointScheduling(),
+        equalTo(FixpointScheduling.SCC));
+  }
+
+  /** Test that the serialization backend defaults to deduplicated Java serialization */
+  @Test
+  public void testSerializationBackend() {
+    assertThat(
+        new Settings(new String[] {}).getSerializationBackend(),
+        equalTo(SerializationBackend.JAVA_DEDUPLICATED));
+    assertThat(
+        new Settings(new String[] {"-serializationbackend=java"}).getSerializationBackend(),
+        equalTo(SerializationBackend.JAVA));
+  }
+
   @Test
   public void testLogfileWithDeltaTestrig() {
     // Only main testrig
@@ -218,6 +218,42 @@ public final class FibImplTest {
     assertThat(fibRoutes, hasItem(hasPrefix(Prefix.parse("2.2.2.0/24"))));
   }
 
+  private static FibEntry fibEntry(StaticRoute route, String ifaceName) {
+    return new FibEntry(FibForward.of(null, ifaceName), ImmutableList.of(route));
+  }
+
+  @Test
+  public void testLongestPrefixMatch() {
+    Rib rib = new Rib();
+    StaticRoute.Builder sb = StaticRoute.testBuilder().setAdministrativeCost(1);
+    StaticRoute route8 =
+        sb.setNetwork(Prefix.parse("10.0.0.0/8")).setNextHopInterface("Eth1").build();
+    StaticRoute route16 =
+        sb.setNetwork(Prefix.parse("10.1.0.0/16")).setNextHopInterface("Eth2").build();
+    StaticRoute route24 =
+        sb.setNetwork(Prefix.parse("10.1.1.0/24")).setNextHopInterface("Eth3").build();
+    StaticRoute route32 =
+        sb.setNetwork(Prefix.parse("10.255.255.255/32")).setNextHopInterface("Eth4").build();
+    rib.mergeRoute(annotateRoute(route8));
+    rib.mergeRoute(annotateRoute(route16));
+    rib.mergeRoute(annotateRoute(route24));
+    rib.mergeRoute(annotateRoute(route32));
+
+    Fib fib = new FibImpl(rib, alwaysTrue());
+
+    assertThat(fib.get(Ip.parse("9.255.255.255")), empty());
+    assertThat(fib.get(Ip.parse("10.0.0.0")), contains(fibEntry(route8, "Eth1")));
+    assertThat(fib.get(Ip.parse("10.1.0.255")), contains(fibEntry(route16, "Eth2")));
+    assertThat(fib.get(Ip.parse("10.1.1.0")), contains(fibEntry(route24, "Eth3")));
+    assertThat(fib.get(Ip.parse("10.1.1.255")), contains(fibEntry(route24, "Eth3")));
+    assertThat(fib.get(Ip.parse("10.1.2.0")), contains(fibEntry(route16, "Eth2")));
+    assertThat(fib.get(Ip.parse("10.2.0.0")), contains(fibEntry(route8, "Eth1")));
+    assertThat(fib.get(Ip.parse("10.255.255.254")), contains(fibEntry(route8, "Eth1")));
+    assertThat(fib.get(Ip.parse("10.255.255.255")), contains(fibEntry(route32, "Eth4")));
+    assertThat(fib.get(Ip.parse("11.0.0.0")), empty());
+    assertThat(fib.get(Ip.MAX), empty());
+  }
+
   @Test
   public void testNextVrfRouteInFib() {
     Rib rib = new Rib();
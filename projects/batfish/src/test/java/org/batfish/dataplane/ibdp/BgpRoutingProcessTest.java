@@ -37,6 +37,7 @@ import com.google.common.graph.MutableValueGraph;
 import com.google.common.graph.ValueGraphBuilder;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -88,10 +89,13 @@ import org.batfish.datamodel.routing_policy.expr.ExplicitPrefixSet;
 import org.batfish.datamodel.routing_policy.expr.LiteralOrigin;
 import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
 import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
+import org.batfish.datamodel.routing_policy.expr.TrackSucceeded;
 import org.batfish.datamodel.routing_policy.statement.If;
 import org.batfish.datamodel.routing_policy.statement.SetNextHop;
 import org.batfish.datamodel.routing_policy.statement.SetOrigin;
 import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.batfish.datamodel.tracking.PreDataPlaneTrackMethodEvaluator;
+import org.batfish.datamodel.tracking.TrackMethods;
 import org.batfish.datamodel.vxlan.Layer2Vni;
 import org.batfish.dataplane.rib.Rib;
 import org.batfish.dataplane.rib.RibDelta;
@@ -956,6 +960,81 @@ public class BgpRoutingProcessTest {
     assertThat(outputRouteBuilder.build().getNextHopIp(), equalTo(neighborIp));
   }
 
+  @Test
+  public void testImportPolicyCache() {
+    // accepts routes only while track "t" succeeds
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setOwner(_c)
+            .setName("policy")
+            .setStatements(
+                ImmutableList.of(
+                    new If(
+                        new TrackSucceeded("t"),
+                        ImmutableList.of(Statements.ExitAccept.toStaticStatement()),
+                        ImmutableList.of(Statements.ExitReject.toStaticStatement()))))
+            .build();
+    _bgpProcess.setTracks(ImmutableSet.of("t"));
+    _c.setTrackingGroups(ImmutableMap.of("t", TrackMethods.alwaysTrue()));
+
+    Ip localIp = Ip.parse("1.1.1.1");
+    Ip remoteIp = Ip.parse("1.1.1.2");
+    BgpSessionProperties.Builder sessionBuilder =
+        BgpSessionProperties.builder()
+            .setRemoteAs(2L)
+            .setLocalAs(1L)
+            .setRemoteIp(remoteIp)
+            .setLocalIp(localIp)
+            .setAddressFamilies(ImmutableSet.of(Type.IPV4_UNICAST));
+    BgpSessionProperties session = sessionBuilder.build();
+    Bgpv4Route.Builder routeBuilder =
+        Bgpv4Route.testBuilder()
+            .setNetwork(Prefix.parse("10.0.0.0/24"))
+            .setOriginatorIp(remoteIp)
+            .setReceivedFrom(ReceivedFromIp.of(remoteIp))
+            .setNextHopIp(remoteIp);
+    Bgpv4Route route = routeBuilder.build();
+
+    // track state has not been evaluated yet, so the route is rejected
+    assertThat(
+        _routingProcess.processImportPolicy(policy, route, route.toBuilder(), session),
+        equalTo(Optional.empty()));
+    assertThat(_routingProcess.getImportPolicyCacheStats().missCount(), equalTo(1L));
+
+    // the same route re-advertised over the same session hits
+    assertThat(
+        _routingProcess.processImportPolicy(policy, route, route.toBuilder(), session),
+        equalTo(Optional.empty()));
+    assertThat(_routingProcess.getImportPolicyCacheStats().hitCount(), equalTo(1L));
+
+    // a different session misses, even if equal
+    _routingProcess.processImportPolicy(policy, route, route.toBuilder(), sessionBuilder.build());
+    assertThat(_routingProcess.getImportPolicyCacheStats().missCount(), equalTo(2L));
+
+    // a different next hop misses
+    Bgpv4Route otherNextHop = routeBuilder.setNextHopIp(Ip.parse("1.1.1.3")).build();
+    _routingProcess.processImportPolicy(policy, otherNextHop, otherNextHop.toBuilder(), session);
+    assertThat(_routingProcess.getImportPolicyCacheStats().missCount(), equalTo(3L));
+
+    // once the watched track succeeds, memoized rejections are dropped and the route is accepted
+    _routingProcess.updateWatchedTrackStates(PreDataPlaneTrackMethodEvaluator::new);
+    assertThat(
+        _routingProcess.processImportPolicy(policy, route, route.toBuilder(), session),
+        equalTo(Optional.of(route)));
+    assertThat(_routingProcess.getImportPolicyCacheStats().missCount(), equalTo(4L));
+    assertThat(_routingProcess.getImportPolicyCacheStats().hitCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testMaxImportPolicyResults() {
+    // few processes each get the per-process bound
+    assertThat(BgpRoutingProcess.maxImportPolicyResults(0), equalTo(1 << 14));
+    assertThat(BgpRoutingProcess.maxImportPolicyResults(16), equalTo(1 << 14));
+    // many processes share the total bound
+    assertThat(BgpRoutingProcess.maxImportPolicyResults(64), equalTo(1 << 12));
+    assertThat(BgpRoutingProcess.maxImportPolicyResults(1 << 20), equalTo(0));
+  }
+
   @Test
   public void testToEvpnType5Route() {
     // ensure tag is copied
@@ -0,0 +1,89 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasPrefix;
+import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasProtocol;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.topology.TopologyProvider;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
+import org.batfish.main.Batfish;
+import org.batfish.main.BatfishTestUtils;
+import org.batfish.main.TestrigText;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests that {@link IncrementalBdpEngine} computes the same data plane with each schedule. */
+public final class IbdpScheduleDifferentialTest {
+  private static final String SNAPSHOT_PATH = "org/batfish/dataplane/ibdp/multi-protocol";
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private IncrementalDataPlane computeDataPlane(Schedule schedule) throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            TestrigText.builder()
+                .setConfigurationFiles(SNAPSHOT_PATH, "r1", "r2", "r3", "r4")
+                .build(),
+            _folder);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    Map<String, Configuration> configurations = batfish.loadConfigurations(snapshot);
+    TopologyProvider topologyProvider = batfish.getTopologyProvider();
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings
+        .getConfig()
+        .setProperty(IncrementalDataPlaneSettings.PROP_SCHEDULE, schedule.toString());
+    return (IncrementalDataPlane)
+        new IncrementalBdpEngine(settings)
+            .computeDataPlane(
+                configurations,
+                IncrementalDataPlanePlugin.initialTopologyContext(
+                    topologyProvider, snapshot, configurations),
+                ImmutableSet.of(),
+                topologyProvider.getInitialIpOwners(snapshot))
+            ._dataPlane;
+  }
+
+  /**
+   * Test that scheduling only the nodes with pending work computes the same routes as scheduling
+   * every node, in a network where r1-r2 run OSPF, r2-r3 run eBGP, and r3-r4 run EIGRP, with
+   * redistribution between them.
+   */
+  @Test
+  public void testActiveScheduleMatchesAll() throws IOException {
+    IncrementalDataPlane all = computeDataPlane(Schedule.ALL);
+    IncrementalDataPlane active = computeDataPlane(Schedule.ACTIVE);
+
+    SortedMap<String, SortedMap<String, Set<AbstractRoute>>> allRoutes =
+        IncrementalBdpEngine.getRoutes(all);
+    // every protocol contributes routes
+    assertThat(
+        allRoutes.get("r1").get(DEFAULT_VRF_NAME),
+        hasItem(
+            allOf(hasPrefix(Prefix.parse("2.2.2.2/32")), hasProtocol(RoutingProtocol.OSPF))));
+    assertThat(
+        allRoutes.get("r3").get(DEFAULT_VRF_NAME),
+        hasItem(allOf(hasPrefix(Prefix.parse("2.2.2.2/32")), hasProtocol(RoutingProtocol.BGP))));
+    assertThat(
+        allRoutes.get("r4").get(DEFAULT_VRF_NAME),
+        hasItem(
+            allOf(hasPrefix(Prefix.parse("3.3.3.3/32")), hasProtocol(RoutingProtocol.EIGRP))));
+
+    assertThat(IncrementalBdpEngine.getRoutes(active), equalTo(allRoutes));
+    assertThat(active.getBgpRoutes(), equalTo(all.getBgpRoutes()));
+  }
+}
@@ -0,0 +1,50 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.batfish.datamodel.answers.DataPlaneProfile;
+import org.batfish.datamodel.answers.DataPlaneProfile.IterationProfile;
+import org.batfish.datamodel.answers.DataPlaneProfile.PhaseProfile;
+import org.junit.Test;
+
+/** Tests of {@link IterationTimings} and {@link DataPlaneProfiler} */
+public final class IterationTimingsTest {
+
+  @Test
+  public void testPhasesAccumulateInOrderOfFirstOccurrence() {
+    IterationTimings timings = new IterationTimings(1, null);
+    timings.time("b", () -> {});
+    timings.time("a", () -> {});
+    assertThat(timings.timeAndGet("b", () -> 5), equalTo(5));
+
+    assertThat(timings.getMillisByPhase().keySet(), contains("b", "a"));
+    // CPU time is only measured when profiling
+    assertThat(timings.getPhaseProfiles(), hasSize(2));
+    for (PhaseProfile phase : timings.getPhaseProfiles()) {
+      assertThat(phase.getCpuMillis(), equalTo(-1L));
+    }
+  }
+
+  @Test
+  public void testProfilerRecordsIterations() {
+    DataPlaneProfiler profiler = new DataPlaneProfiler();
+    IterationTimings timings = new IterationTimings(3, profiler);
+    timings.forEach("bgp", ImmutableList.of(), vr -> {});
+    profiler.recordIteration(3, timings, ImmutableList.of());
+
+    DataPlaneProfile profile = profiler.build();
+    assertThat(profile.getSlowestVrfs(), empty());
+    assertThat(profile.getIterations(), hasSize(1));
+    IterationProfile iteration = profile.getIterations().get(0);
+    assertThat(iteration.getIteration(), equalTo(3));
+    assertThat(iteration.getQueuedMessages(), equalTo(0));
+    assertThat(iteration.getMainRibUpdatesByProtocol().keySet(), empty());
+    assertThat(iteration.getPhases(), hasSize(1));
+    assertThat(iteration.getPhases().get(0).getName(), equalTo("bgp"));
+  }
+}
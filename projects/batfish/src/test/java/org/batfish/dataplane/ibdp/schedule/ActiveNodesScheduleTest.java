@@ -0,0 +1,98 @@
+package org.batfish.dataplane.ibdp.schedule;
+
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+import java.util.Map;
+import org.batfish.datamodel.BgpPeerConfigId;
+import org.batfish.datamodel.BgpSessionProperties;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.bgp.BgpTopology;
+import org.batfish.dataplane.ibdp.Node;
+import org.batfish.dataplane.ibdp.TopologyContext;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests for {@link ActiveNodesSchedule} */
+public class ActiveNodesScheduleTest {
+
+  private Map<String, Node> _nodes;
+  private SetMultimap<String, String> _protocolNeighbors;
+
+  @Before
+  public void setup() {
+    NetworkFactory nf = new NetworkFactory();
+    ImmutableMap.Builder<String, Node> nodes = ImmutableMap.builder();
+    for (String hostname : ImmutableSet.of("r1", "r2", "r3")) {
+      nodes.put(
+          hostname,
+          new Node(
+              nf.configurationBuilder()
+                  .setHostname(hostname)
+                  .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+                  .build()));
+    }
+    _nodes = nodes.build();
+
+    // A single BGP session between r1 and r2
+    MutableValueGraph<BgpPeerConfigId, BgpSessionProperties> graph =
+        ValueGraphBuilder.directed().build();
+    graph.putEdgeValue(
+        new BgpPeerConfigId("r1", "default", Prefix.parse("1.1.1.2/32"), false),
+        new BgpPeerConfigId("r2", "default", Prefix.parse("1.1.1.1/32"), false),
+        BgpSessionProperties.builder()
+            .setLocalAs(1L)
+            .setRemoteAs(2L)
+            .setLocalIp(Ip.parse("1.1.1.1"))
+            .setRemoteIp(Ip.parse("1.1.1.2"))
+            .build());
+    _protocolNeighbors =
+        ActiveNodesSchedule.protocolNeighbors(
+            TopologyContext.builder().setBgpTopology(new BgpTopology(graph)).build());
+  }
+
+  @Test
+  public void testProtocolNeighbors() {
+    // the BGP session is directed, but the adjacency is not
+    assertThat(_protocolNeighbors, equalTo(ImmutableSetMultimap.of("r1", "r2", "r2", "r1")));
+  }
+
+  @Test
+  public void testUnknownDirtyNodes() {
+    IbdpSchedule schedule = new ActiveNodesSchedule(_nodes, _protocolNeighbors, null);
+    assertTrue(schedule.hasNext());
+    assertThat(schedule.next(), equalTo(_nodes));
+    assertFalse(schedule.hasNext());
+  }
+
+  @Test
+  public void testDirtyNodeAndNeighborsScheduled() {
+    // r2 must run to pull r1's deltas; r3 has no adjacency with r1
+    assertThat(
+        new ActiveNodesSchedule(_nodes, _protocolNeighbors, ImmutableSet.of("r1")).next().keySet(),
+        containsInAnyOrder("r1", "r2"));
+    assertThat(
+        new ActiveNodesSchedule(_nodes, _protocolNeighbors, ImmutableSet.of("r3")).next().keySet(),
+        containsInAnyOrder("r3"));
+  }
+
+  @Test
+  public void testNoDirtyNodes() {
+    IbdpSchedule schedule = new ActiveNodesSchedule(_nodes, _protocolNeighbors, ImmutableSet.of());
+    assertThat(schedule.next(), anEmptyMap());
+    assertFalse(schedule.hasNext());
+  }
+}
@@ -16,6 +16,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
 import org.batfish.datamodel.BgpTieBreaker;
 import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.ConfigurationFormat;
@@ -464,6 +466,40 @@ public class AbstractRibTest {
     assertThat(_rib.getTypedRoutes(), empty());
   }
 
+  @Test
+  public void testRouteCounters() {
+    Rib rib = new Rib();
+    StaticRoute.Builder srb =
+        StaticRoute.testBuilder().setNextHopInterface("iface").setMetric(0L).setTag(0L);
+    AnnotatedRoute<AbstractRoute> worse =
+        new AnnotatedRoute<>(
+            srb.setNetwork(Prefix.parse("10.0.0.0/8")).setAdministrativeCost(10).build(), "vrf");
+    AnnotatedRoute<AbstractRoute> better =
+        new AnnotatedRoute<>(
+            srb.setNetwork(Prefix.parse("10.0.0.0/8")).setAdministrativeCost(1).build(), "vrf");
+    AnnotatedRoute<AbstractRoute> other =
+        new AnnotatedRoute<>(
+            srb.setNetwork(Prefix.parse("10.0.0.0/9")).setAdministrativeCost(1).build(), "vrf");
+
+    rib.mergeRouteGetDelta(worse);
+    rib.mergeRouteGetDelta(other);
+    assertThat(rib.getNumRoutes(), equalTo(2));
+    assertThat(rib.getRoutesHashCode(), equalTo(rib.getTypedRoutes().hashCode()));
+
+    // Replaces the worse route
+    rib.mergeRouteGetDelta(better);
+    assertThat(rib.getNumRoutes(), equalTo(2));
+    assertThat(rib.getRoutesHashCode(), equalTo(rib.getTypedRoutes().hashCode()));
+
+    rib.removeRouteGetDelta(other);
+    assertThat(rib.getNumRoutes(), equalTo(1));
+    assertThat(rib.getRoutesHashCode(), equalTo(rib.getTypedRoutes().hashCode()));
+
+    rib.clear();
+    assertThat(rib.getNumRoutes(), equalTo(0));
+    assertThat(rib.getRoutesHashCode(), equalTo(0));
+  }
+
   @Test
   public void testBackupLogic() {
     // Use concrete BGP rib, BGP has easy preference knobs
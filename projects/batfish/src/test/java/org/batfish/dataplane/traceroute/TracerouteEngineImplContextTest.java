@@ -0,0 +1,152 @@
+package org.batfish.dataplane.traceroute;
+
+import static org.batfish.datamodel.FlowDisposition.DELIVERED_TO_SUBNET;
+import static org.batfish.datamodel.matchers.TraceMatchers.hasDisposition;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.batfish.common.traceroute.TraceDag;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FibEntry;
+import org.batfish.datamodel.FibForward;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.MockFib;
+import org.batfish.datamodel.MockForwardingAnalysis;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.VrfForwardingBehavior;
+import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link TracerouteEngineImplContext}. */
+public final class TracerouteEngineImplContextTest {
+
+  private static final Ip DST_IP = Ip.parse("1.1.1.1");
+
+  /** Counts lookups of forwarding behavior, i.e. how often per-hop decisions are computed. */
+  private static final class CountingForwardingAnalysis implements ForwardingAnalysis {
+    private final ForwardingAnalysis _delegate;
+    private final AtomicInteger _lookups = new AtomicInteger();
+
+    private CountingForwardingAnalysis(ForwardingAnalysis delegate) {
+      _delegate = delegate;
+    }
+
+    @Override
+    public Map<String, Map<String, IpSpace>> getArpReplies() {
+      return _delegate.getArpReplies();
+    }
+
+    @Override
+    public @Nonnull Map<String, Map<String, VrfForwardingBehavior>> getVrfForwardingBehavior() {
+      _lookups.incrementAndGet();
+      return _delegate.getVrfForwardingBehavior();
+    }
+  }
+
+  private Configuration _c;
+  private Map<String, Map<String, Fib>> _fibs;
+  private Flow.Builder _flowBuilder;
+  private Vrf _vrf;
+  private Interface _iface;
+
+  @Before
+  public void setup() {
+    NetworkFactory nf = new NetworkFactory();
+    _c = nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS).build();
+    _vrf = nf.vrfBuilder().setOwner(_c).build();
+    _iface = nf.interfaceBuilder().setOwner(_c).setVrf(_vrf).setName("eth0").build();
+    StaticRoute route =
+        StaticRoute.testBuilder()
+            .setAdmin(1)
+            .setNetwork(DST_IP.toPrefix())
+            .setNextHopInterface(_iface.getName())
+            .build();
+    Fib fib =
+        MockFib.builder()
+            .setFibEntries(
+                ImmutableMap.of(
+                    DST_IP,
+                    ImmutableSet.of(
+                        new FibEntry(
+                            FibForward.of(DST_IP, _iface.getName()), ImmutableList.of(route)))))
+            .build();
+    _fibs = ImmutableMap.of(_c.getHostname(), ImmutableMap.of(_vrf.getName(), fib));
+    _flowBuilder =
+        Flow.builder()
+            .setIngressNode(_c.getHostname())
+            .setIngressVrf(_vrf.getName())
+            .setIpProtocol(IpProtocol.TCP)
+            .setDstPort(22)
+            .setDstIp(DST_IP);
+  }
+
+  /** Traces {@code flows}, returning how often forwarding behavior was looked up. */
+  private int traceAndCountLookups(Set<Flow> flows, Map<Flow, TraceDag> traces) {
+    CountingForwardingAnalysis forwardingAnalysis =
+        new CountingForwardingAnalysis(
+            MockForwardingAnalysis.withDeliveredToSubnetIps(
+                _c.getHostname(), _vrf.getName(), _iface.getName(), DST_IP.toIpSpace()));
+    TracerouteEngineImplContext ctxt =
+        new TracerouteEngineImplContext(
+            MockDataPlane.builder().setForwardingAnalysis(forwardingAnalysis).build(),
+            Topology.EMPTY,
+            ImmutableSet.of(),
+            flows,
+            _fibs,
+            false,
+            ImmutableMap.of(_c.getHostname(), _c));
+    traces.putAll(ctxt.buildTraceDags());
+    return forwardingAnalysis._lookups.get();
+  }
+
+  private static List<Trace> traces(TraceDag dag) {
+    return dag.getTraces()
+        .map(TraceAndReverseFlow::getTrace)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  @Test
+  public void testFlowsToSameDstIpShareDecisions() {
+    Flow flow1 = _flowBuilder.setSrcPort(1000).build();
+    Flow flow2 = _flowBuilder.setSrcPort(2000).build();
+
+    Map<Flow, TraceDag> oneFlowTraces = new HashMap<>();
+    int oneFlowLookups = traceAndCountLookups(ImmutableSet.of(flow1), oneFlowTraces);
+    Map<Flow, TraceDag> twoFlowTraces = new HashMap<>();
+    int twoFlowLookups = traceAndCountLookups(ImmutableSet.of(flow1, flow2), twoFlowTraces);
+
+    assertThat(oneFlowLookups, greaterThan(0));
+    // The second flow reuses the accepting-interface and disposition decisions of the first.
+    assertThat(twoFlowLookups, equalTo(oneFlowLookups));
+
+    // Both flows get the same traces as the first flow does on its own.
+    List<Trace> expected = traces(oneFlowTraces.get(flow1));
+    assertThat(expected, contains(hasDisposition(DELIVERED_TO_SUBNET)));
+    assertThat(traces(twoFlowTraces.get(flow1)), equalTo(expected));
+    assertThat(traces(twoFlowTraces.get(flow2)), equalTo(expected));
+  }
+}
@@ -103,6 +103,7 @@ import org.batfish.datamodel.TcpFlagsMatchConditions;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.acl.AclLineMatchExprs;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.acl.MatchSrcInterface;
 import org.batfish.datamodel.acl.OriginatingFromDevice;
 import org.batfish.datamodel.collections.NodeInterfacePair;
@@ -558,7 +559,7 @@ public class TracerouteEngineImplTest {
         TracerouteUtils.createFilterStep(
             flow,
             iface1,
-            filter,
+            CompiledIpAccessList.compile(filter, ImmutableMap.of()),
             FilterType.INGRESS_FILTER,
             ImmutableMap.of(filterName, filter),
             ImmutableMap.of(),
@@ -573,7 +574,7 @@ public class TracerouteEngineImplTest {
         TracerouteUtils.createFilterStep(
             flow,
             iface2,
-            filter,
+            CompiledIpAccessList.compile(filter, ImmutableMap.of()),
             FilterType.INGRESS_FILTER,
             ImmutableMap.of(filterName, filter),
             ImmutableMap.of(),
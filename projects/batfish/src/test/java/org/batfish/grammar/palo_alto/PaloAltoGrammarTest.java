@@ -225,6 +225,7 @@ import org.batfish.datamodel.route.nh.NextHopVrf;
 import org.batfish.datamodel.routing_policy.Environment.Direction;
 import org.batfish.datamodel.routing_policy.RoutingPolicy;
 import org.batfish.datamodel.trace.TraceTree;
+import org.batfish.grammar.ParseTreePrettyPrinter;
 import org.batfish.grammar.flattener.Flattener;
 import org.batfish.grammar.flattener.FlattenerLineMap;
 import org.batfish.grammar.silent_syntax.SilentSyntaxCollection;
@@ -1313,6 +1314,26 @@ public final class PaloAltoGrammarTest {
     parseConfig("ignored-lines");
   }
 
+  @Test
+  public void testParallelParseMatchesSequentialParse() {
+    String src = readResource(TESTCONFIGS_PREFIX + "ignored-lines", UTF_8);
+    Settings settings = new Settings();
+    configureBatfishTestSettings(settings);
+    // lines are only parsed in parallel with recovery
+    settings.setDisableUnrecognized(false);
+    BatfishLogger logger = new BatfishLogger(BatfishLogger.LEVELSTR_FATAL, false);
+    PaloAltoCombinedParser sequentialParser = new PaloAltoCombinedParser(src, settings, null);
+    PaloAltoCombinedParser parallelParser = new PaloAltoCombinedParser(src, settings, null);
+    parallelParser.setMinParallelChunkChars(1);
+
+    ParserRuleContext sequentialTree = Batfish.parse(sequentialParser, logger, settings);
+    ParserRuleContext parallelTree = Batfish.parse(parallelParser, logger, settings);
+
+    assertThat(
+        ParseTreePrettyPrinter.print(parallelTree, parallelParser, true),
+        equalTo(ParseTreePrettyPrinter.print(sequentialTree, sequentialParser, true)));
+  }
+
   @Test
   public void testIkeCryptoProfiles() {
     PaloAltoConfiguration c = parsePaloAltoConfig("ike-crypto-profiles");
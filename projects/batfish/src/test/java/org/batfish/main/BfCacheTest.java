@@ -0,0 +1,239 @@
+package org.batfish.main;
+
+import static org.batfish.datamodel.ConfigurationFormat.CISCO_IOS;
+import static org.batfish.main.BfCache.buildDataPlaneCache;
+import static org.batfish.main.BfCache.buildTestrigCache;
+import static org.batfish.main.BfCache.estimateSize;
+import static org.batfish.main.BfCache.reserveDataPlane;
+import static org.batfish.main.BfCache.toWeight;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableTable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SortedMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.MockFib;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.Vrf;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.storage.FileBasedStorage;
+import org.batfish.storage.StoredDataPlane;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link BfCache}. */
+public final class BfCacheTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static Prefix prefix(int i) {
+    return Prefix.create(Ip.create((long) i << 8), 24);
+  }
+
+  /** A data plane with one VRF containing {@code numRoutes} main RIB routes. */
+  private static DataPlane dataPlane(int numRoutes) {
+    return MockDataPlane.builder()
+        .setRibs(
+            ImmutableTable.of(
+                "n",
+                "v",
+                FinalMainRib.of(
+                    IntStream.range(0, numRoutes)
+                        .mapToObj(i -> StaticRoute.testBuilder().setNetwork(prefix(i)).build()))))
+        .build();
+  }
+
+  private static NetworkSnapshot snapshot(String name) {
+    return new NetworkSnapshot(new NetworkId("network"), new SnapshotId(name));
+  }
+
+  @Test
+  public void testEstimateSizeDataPlane() {
+    assertThat(estimateSize(MockDataPlane.builder().build()), equalTo(0L));
+    assertThat(estimateSize(dataPlane(0)), equalTo(4_096L));
+    // each main RIB route also stands for a forwarding entry
+    assertThat(estimateSize(dataPlane(10)), equalTo(4_096L + 10 * (400L + 256L)));
+
+    // BGP routes are counted in addition to the main RIB
+    DataPlane withBgp =
+        MockDataPlane.builder()
+            .setBgpRoutes(
+                ImmutableTable.of(
+                    "n",
+                    "v",
+                    ImmutableSet.of(
+                        Bgpv4Route.testBuilder().setNetwork(prefix(1)).build(),
+                        Bgpv4Route.testBuilder().setNetwork(prefix(2)).build())))
+            .build();
+    assertThat(estimateSize(withBgp), equalTo(2 * 400L));
+  }
+
+  @Test
+  public void testEstimateSizeConfigurations() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder().setHostname("c").setConfigurationFormat(CISCO_IOS).build();
+    assertThat(estimateSize(ImmutableMap.of("c", c)), equalTo(16_384L));
+
+    Vrf vrf = nf.vrfBuilder().setOwner(c).build();
+    nf.interfaceBuilder().setOwner(c).setVrf(vrf).build();
+    nf.interfaceBuilder().setOwner(c).setVrf(vrf).build();
+    nf.aclBuilder().setOwner(c).setLines(ExprAclLine.ACCEPT_ALL, ExprAclLine.REJECT_ALL).build();
+    assertThat(estimateSize(ImmutableMap.of("c", c)), equalTo(16_384L + 2 * 2_048L + 2 * 512L));
+
+    nf.routingPolicyBuilder().setOwner(c).build();
+    BgpProcess bgp = BgpProcess.testBgpProcess(Ip.ZERO);
+    vrf.setBgpProcess(bgp);
+    nf.bgpNeighborBuilder().setPeerAddress(Ip.parse("10.0.0.1")).setBgpProcess(bgp).build();
+    nf.bgpNeighborBuilder().setPeerAddress(Ip.parse("10.0.0.2")).setBgpProcess(bgp).build();
+    assertThat(
+        estimateSize(ImmutableMap.of("c", c)),
+        equalTo(16_384L + 2 * 2_048L + 2 * 512L + 4_096L + 2 * 2_048L));
+  }
+
+  @Test
+  public void testToWeight() {
+    // every entry weighs at least 1, so that empty entries are still bounded by the budget
+    assertThat(toWeight(0), equalTo(1));
+    assertThat(toWeight(1_023), equalTo(1));
+    assertThat(toWeight(10 << 10), equalTo(10));
+    assertThat(toWeight(Long.MAX_VALUE), equalTo(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testDataPlaneCacheEvictsOverBudget() {
+    // each data plane weighs (4096 + 1000 * 656) >> 10 == 644 KiB
+    DataPlane dp = dataPlane(1_000);
+    assertThat(toWeight(estimateSize(dp)), equalTo(644));
+    Cache<NetworkSnapshot, DataPlane> cache = buildDataPlaneCache(1_500);
+
+    cache.put(snapshot("s1"), dp);
+    cache.put(snapshot("s2"), dp);
+    assertThat(cache.getIfPresent(snapshot("s1")), notNullValue());
+    assertThat(cache.getIfPresent(snapshot("s2")), notNullValue());
+    assertThat(cache.stats().evictionCount(), equalTo(0L));
+
+    // a third does not fit, so the least recently used is evicted
+    cache.put(snapshot("s3"), dp);
+    assertThat(cache.getIfPresent(snapshot("s1")), nullValue());
+    assertThat(cache.getIfPresent(snapshot("s2")), notNullValue());
+    assertThat(cache.getIfPresent(snapshot("s3")), notNullValue());
+    assertThat(cache.stats().evictionCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testDataPlaneCacheKeepsNewestEntryOverBudget() {
+    // 1316 KiB, over the budget: kept until the next insertion, since it is in use anyway
+    Cache<NetworkSnapshot, DataPlane> cache = buildDataPlaneCache(1_000);
+    cache.put(snapshot("s1"), dataPlane(2_000));
+    assertThat(cache.getIfPresent(snapshot("s1")), notNullValue());
+
+    cache.put(snapshot("s2"), dataPlane(0));
+    assertThat(cache.getIfPresent(snapshot("s1")), nullValue());
+    assertThat(cache.getIfPresent(snapshot("s2")), notNullValue());
+  }
+
+  /** Test that the placeholder used to reserve room for a new data plane can be weighed. */
+  @Test
+  public void testReserveDataPlane() {
+    DataPlane dp = dataPlane(1_000);
+    Cache<NetworkSnapshot, DataPlane> cache = buildDataPlaneCache(1_500);
+    cache.put(snapshot("s1"), dp);
+    cache.put(snapshot("s2"), dp);
+
+    // the reservation weighs half the budget, so only one of the 644 KiB data planes stays
+    reserveDataPlane(cache);
+    assertThat(cache.size(), equalTo(1L));
+    assertThat(cache.getIfPresent(snapshot("s1")), nullValue());
+    assertThat(cache.getIfPresent(snapshot("s2")), notNullValue());
+    assertThat(cache.stats().evictionCount(), equalTo(1L));
+
+    // there is room for another data plane now
+    cache.put(snapshot("s3"), dp);
+    assertThat(cache.size(), equalTo(2L));
+    assertThat(cache.stats().evictionCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testTestrigCacheEvictsOverBudget() {
+    NetworkFactory nf = new NetworkFactory();
+    // each testrig weighs 16 KiB
+    Configuration c =
+        nf.configurationBuilder().setHostname("c").setConfigurationFormat(CISCO_IOS).build();
+    SortedMap<String, Configuration> testrig = ImmutableSortedMap.of("c", c);
+    Cache<NetworkSnapshot, SortedMap<String, Configuration>> cache = buildTestrigCache(40);
+
+    cache.put(snapshot("s1"), testrig);
+    cache.put(snapshot("s2"), testrig);
+    cache.put(snapshot("s3"), testrig);
+    assertThat(cache.size(), equalTo(2L));
+    assertThat(cache.getIfPresent(snapshot("s1")), nullValue());
+  }
+
+  /** Test that caching a data plane loaded from storage does not load any of its components. */
+  @Test
+  public void testCachingStoredDataPlaneDoesNotLoadIt() throws IOException {
+    Path baseDir = _folder.newFolder("storage").toPath();
+    FileBasedStorage storage =
+        new FileBasedStorage(baseDir, new BatfishLogger(BatfishLogger.LEVELSTR_DEBUG, false));
+    NetworkSnapshot snapshot = snapshot("s1");
+    storage.storeDataPlane(
+        MockDataPlane.builder()
+            .setFibs(ImmutableMap.of("n", ImmutableMap.of("v", MockFib.builder().build())))
+            .setPrefixTracingInfoSummary(ImmutableSortedMap.of("n", ImmutableSortedMap.of()))
+            .setRibs(dataPlane(100).getRibs())
+            .build(),
+        snapshot);
+    DataPlane dp = storage.loadDataPlane(snapshot);
+    assertThat(dp, instanceOf(StoredDataPlane.class));
+    long storedSize = ((StoredDataPlane) dp).getStoredSizeBytes();
+    assertThat(storedSize, greaterThan(0L));
+
+    // Remove the stored data plane: loading any component from now on fails.
+    try (Stream<Path> paths = Files.walk(baseDir)) {
+      for (Path path : (Iterable<Path>) paths::iterator) {
+        if (Files.isRegularFile(path)) {
+          Files.delete(path);
+        }
+      }
+    }
+    Cache<NetworkSnapshot, DataPlane> cache = buildDataPlaneCache(1 << 20);
+    cache.put(snapshot, dp);
+    assertThat(cache.getIfPresent(snapshot), equalTo(dp));
+    assertThat(estimateSize(dp), equalTo(storedSize * 10));
+
+    // The RIBs were not loaded by the weigher, so they are gone.
+    _thrown.expect(BatfishException.class);
+    dp.getRibs();
+  }
+}
@@ -0,0 +1,153 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.cache.Weigher;
+import com.google.common.testing.FakeTicker;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link CostAwareCache}. */
+public final class CostAwareCacheTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  /** Weighs each value by its length. */
+  private static final Weigher<String, String> LENGTH = (key, value) -> value.length();
+
+  private final FakeTicker _ticker = new FakeTicker();
+
+  /** Loads {@code key} into the cache as its value, taking {@code millis}. */
+  private String load(CostAwareCache<String, String> cache, String key, long millis)
+      throws ExecutionException {
+    return cache.get(
+        key,
+        () -> {
+          _ticker.advance(millis, TimeUnit.MILLISECONDS);
+          return key;
+        });
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedAtEqualCost() {
+    CostAwareCache<String, String> cache = new CostAwareCache<>(2, LENGTH, _ticker);
+    cache.put("a", "a");
+    cache.put("b", "b");
+    cache.getIfPresent("a");
+    cache.put("c", "c");
+
+    assertThat(cache.getIfPresent("b"), nullValue());
+    assertThat(cache.getIfPresent("a"), equalTo("a"));
+    assertThat(cache.getIfPresent("c"), equalTo("c"));
+    assertThat(cache.totalWeight(), equalTo(2L));
+    assertThat(cache.stats().evictionCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testEvictsCheapestPerWeight() throws ExecutionException {
+    CostAwareCache<String, String> cache = new CostAwareCache<>(3, LENGTH, _ticker);
+    load(cache, "a", 100);
+    load(cache, "b", 1);
+    load(cache, "c", 1);
+    load(cache, "d", 1);
+
+    // a is the least recently used, but by far the most expensive to load again
+    assertThat(cache.getIfPresent("a"), equalTo("a"));
+    assertThat(cache.getIfPresent("b"), nullValue());
+    assertThat(cache.stats().evictionCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testEvictsCheapestPerWeightAccountingForWeight() throws ExecutionException {
+    CostAwareCache<String, String> cache = new CostAwareCache<>(5, LENGTH, _ticker);
+    // 25ms per unit of weight
+    load(cache, "aaaa", 100);
+    // 50ms per unit of weight
+    load(cache, "b", 50);
+    load(cache, "c", 50);
+
+    assertThat(cache.getIfPresent("aaaa"), nullValue());
+    assertThat(cache.getIfPresent("b"), equalTo("b"));
+    assertThat(cache.getIfPresent("c"), equalTo("c"));
+  }
+
+  @Test
+  public void testExpensiveEntryAgesOut() throws ExecutionException {
+    CostAwareCache<String, String> cache = new CostAwareCache<>(2, LENGTH, _ticker);
+    load(cache, "a", 3);
+    // each eviction raises the priority of later entries by that of the evicted entry
+    for (int i = 0; i < 6; i++) {
+      load(cache, "x" + i, 1);
+    }
+    assertThat(cache.getIfPresent("a"), nullValue());
+  }
+
+  @Test
+  public void testPutIsChargedAverageLoadCost() throws ExecutionException {
+    CostAwareCache<String, String> cache = new CostAwareCache<>(3, LENGTH, _ticker);
+    load(cache, "a", 10);
+    load(cache, "b", 30);
+    // charged the average of 20ms per unit of weight, more than a
+    cache.put("c", "c");
+    cache.put("d", "d");
+
+    assertThat(cache.getIfPresent("a"), nullValue());
+    assertThat(cache.getIfPresent("b"), equalTo("b"));
+    assertThat(cache.getIfPresent("c"), equalTo("c"));
+  }
+
+  @Test
+  public void testGetLoadsOnce() throws ExecutionException {
+    CostAwareCache<String, String> cache = new CostAwareCache<>(10, LENGTH, _ticker);
+    AtomicInteger loads = new AtomicInteger();
+    for (int i = 0; i < 2; i++) {
+      assertThat(
+          cache.get(
+              "a",
+              () -> {
+                loads.incrementAndGet();
+                return "a";
+              }),
+          equalTo("a"));
+    }
+    assertThat(loads.get(), equalTo(1));
+    assertThat(cache.stats().hitCount(), equalTo(1L));
+    assertThat(cache.stats().missCount(), equalTo(1L));
+    assertThat(cache.stats().loadSuccessCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testGetLoadFailure() throws ExecutionException {
+    CostAwareCache<String, String> cache = new CostAwareCache<>(10, LENGTH, _ticker);
+    _thrown.expect(UncheckedExecutionException.class);
+    try {
+      cache.get(
+          "a",
+          () -> {
+            throw new IllegalStateException();
+          });
+    } finally {
+      assertThat(cache.size(), equalTo(0L));
+      assertThat(cache.stats().loadExceptionCount(), equalTo(1L));
+    }
+  }
+
+  @Test
+  public void testInvalidateIsNotEviction() {
+    CostAwareCache<String, String> cache = new CostAwareCache<>(10, LENGTH, _ticker);
+    cache.put("a", "aaa");
+    cache.put("a", "aaaa");
+    assertThat(cache.totalWeight(), equalTo(4L));
+    cache.invalidate("a");
+    assertThat(cache.size(), equalTo(0L));
+    assertThat(cache.totalWeight(), equalTo(0L));
+    assertThat(cache.stats().evictionCount(), equalTo(0L));
+  }
+}
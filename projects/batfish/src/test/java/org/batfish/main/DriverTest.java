@@ -0,0 +1,42 @@
+package org.batfish.main;
+
+import static org.batfish.main.Driver.interruptAndJoin;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+/** Tests of {@link Driver}. */
+public final class DriverTest {
+
+  @Test
+  public void testInterruptAndJoin() {
+    CountDownLatch never = new CountDownLatch(1);
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                never.await();
+              } catch (InterruptedException e) {
+                // stop
+              }
+            });
+    thread.start();
+    assertTrue(interruptAndJoin(thread, 10_000));
+  }
+
+  @Test
+  public void testInterruptAndJoinGivesUp() {
+    CountDownLatch release = new CountDownLatch(1);
+    Thread thread = new Thread(() -> Uninterruptibles.awaitUninterruptibly(release));
+    thread.start();
+    try {
+      // the thread ignores interruption, so it is still running when the wait times out
+      assertFalse(interruptAndJoin(thread, 10));
+    } finally {
+      release.countDown();
+    }
+  }
+}
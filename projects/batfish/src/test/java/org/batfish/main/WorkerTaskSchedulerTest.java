@@ -0,0 +1,102 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.batfish.main.WorkerTaskScheduler.TaskType;
+import org.junit.Test;
+
+/** Tests of {@link WorkerTaskScheduler}. */
+public final class WorkerTaskSchedulerTest {
+
+  @Test
+  public void testAdmissionByHeapEstimate() {
+    WorkerTaskScheduler scheduler = new WorkerTaskScheduler(10, () -> {});
+    assertTrue(scheduler.tryReserve("dp1", TaskType.DATAPLANE));
+    // a second heavy task would not fit in the heap
+    assertFalse(scheduler.tryReserve("dp2", TaskType.DATAPLANE));
+    assertFalse(scheduler.tryReserve("parse", TaskType.PARSE));
+    // but cheap questions still do
+    assertTrue(scheduler.tryReserve("q1", TaskType.QUESTION));
+    assertTrue(scheduler.tryReserve("q2", TaskType.QUESTION));
+    assertThat(scheduler.getNumRunningTasks(), equalTo(3));
+
+    scheduler.release("dp1");
+    assertTrue(scheduler.tryReserve("dp2", TaskType.DATAPLANE));
+  }
+
+  @Test
+  public void testAdmissionByConcurrency() {
+    WorkerTaskScheduler scheduler = new WorkerTaskScheduler(2, () -> {});
+    assertTrue(scheduler.tryReserve("q1", TaskType.QUESTION));
+    assertTrue(scheduler.tryReserve("q2", TaskType.QUESTION));
+    assertFalse(scheduler.tryReserve("q3", TaskType.QUESTION));
+  }
+
+  @Test
+  public void testAdmissionAlwaysWhenIdle() {
+    WorkerTaskScheduler scheduler = new WorkerTaskScheduler(1, () -> {});
+    assertTrue(scheduler.tryReserve("q1", TaskType.QUESTION));
+    // duplicate task IDs are rejected
+    assertFalse(scheduler.tryReserve("q1", TaskType.QUESTION));
+    scheduler.release("q1");
+    assertTrue(scheduler.tryReserve("q1", TaskType.QUESTION));
+  }
+
+  @Test
+  public void testRunReleasesReservationBeforeTerminationCallback() throws InterruptedException {
+    CountDownLatch terminated = new CountDownLatch(1);
+    int[] runningAtTermination = new int[] {-1};
+    WorkerTaskScheduler[] scheduler = new WorkerTaskScheduler[1];
+    scheduler[0] =
+        new WorkerTaskScheduler(
+            1,
+            () -> {
+              runningAtTermination[0] = scheduler[0].getNumRunningTasks();
+              terminated.countDown();
+            });
+    assertTrue(scheduler[0].tryReserve("q1", TaskType.QUESTION));
+    scheduler[0].run("q1", () -> {});
+    assertTrue(terminated.await(10, TimeUnit.SECONDS));
+    // capacity is released by the time clients are told the task terminated
+    assertThat(runningAtTermination[0], equalTo(0));
+  }
+
+  @Test
+  public void testCancel() throws InterruptedException {
+    WorkerTaskScheduler scheduler = new WorkerTaskScheduler(1, () -> {});
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    boolean[] cancelledWhileRunning = new boolean[1];
+    assertFalse(scheduler.cancel("dp1"));
+    assertTrue(scheduler.tryReserve("dp1", TaskType.DATAPLANE));
+    scheduler.run(
+        "dp1",
+        () -> {
+          started.countDown();
+          try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+          } catch (InterruptedException e) {
+            cancelledWhileRunning[0] = scheduler.isCancelled("dp1");
+            interrupted.countDown();
+          }
+        });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertTrue(scheduler.cancel("dp1"));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertTrue(cancelledWhileRunning[0]);
+    waitUntilIdle(scheduler);
+  }
+
+  private static void waitUntilIdle(WorkerTaskScheduler scheduler) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (scheduler.getNumRunningTasks() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(scheduler.getNumRunningTasks(), equalTo(0));
+  }
+}
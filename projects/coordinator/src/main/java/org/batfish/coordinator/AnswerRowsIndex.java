@@ -0,0 +1,343 @@
+package org.batfish.coordinator;
+
+import static java.util.Comparator.nullsFirst;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.datamodel.table.TableView;
+import org.batfish.datamodel.table.TableViewRow;
+
+/**
+ * Serves filtered, sorted, and paged views of the rows of a single {@link TableAnswerElement}
+ * without re-processing the whole table for every page.
+ *
+ * <p>Indexes are built lazily, per column, the first time a column is filtered or sorted on:
+ *
+ * <ul>
+ *   <li>For filtering, the text of each cell is dictionary-encoded, so that each {@link
+ *       ColumnFilter} is matched once per distinct value rather than once per row.
+ *   <li>For sorting, each row is assigned its rank in the column's sort order, so that multi-column
+ *       sorts compare integers rather than deserialized cell values.
+ * </ul>
+ *
+ * <p>The ordered row IDs for recently requested filters and sort orders are memoized, so paging
+ * through a view only materializes the rows of the requested page.
+ *
+ * <p>Since indexes and views are built after the answer is indexed, the index keeps track of their
+ * estimated size, see {@link #getIndexBytes()}.
+ */
+@ParametersAreNonnullByDefault
+final class AnswerRowsIndex {
+
+  /** Maximum number of distinct filter and sort combinations to memoize per answer. */
+  private static final int MAX_CACHED_VIEWS = 16;
+
+  /** The distinct cell texts of a column, and the index of each row's text among them. */
+  private static final class ColumnDictionary {
+    private final int[] _codes;
+    private final List<String> _values;
+
+    private ColumnDictionary(int[] codes, List<String> values) {
+      _codes = codes;
+      _values = values;
+    }
+  }
+
+  /** The IDs of the rows of a view, in order, and the number of rows matching its filters. */
+  private static final class View {
+    private final int[] _rowIds;
+    private final int _numResults;
+
+    private View(int[] rowIds, int numResults) {
+      _rowIds = rowIds;
+      _numResults = numResults;
+    }
+  }
+
+  /**
+   * @param table The answer to index. Its rows must not be modified afterwards.
+   * @param schemaComparators Provides the order of cell values for sorting by a column of a given
+   *     schema
+   */
+  AnswerRowsIndex(TableAnswerElement table, Function<Schema, Comparator<?>> schemaComparators) {
+    _rows = table.getRowsList();
+    _metadata = table.getMetadata();
+    _columnMap = _metadata.toColumnMap();
+    _summary = table.getSummary();
+    _warnings = table.getWarnings();
+    _schemaComparators = schemaComparators;
+    _dictionaries = new ConcurrentHashMap<>();
+    _sortRanks = new ConcurrentHashMap<>();
+    _indexBytes = new AtomicLong();
+    _views =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_VIEWS)
+            .removalListener(
+                (RemovalNotification<AnswerRowsOptions, View> notification) ->
+                    _indexBytes.addAndGet(-intArrayBytes(notification.getValue()._rowIds.length)))
+            .build(CacheLoader.from(this::view));
+  }
+
+  /**
+   * Returns the estimated heap size in bytes of the column indexes and memoized views built so far,
+   * excluding the rows of the answer themselves.
+   */
+  long getIndexBytes() {
+    return _indexBytes.get();
+  }
+
+  private static long intArrayBytes(int length) {
+    return (long) length * Integer.BYTES;
+  }
+
+  /**
+   * Returns the view of the indexed answer selected by {@code options}.
+   *
+   * @throws IllegalArgumentException if {@code options} projects to a column not in the answer
+   */
+  @Nonnull
+  TableView getTableView(AnswerRowsOptions options) {
+    for (String c : options.getColumns()) {
+      if (!_columnMap.containsKey(c)) {
+        Collection<String> sortedColumnNames = new TreeSet<>(_columnMap.keySet());
+        throw new IllegalArgumentException(
+            String.format("Column %s is not in the answer: %s", c, sortedColumnNames));
+      }
+    }
+    View view = _views.getUnchecked(viewKey(options));
+
+    // offset and truncate
+    int start = Math.min(options.getRowOffset(), view._rowIds.length);
+    int end = (int) Math.min((long) start + options.getMaxRows(), view._rowIds.length);
+    ImmutableList.Builder<TableViewRow> rows = ImmutableList.builder();
+    for (int i = start; i < end; i++) {
+      int rowId = view._rowIds[i];
+      rows.add(new TableViewRow(rowId, project(_rows.get(rowId), options.getColumns())));
+    }
+
+    TableView tableView = new TableView(options, rows.build(), tableMetadata(options), _warnings);
+    // copy the summary, since the indexed answer is shared by all views
+    AnswerSummary summary =
+        _summary != null
+            ? new AnswerSummary(
+                _summary.getNotes(), _summary.getNumFailed(), _summary.getNumPassed(), 0)
+            : new AnswerSummary();
+    summary.setNumResults(view._numResults);
+    tableView.setSummary(summary);
+    return tableView;
+  }
+
+  /**
+   * The options that determine the ordered row IDs of a view. Offset and limit only select a page
+   * of the view, and projected columns only matter if rows are uniquified.
+   */
+  private static @Nonnull AnswerRowsOptions viewKey(AnswerRowsOptions options) {
+    return new AnswerRowsOptions(
+        options.getUniqueRows() ? options.getColumns() : ImmutableSet.of(),
+        options.getFilters(),
+        Integer.MAX_VALUE,
+        0,
+        options.getSortOrder(),
+        options.getUniqueRows());
+  }
+
+  private @Nonnull View view(AnswerRowsOptions key) {
+    int[] rowIds = filter(key.getFilters());
+    int numResults = rowIds.length;
+    if (!key.getSortOrder().isEmpty()) {
+      rowIds = sort(rowIds, key.getSortOrder());
+    }
+    if (key.getUniqueRows()) {
+      rowIds = uniquify(rowIds, key.getColumns());
+    }
+    _indexBytes.addAndGet(intArrayBytes(rowIds.length));
+    return new View(rowIds, numResults);
+  }
+
+  private @Nonnull int[] filter(List<ColumnFilter> filters) {
+    if (filters.isEmpty()) {
+      return IntStream.range(0, _rows.size()).toArray();
+    }
+    int[][] codes = new int[filters.size()][];
+    BitSet[] matchingCodes = new BitSet[filters.size()];
+    for (int f = 0; f < filters.size(); f++) {
+      ColumnFilter filter = filters.get(f);
+      ColumnDictionary dictionary = _dictionaries.computeIfAbsent(filter.getColumn(), this::encode);
+      codes[f] = dictionary._codes;
+      matchingCodes[f] = new BitSet(dictionary._values.size());
+      for (int code = 0; code < dictionary._values.size(); code++) {
+        if (filter.matchesText(dictionary._values.get(code))) {
+          matchingCodes[f].set(code);
+        }
+      }
+    }
+    return IntStream.range(0, _rows.size())
+        .filter(
+            rowId -> {
+              for (int f = 0; f < codes.length; f++) {
+                if (!matchingCodes[f].get(codes[f][rowId])) {
+                  return false;
+                }
+              }
+              return true;
+            })
+        .toArray();
+  }
+
+  /** Sorts the given row IDs by the given sort order. Ties are kept in row ID order. */
+  private @Nonnull int[] sort(int[] rowIds, List<ColumnSortOption> sortOrder) {
+    int[][] ranks = new int[sortOrder.size()][];
+    boolean[] reversed = new boolean[sortOrder.size()];
+    for (int s = 0; s < sortOrder.size(); s++) {
+      ranks[s] = _sortRanks.computeIfAbsent(sortOrder.get(s).getColumn(), this::rank);
+      reversed[s] = sortOrder.get(s).getReversed();
+    }
+    return Arrays.stream(rowIds)
+        .boxed()
+        .sorted(
+            (a, b) -> {
+              for (int s = 0; s < ranks.length; s++) {
+                int cmp = Integer.compare(ranks[s][a], ranks[s][b]);
+                if (cmp != 0) {
+                  return reversed[s] ? -cmp : cmp;
+                }
+              }
+              return 0;
+            })
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  /** Keeps the first of the given rows with each distinct projection onto the given columns. */
+  private @Nonnull int[] uniquify(int[] rowIds, Set<String> columns) {
+    Set<Row> seen = new HashSet<>();
+    return Arrays.stream(rowIds)
+        .filter(rowId -> seen.add(project(_rows.get(rowId), columns)))
+        .toArray();
+  }
+
+  private @Nonnull ColumnDictionary encode(String column) {
+    int[] codes = new int[_rows.size()];
+    Map<String, Integer> codeByValue = new HashMap<>();
+    List<String> values = new ArrayList<>();
+    for (int rowId = 0; rowId < _rows.size(); rowId++) {
+      String text = _rows.get(rowId).get(column).toString();
+      codes[rowId] =
+          codeByValue.computeIfAbsent(
+              text,
+              t -> {
+                values.add(t);
+                return values.size() - 1;
+              });
+    }
+    _indexBytes.addAndGet(
+        intArrayBytes(codes.length)
+            + values.stream().mapToLong(v -> (long) v.length() * Character.BYTES).sum());
+    return new ColumnDictionary(codes, ImmutableList.copyOf(values));
+  }
+
+  /** Returns the rank of each row in the ascending order of the given column. Equal cells tie. */
+  @SuppressWarnings("unchecked")
+  private @Nonnull int[] rank(String column) {
+    Schema schema = _columnMap.get(column).getSchema();
+    Comparator<Object> comparator =
+        nullsFirst((Comparator<Object>) _schemaComparators.apply(schema));
+    Object[] values = new Object[_rows.size()];
+    for (int rowId = 0; rowId < _rows.size(); rowId++) {
+      values[rowId] = _rows.get(rowId).get(column, schema);
+    }
+    int[] order =
+        IntStream.range(0, values.length)
+            .boxed()
+            .sorted((a, b) -> comparator.compare(values[a], values[b]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    int[] ranks = new int[values.length];
+    int rank = 0;
+    for (int i = 0; i < order.length; i++) {
+      if (i > 0 && comparator.compare(values[order[i - 1]], values[order[i]]) != 0) {
+        rank++;
+      }
+      ranks[order[i]] = rank;
+    }
+    _indexBytes.addAndGet(intArrayBytes(ranks.length));
+    return ranks;
+  }
+
+  private static @Nonnull Row project(Row row, Set<String> columns) {
+    return columns.isEmpty() ? row : Row.builder().putAll(row, columns).build();
+  }
+
+  private @Nonnull TableMetadata tableMetadata(AnswerRowsOptions options) {
+    if (options.getColumns().isEmpty()) {
+      return _metadata;
+    }
+    // TableMetadata requires at least one key. For simplicity, make them all keys.
+    Map<String, ColumnMetadata> columnMap =
+        options.getColumns().stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    Function.identity(),
+                    col -> {
+                      ColumnMetadata colMetadata = _columnMap.get(col);
+                      return new ColumnMetadata(
+                          colMetadata.getName(),
+                          colMetadata.getSchema(),
+                          colMetadata.getDescription(),
+                          true, // isKey
+                          false // isValue
+                          );
+                    }));
+    return new TableMetadata(
+        ImmutableList.copyOf(columnMap.values()), _metadata.getTextDesc());
+  }
+
+  @VisibleForTesting
+  int getNumCachedViews() {
+    return (int) _views.size();
+  }
+
+  private final @Nonnull Map<String, ColumnMetadata> _columnMap;
+  private final @Nonnull Map<String, ColumnDictionary> _dictionaries;
+  private final @Nonnull AtomicLong _indexBytes;
+  private final @Nonnull TableMetadata _metadata;
+  private final @Nonnull List<Row> _rows;
+  private final @Nonnull Function<Schema, Comparator<?>> _schemaComparators;
+  private final @Nonnull Map<String, int[]> _sortRanks;
+  private final @Nullable AnswerSummary _summary;
+  private final @Nonnull LoadingCache<AnswerRowsOptions, View> _views;
+  private final @Nonnull List<String> _warnings;
+}
@@ -42,6 +42,16 @@ public class BatfishWorkerServiceWorkExecutor implements WorkExecutor {
     }
   }
 
+  @Override
+  public void addTaskTerminationListener(Runnable listener) {
+    _batfishWorkerService.addTaskTerminationListener(listener);
+  }
+
+  @Override
+  public boolean kill(QueuedWork work) {
+    return _batfishWorkerService.killTask(work.getId().toString());
+  }
+
   @VisibleForTesting
   @Nonnull
   SubmissionResult doSubmit(QueuedWork work) {
@@ -25,7 +25,7 @@ public class QueuedWork {
   WorkDetails _details;
 
   Task _lastTaskCheckResult;
-  WorkStatusCode _status;
+  volatile WorkStatusCode _status;
   WorkItem _workItem;
 
   public QueuedWork(WorkItem workItem, WorkDetails details) {
@@ -0,0 +1,105 @@
+package org.batfish.coordinator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs dispatch cycles of the {@link WorkMgr} on a single dedicated thread.
+ *
+ * <p>A cycle runs as soon as possible after {@link #wake()} is called, e.g., when work is queued or
+ * when a worker reports that a task terminated. Wakeups that arrive while a cycle is running are
+ * coalesced into a single follow-up cycle. If no wakeup arrives, a cycle still runs once per
+ * period, so that the status of assigned work is polled from workers that do not report
+ * termination.
+ */
+@ParametersAreNonnullByDefault
+final class WorkDispatcher {
+  private static final Logger LOGGER = LogManager.getLogger(WorkDispatcher.class);
+
+  WorkDispatcher(Runnable cycle, long periodMs) {
+    checkArgument(periodMs > 0, "Dispatch period must be positive");
+    _cycle = cycle;
+    _periodMs = periodMs;
+  }
+
+  /** Starts running dispatch cycles in the background. */
+  synchronized void start() {
+    checkState(_thread == null, "Dispatcher already started");
+    _thread = new Thread(this::runCycles, "work-dispatcher");
+    _thread.setDaemon(true);
+    _thread.start();
+  }
+
+  /** Stops running dispatch cycles, after the current cycle (if any) completes. */
+  synchronized void stop() {
+    _stopped = true;
+    notifyAll();
+  }
+
+  /** Requests that a dispatch cycle run as soon as possible. */
+  synchronized void wake() {
+    _wakeRequested = true;
+    notifyAll();
+  }
+
+  @VisibleForTesting
+  synchronized long getNumCycles() {
+    return _numCycles;
+  }
+
+  private void runCycles() {
+    while (awaitNextCycle()) {
+      try {
+        _cycle.run();
+      } catch (Throwable t) {
+        LOGGER.error("Exception in work dispatch cycle", t);
+      }
+      synchronized (this) {
+        _numCycles++;
+      }
+    }
+  }
+
+  /**
+   * Waits until a wakeup is requested or the period elapses. Returns {@code false} if the
+   * dispatcher was stopped.
+   */
+  private synchronized boolean awaitNextCycle() {
+    long deadline = System.currentTimeMillis() + _periodMs;
+    long remaining = _periodMs;
+    while (!_stopped && !_wakeRequested && remaining > 0) {
+      try {
+        wait(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+      remaining = deadline - System.currentTimeMillis();
+    }
+    _wakeRequested = false;
+    return !_stopped;
+  }
+
+  private final @Nonnull Runnable _cycle;
+  private final long _periodMs;
+
+  @GuardedBy("this")
+  private long _numCycles;
+
+  @GuardedBy("this")
+  private boolean _stopped;
+
+  @GuardedBy("this")
+  private @Nullable Thread _thread;
+
+  @GuardedBy("this")
+  private boolean _wakeRequested;
+}
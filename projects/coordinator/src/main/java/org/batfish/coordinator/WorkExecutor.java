@@ -8,4 +8,21 @@ public interface WorkExecutor {
 
   /** Attempt to assign work and return the result of the attempt. */
   SubmissionResult submit(QueuedWork work);
+
+  /**
+   * Registers a listener to be called whenever a submitted task terminates, so that the caller
+   * need not wait to poll task status. By default, termination is not reported.
+   */
+  default void addTaskTerminationListener(Runnable listener) {}
+
+  /**
+   * Requests cancellation of the task running {@code work}, which was successfully submitted. The
+   * task terminates asynchronously, and is then reported as terminated by user.
+   *
+   * @return {@code true} if cancellation was requested, or {@code false} if the task is not running
+   *     or this executor does not support cancellation
+   */
+  default boolean kill(QueuedWork work) {
+    return false;
+  }
 }
@@ -15,12 +15,14 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.errorprone.annotations.MustBeClosed;
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -51,8 +53,8 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor.DiscardOldestPolicy;
@@ -72,6 +74,7 @@ import org.batfish.common.BfConsts;
 import org.batfish.common.ColumnSortOption;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.Container;
+import org.batfish.common.CoordConsts.WorkStatusCode;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
@@ -115,7 +118,6 @@ import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableMetadata;
 import org.batfish.datamodel.table.TableView;
-import org.batfish.datamodel.table.TableViewRow;
 import org.batfish.identifiers.AnswerId;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.NodeRolesId;
@@ -164,20 +166,73 @@ public class WorkMgr extends AbstractCoordinator {
     return entries;
   }
 
-  static final class AssignWorkTask implements Runnable {
-    @Override
-    public void run() {
-      Main.getWorkMgr().checkTasks();
-      Main.getWorkMgr().assignWork();
-    }
-  }
-
   private static final Set<String> WELL_KNOWN_NETWORK_FILENAMES =
       ImmutableSet.of(BfConsts.RELPATH_REFERENCE_LIBRARY_PATH, BfConsts.RELPATH_NODE_ROLES_PATH);
 
   private static final String SNAPSHOT_PACKAGING_INSTRUCTIONS_URL =
       "https://batfish.readthedocs.io/en/latest/notebooks/interacting.html#Packaging-snapshot-data";
 
+  /**
+   * Maximum total size in KiB of the answers indexed in memory, so that paging through large
+   * answers does not re-read them from storage for every page. An indexed answer is weighed by its
+   * serialized size, which it takes a few times on the heap, plus the estimated size of the column
+   * indexes and views built for it so far.
+   */
+  private static final long MAX_INDEXED_ANSWERS_KB = 64L << 10;
+
+  /**
+   * An index of a table answer, or the serialized answer if it is not a table answer, and the
+   * metadata of the stored answer it was built from.
+   */
+  private static final class IndexedAnswer {
+    private final @Nullable AnswerRowsIndex _index;
+    private final @Nonnull AnswerMetadata _metadata;
+    private final @Nullable String _rawAnswer;
+    private final @Nullable AnswerStatus _status;
+    private final long _serializedSize;
+    private final int _weightKb;
+
+    private IndexedAnswer(
+        @Nullable AnswerRowsIndex index,
+        AnswerMetadata metadata,
+        @Nullable String rawAnswer,
+        @Nullable AnswerStatus status,
+        long serializedSize) {
+      _index = index;
+      _metadata = metadata;
+      _rawAnswer = rawAnswer;
+      _status = status;
+      _serializedSize = serializedSize;
+      long indexBytes = index == null ? 0 : index.getIndexBytes();
+      // every entry weighs at least 1, so that small answers are still bounded by the budget
+      _weightKb =
+          (int) Math.min(Math.max((serializedSize + indexBytes) >> 10, 1), Integer.MAX_VALUE);
+    }
+
+    private static @Nonnull IndexedAnswer table(
+        AnswerRowsIndex index, AnswerMetadata metadata, AnswerStatus status, long serializedSize) {
+      return new IndexedAnswer(index, metadata, null, status, serializedSize);
+    }
+
+    private static @Nonnull IndexedAnswer nonTable(String rawAnswer, AnswerMetadata metadata) {
+      return new IndexedAnswer(null, metadata, rawAnswer, null, rawAnswer.length());
+    }
+
+    /**
+     * Returns this answer weighed again, if its index grew or shrank by at least 1 KiB since it was
+     * weighed, or else {@code null}.
+     */
+    private @Nullable IndexedAnswer reweighed() {
+      if (_index == null) {
+        return null;
+      }
+      IndexedAnswer reweighed =
+          new IndexedAnswer(_index, _metadata, null, _status, _serializedSize);
+      return reweighed._weightKb == _weightKb ? null : reweighed;
+    }
+  }
+
+  private final Cache<AnswerId, IndexedAnswer> _answerRowsIndexes;
   private final IdManager _idManager;
   private final BatfishLogger _logger;
   private final SnapshotMetadataMgr _snapshotMetadataManager;
@@ -202,6 +257,16 @@ public class WorkMgr extends AbstractCoordinator {
         new ThreadPoolExecutor(
             0, 1, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), new DiscardOldestPolicy());
     _workExecutor = workExecutorCreator.apply(logger, settings);
+    _answerRowsIndexes =
+        CacheBuilder.newBuilder()
+            // a single segment, so that an answer may use the whole budget rather than the part
+            // of it that one of Guava's segments gets
+            .concurrencyLevel(1)
+            .maximumWeight(MAX_INDEXED_ANSWERS_KB)
+            .weigher((AnswerId answerId, IndexedAnswer indexed) -> indexed._weightKb)
+            .build();
+    _dispatcher = new WorkDispatcher(this::dispatch, settings.getPeriodAssignWorkMs());
+    _workExecutor.addTaskTerminationListener(_dispatcher::wake);
   }
 
   @VisibleForTesting
@@ -209,38 +274,57 @@ public class WorkMgr extends AbstractCoordinator {
     return _storage;
   }
 
-  private void assignWork() {
+  /** A single dispatch cycle: collect the status of assigned work, then assign pending work. */
+  private void dispatch() {
+    checkTasks();
+    assignWork();
+  }
 
+  /**
+   * Attempts to assign all unassigned work, in queue order. Work that the executor is too busy to
+   * accept is left unassigned, but later work is still attempted, since the executor may have
+   * capacity for cheaper work.
+   */
+  private void assignWork() {
+    List<QueuedWork> workToAssign;
     try {
-      QueuedWork work = _workQueueMgr.getWorkForAssignment();
-
-      // get out if no work was found
-      if (work == null) {
-        // _logger.info("WM:AssignWork: No unassigned work\n");
-        return;
-      }
-      SubmissionResult result = _workExecutor.submit(work);
-      switch (result.getType()) {
-        case ERROR:
-          _logger.error(String.format("Error submitting work: %s\n", result.getMessage()));
-          _workQueueMgr.markAssignmentError(work);
-          break;
-        case SUCCESS:
-          _logger.info(String.format("Work submitted with ID: %s\n", work.getId()));
-          TaskHandle handle = result.getTaskHandle();
-          _workQueueMgr.markAssignmentSuccess(work, handle);
-          break;
-        case BUSY:
-          _logger.warn(
-              String.format("Work with ID: %s requeued because worker is busy\n", work.getId()));
-          _workQueueMgr.markAssignmentFailure(work);
-          break;
-        default:
-          throw new IllegalArgumentException(
-              String.format("Invalid SubmissionResult.Type: %s", result.getType()));
-      }
+      workToAssign = _workQueueMgr.getAllWorkForAssignment();
     } catch (Exception e) {
       _logger.errorf("Got exception in assignWork: %s\n", Throwables.getStackTraceAsString(e));
+      return;
+    }
+    for (QueuedWork work : workToAssign) {
+      try {
+        assignWork(work);
+      } catch (Exception e) {
+        _logger.errorf("Got exception in assignWork: %s\n", Throwables.getStackTraceAsString(e));
+        if (work.getStatus() == WorkStatusCode.TRYINGTOASSIGN) {
+          _workQueueMgr.markAssignmentFailure(work);
+        }
+      }
+    }
+  }
+
+  private void assignWork(QueuedWork work) throws IOException {
+    SubmissionResult result = _workExecutor.submit(work);
+    switch (result.getType()) {
+      case ERROR:
+        _logger.error(String.format("Error submitting work: %s\n", result.getMessage()));
+        _workQueueMgr.markAssignmentError(work);
+        break;
+      case SUCCESS:
+        _logger.info(String.format("Work submitted with ID: %s\n", work.getId()));
+        TaskHandle handle = result.getTaskHandle();
+        _workQueueMgr.markAssignmentSuccess(work, handle);
+        break;
+      case BUSY:
+        _logger.debug(
+            String.format("Work with ID: %s requeued because worker is busy\n", work.getId()));
+        _workQueueMgr.markAssignmentFailure(work);
+        break;
+      default:
+        throw new IllegalArgumentException(
+            String.format("Invalid SubmissionResult.Type: %s", result.getType()));
     }
   }
 
@@ -428,6 +512,81 @@ public class WorkMgr extends AbstractCoordinator {
         : BatfishObjectMapper.mapper().readValue(ansString, Answer.class);
   }
 
+  /**
+   * Get the answer for the specified question, with the specified filtering options applied.
+   * Returns {@code null} if the question is not answered.
+   *
+   * <p>Table answers are indexed on first use, so that requests for other pages, filters, or sort
+   * orders of the same answer are served without re-reading it from storage. An index is rebuilt
+   * if the metadata of the stored answer changes, e.g., because the question was re-answered.
+   *
+   * @throws IllegalArgumentException if the network, question, or snapshots cannot be found
+   * @throws IOException if there are any other errors
+   */
+  public @Nullable Answer getFilteredAnswer(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      AnswerRowsOptions options)
+      throws IOException {
+    AnswerLocation location = resolveAnswer(network, snapshot, question, referenceSnapshot);
+    NetworkId networkId = location._snapshot.getNetwork();
+    SnapshotId snapshotId = location._snapshot.getSnapshot();
+    AnswerId answerId = location._answerId;
+    // No metadata means the question has not been answered
+    if (!_storage.hasAnswerMetadata(networkId, snapshotId, answerId)) {
+      return null;
+    }
+    AnswerMetadata metadata = _storage.loadAnswerMetadata(networkId, snapshotId, answerId);
+    IndexedAnswer stale = _answerRowsIndexes.getIfPresent(answerId);
+    if (stale != null && !stale._metadata.equals(metadata)) {
+      // only removes the stale index, not one that a concurrent request already rebuilt
+      _answerRowsIndexes.asMap().remove(answerId, stale);
+    }
+    IndexedAnswer indexed;
+    try {
+      // concurrent requests for the same answer wait for a single index to be built
+      indexed =
+          _answerRowsIndexes.get(
+              answerId, () -> indexAnswer(networkId, snapshotId, answerId, metadata));
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+    if (indexed._index == null) {
+      return BatfishObjectMapper.mapper().readValue(indexed._rawAnswer, Answer.class);
+    }
+    Answer answer = new Answer();
+    answer.setStatus(indexed._status);
+    answer.addAnswerElement(indexed._index.getTableView(options));
+    // the index may have grown while serving the view, so weigh it again to keep the cache bounded
+    IndexedAnswer reweighed = indexed.reweighed();
+    if (reweighed != null) {
+      _answerRowsIndexes.asMap().replace(answerId, indexed, reweighed);
+    }
+    return answer;
+  }
+
+  private @Nonnull IndexedAnswer indexAnswer(
+      NetworkId networkId, SnapshotId snapshotId, AnswerId answerId, AnswerMetadata metadata)
+      throws IOException {
+    String rawAnswerStr = _storage.loadAnswer(networkId, snapshotId, answerId);
+    Answer rawAnswer = BatfishObjectMapper.mapper().readValue(rawAnswerStr, Answer.class);
+    AnswerElement answerElement = rawAnswer.getAnswerElements().get(0);
+    if (!(answerElement instanceof TableAnswerElement)) {
+      return IndexedAnswer.nonTable(rawAnswerStr, metadata);
+    }
+    return IndexedAnswer.table(
+        new AnswerRowsIndex((TableAnswerElement) answerElement, this::schemaComparator),
+        metadata,
+        rawAnswer.getStatus(),
+        rawAnswerStr.length());
+  }
+
   /** Get the answer string for the specified question. */
   public @Nonnull String getAnswerString(
       String network, String snapshot, String question, @Nullable String referenceSnapshot)
@@ -459,6 +618,34 @@ public class WorkMgr extends AbstractCoordinator {
   private @Nullable String loadAnswer(
       String network, String snapshot, String question, @Nullable String referenceSnapshot)
       throws IOException {
+    AnswerLocation location = resolveAnswer(network, snapshot, question, referenceSnapshot);
+    NetworkId networkId = location._snapshot.getNetwork();
+    SnapshotId snapshotId = location._snapshot.getSnapshot();
+    // No metadata means the question has not been answered
+    if (!_storage.hasAnswerMetadata(networkId, snapshotId, location._answerId)) {
+      return null;
+    }
+    return _storage.loadAnswer(networkId, snapshotId, location._answerId);
+  }
+
+  /** The snapshot under which an answer is stored, and its ID. */
+  private static final class AnswerLocation {
+    private final @Nonnull AnswerId _answerId;
+    private final @Nonnull NetworkSnapshot _snapshot;
+
+    private AnswerLocation(NetworkSnapshot snapshot, AnswerId answerId) {
+      _answerId = answerId;
+      _snapshot = snapshot;
+    }
+  }
+
+  /**
+   * Resolve the location of the answer for the specified question.
+   *
+   * @throws IllegalArgumentException if the network, question, or snapshots cannot be found
+   */
+  private @Nonnull AnswerLocation resolveAnswer(
+      String network, String snapshot, String question, @Nullable String referenceSnapshot) {
     Optional<NetworkId> networkIdOpt = _idManager.getNetworkId(network);
     checkArgument(networkIdOpt.isPresent(), "Missing network: '%s'", network);
     NetworkId networkId = networkIdOpt.get();
@@ -485,11 +672,7 @@ public class WorkMgr extends AbstractCoordinator {
     AnswerId answerId =
         _idManager.getAnswerId(
             networkId, snapshotId, questionId, networkNodeRolesId, referenceSnapshotId);
-    // No metadata means the question has not been answered
-    if (!_storage.hasAnswerMetadata(networkId, snapshotId, answerId)) {
-      return null;
-    }
-    return _storage.loadAnswer(networkId, snapshotId, answerId);
+    return new AnswerLocation(new NetworkSnapshot(networkId, snapshotId), answerId);
   }
 
   /**
@@ -707,6 +890,24 @@ public class WorkMgr extends AbstractCoordinator {
     return _workQueueMgr.getWork(workItemId);
   }
 
+  /**
+   * Requests cancellation of the work with the given ID, if it is running on a worker. The worker
+   * stops the work asynchronously, and the work moves to the completed queue with status {@link
+   * WorkStatusCode#TERMINATEDBYUSER} the next time its task is checked.
+   *
+   * @return {@code true} if cancellation was requested, or {@code false} if no such work is running
+   */
+  public boolean killWork(UUID workItemId) {
+    QueuedWork work = _workQueueMgr.getWork(workItemId);
+    if (work == null
+        || (work.getStatus() != WorkStatusCode.ASSIGNED
+            && work.getStatus() != WorkStatusCode.CHECKINGSTATUS)) {
+      return false;
+    }
+    _logger.infof("Killing work %s\n", workItemId);
+    return _workExecutor.kill(work);
+  }
+
   /**
    * Load and return the log file for a given work item ID in a given snapshot.
    *
@@ -1341,10 +1542,9 @@ public class WorkMgr extends AbstractCoordinator {
     } catch (Exception e) {
       throw new BatfishException(String.format("Failed to queue work: %s", e.getMessage()), e);
     }
-    // as an optimization trigger AssignWork to see if we can schedule this (or another) work
+    // wake the dispatcher to see if we can schedule this (or another) work right away
     if (success) {
-      Thread thread = new Thread(this::assignWork);
-      thread.start();
+      _dispatcher.wake();
     }
     return success;
   }
@@ -1352,12 +1552,7 @@ public class WorkMgr extends AbstractCoordinator {
   public void startWorkManager() {
     loadPlugins();
 
-    Executors.newScheduledThreadPool(1)
-        .scheduleAtFixedRate(
-            new AssignWorkTask(),
-            0,
-            Main.getSettings().getPeriodAssignWorkMs(),
-            TimeUnit.MILLISECONDS);
+    _dispatcher.start();
   }
 
   /**
@@ -1576,79 +1771,7 @@ public class WorkMgr extends AbstractCoordinator {
   @VisibleForTesting
   @Nonnull
   TableView processAnswerTable2(TableAnswerElement rawTable, AnswerRowsOptions options) {
-    Map<Row, Integer> rowIds = Maps.newIdentityHashMap();
-    CommonUtil.forEachWithIndex(rawTable.getRowsList(), (i, row) -> rowIds.put(row, i));
-    Map<String, ColumnMetadata> rawColumnMap = rawTable.getMetadata().toColumnMap();
-
-    for (String c : options.getColumns()) {
-      if (!rawColumnMap.containsKey(c)) {
-        Collection<String> sortedColumnNames = new TreeSet<>(rawColumnMap.keySet());
-        throw new IllegalArgumentException(
-            String.format("Column %s is not in the answer: %s", c, sortedColumnNames));
-      }
-    }
-
-    List<Row> filteredRows =
-        rawTable.getRowsList().stream()
-            .filter(row -> options.getFilters().stream().allMatch(filter -> filter.matches(row)))
-            .collect(ImmutableList.toImmutableList());
-
-    Stream<Row> rowStream = filteredRows.stream();
-    if (!options.getSortOrder().isEmpty()) {
-      // sort using specified sort order
-      rowStream = rowStream.sorted(buildComparator(rawColumnMap, options.getSortOrder()));
-    }
-    TableMetadata tableMetadata;
-    if (options.getColumns().isEmpty()) {
-      tableMetadata = rawTable.getMetadata();
-    } else {
-      // project to desired columns
-      rowStream =
-          rowStream.map(
-              rawRow -> {
-                Row row = Row.builder().putAll(rawRow, options.getColumns()).build();
-                rowIds.put(row, rowIds.get(rawRow));
-                return row;
-              });
-      // TableMetadata requires at least one key. For simplicity, make them all keys.
-      Map<String, ColumnMetadata> columnMap =
-          options.getColumns().stream()
-              .collect(
-                  ImmutableMap.toImmutableMap(
-                      Function.identity(),
-                      col -> {
-                        ColumnMetadata colMetadata = rawColumnMap.get(col);
-                        return new ColumnMetadata(
-                            colMetadata.getName(),
-                            colMetadata.getSchema(),
-                            colMetadata.getDescription(),
-                            true, // isKey
-                            false // isValue
-                            );
-                      }));
-      List<ColumnMetadata> columnMetadata =
-          columnMap.values().stream().collect(ImmutableList.toImmutableList());
-      tableMetadata = new TableMetadata(columnMetadata, rawTable.getMetadata().getTextDesc());
-    }
-    if (options.getUniqueRows()) {
-      // uniquify if desired
-      rowStream = rowStream.distinct();
-    }
-    // offset, truncate, and add to table
-    TableView tableView =
-        new TableView(
-            options,
-            rowStream
-                .skip(options.getRowOffset())
-                .limit(options.getMaxRows())
-                .map(row -> new TableViewRow(rowIds.get(row), row))
-                .collect(ImmutableList.toImmutableList()),
-            tableMetadata,
-            rawTable.getWarnings());
-    tableView.setSummary(
-        rawTable.getSummary() != null ? rawTable.getSummary() : new AnswerSummary());
-    tableView.getSummary().setNumResults(filteredRows.size());
-    return tableView;
+    return new AnswerRowsIndex(rawTable, this::schemaComparator).getTableView(options);
   }
 
   @VisibleForTesting
@@ -2147,5 +2270,6 @@ public class WorkMgr extends AbstractCoordinator {
         firstNonNull(getReferenceLibrary(network), new ReferenceLibrary(null)));
   }
 
+  private final WorkDispatcher _dispatcher;
   private final WorkExecutor _workExecutor;
 }
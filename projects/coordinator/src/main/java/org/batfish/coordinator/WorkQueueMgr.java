@@ -9,6 +9,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -50,12 +52,21 @@ public class WorkQueueMgr {
   @GuardedBy("this")
   private WorkQueue _queueIncompleteWork;
 
+  /**
+   * All work in either queue, by ID. Supports looking up work without taking the lock, since
+   * clients poll the status of their work frequently. Work keeps its entry while it moves between
+   * or within the queues; an entry would be removed only if its work left both queues, which the
+   * completed queue never allows.
+   */
+  private final ConcurrentMap<UUID, QueuedWork> _workById;
+
   WorkQueueMgr(BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
     this(Main.getSettings().getQueueType(), logger, snapshotMetadataManager);
   }
 
   WorkQueueMgr(Type wqType, BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
     _blockingWork = new HashSet<>();
+    _workById = new ConcurrentHashMap<>();
     _logger = logger;
     _snapshotMetadataManager = snapshotMetadataManager;
     switch (wqType) {
@@ -301,24 +312,9 @@ public class WorkQueueMgr {
     return null;
   }
 
-  public synchronized QueuedWork getWork(UUID workId) {
-    QueuedWork work = getWork(workId, QueueType.INCOMPLETE);
-    if (work == null) {
-      work = getWork(workId, QueueType.COMPLETED);
-    }
-    return work;
-  }
-
   @Nullable
-  private synchronized QueuedWork getWork(UUID workId, QueueType qType) {
-    switch (qType) {
-      case COMPLETED:
-        return _queueCompletedWork.getWork(workId);
-      case INCOMPLETE:
-        return _queueIncompleteWork.getWork(workId);
-      default:
-        return null;
-    }
+  public QueuedWork getWork(UUID workId) {
+    return _workById.get(workId);
   }
 
   @Nullable
@@ -334,6 +330,22 @@ public class WorkQueueMgr {
     return null;
   }
 
+  /**
+   * Returns all unassigned work in queue order, marking each as being assigned. The caller must
+   * subsequently mark each returned work with the result of the assignment attempt.
+   */
+  @Nonnull
+  public synchronized List<QueuedWork> getAllWorkForAssignment() {
+    ImmutableList.Builder<QueuedWork> workToAssign = ImmutableList.builder();
+    for (QueuedWork work : _queueIncompleteWork) {
+      if (work.getStatus() == WorkStatusCode.UNASSIGNED) {
+        work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
+        workToAssign.add(work);
+      }
+    }
+    return workToAssign.build();
+  }
+
   @Nonnull
   public synchronized List<QueuedWork> getWorkForChecking() {
     List<QueuedWork> workToCheck = new ArrayList<>();
@@ -454,13 +466,15 @@ public class WorkQueueMgr {
                 requeueWorks.add(incompleteWork);
               }
             }
+            // requeued work stays in _workById, so lock-free status lookups keep finding it;
+            // queueing it again overwrites its entry
             for (QueuedWork requeueWork : requeueWorks) {
               _queueIncompleteWork.delete(requeueWork);
               requeueWork.setStatus(WorkStatusCode.UNASSIGNED);
             }
             for (QueuedWork requeueWork : requeueWorks) {
               try {
-                boolean queued = queueUnassignedWork(requeueWork);
+                boolean queued = enqueUnassignedWork(requeueWork);
                 if (!queued) {
                   throw new BatfishException(
                       "Failed to requeue previously blocked work " + requeueWork.getId());
@@ -470,7 +484,7 @@ public class WorkQueueMgr {
                 _logger.errorf("exception: %s\n", stackTrace);
                 // put this work back on incomplete queue and process as if it terminatedabnormally
                 // people may be checking its status and this work may be blocking others
-                _queueIncompleteWork.enque(requeueWork);
+                enqueIncompleteWork(requeueWork);
                 Task fakeTask =
                     new Task(
                         TaskStatus.RequeueFailure,
@@ -567,13 +581,22 @@ public class WorkQueueMgr {
         return queueBlockedWork(work, deltaBlocker);
       }
     }
-    return _queueIncompleteWork.enque(work);
+    return enqueIncompleteWork(work);
+  }
+
+  @GuardedBy("this")
+  private boolean enqueIncompleteWork(QueuedWork work) {
+    boolean queued = _queueIncompleteWork.enque(work);
+    if (queued) {
+      _workById.put(work.getId(), work);
+    }
+    return queued;
   }
 
   private synchronized boolean queueBlockedWork(QueuedWork work, QueuedWork blocker) {
     _blockingWork.add(blocker.getId());
     work.setStatus(WorkStatusCode.BLOCKED);
-    return _queueIncompleteWork.enque(work);
+    return enqueIncompleteWork(work);
   }
 
   private synchronized boolean queueDataplaningWork(QueuedWork work) throws Exception {
@@ -596,7 +619,7 @@ public class WorkQueueMgr {
 
     QueuedWork blocker = getBlockerForDataplaningWork(work);
     if (blocker == null) {
-      return _queueIncompleteWork.enque(work);
+      return enqueIncompleteWork(work);
     } else {
       return queueBlockedWork(work, blocker);
     }
@@ -633,7 +656,7 @@ public class WorkQueueMgr {
       }
     }
 
-    return _queueIncompleteWork.enque(work);
+    return enqueIncompleteWork(work);
   }
 
   public synchronized boolean queueUnassignedWork(QueuedWork work) throws Exception {
@@ -641,6 +664,15 @@ public class WorkQueueMgr {
     if (previouslyQueuedWork != null) {
       throw new BatfishException("Duplicate work item");
     }
+    return enqueUnassignedWork(work);
+  }
+
+  /**
+   * Queues {@code work} according to its type, without checking whether it is already known. Used
+   * directly only to requeue work that was blocked, which is still in {@link #_workById}.
+   */
+  @GuardedBy("this")
+  private boolean enqueUnassignedWork(QueuedWork work) throws Exception {
     WorkDetails wDetails = work.getDetails();
     cleanUpInitMetaDataIfNeeded(work.getDetails().getNetworkId(), wDetails.getSnapshotId());
     if (work.getDetails().isDifferential()) {
@@ -654,13 +686,13 @@ public class WorkQueueMgr {
         return queueDataplaningWork(work);
       case INDEPENDENT_ANSWERING:
         // assume that this type of work shouldn't be blocked at all
-        return _queueIncompleteWork.enque(work);
+        return enqueIncompleteWork(work);
       case PARSING_DEPENDENT_ANSWERING:
         return queueDependentAnsweringWork(work, false);
       case DATAPLANE_DEPENDENT_ANSWERING:
         return queueDependentAnsweringWork(work, true);
       case UNKNOWN:
-        return _queueIncompleteWork.enque(work);
+        return enqueIncompleteWork(work);
       default:
         throw new BatfishException("Unknown WorkType " + work.getDetails().getWorkType());
     }
@@ -10,6 +10,7 @@ import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
@@ -57,6 +58,22 @@ public final class WorkResource {
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/{workid}")
   public @Nonnull WorkStatus getWorkStatus(@PathParam("workid") @Nonnull String workIdStr) {
+    return getWork(workIdStr).toWorkStatus();
+  }
+
+  /** Requests cancellation of the running work with the given ID. */
+  @DELETE
+  @Path("/{workid}")
+  public @Nonnull Response killWork(@PathParam("workid") @Nonnull String workIdStr) {
+    QueuedWork queuedWork = getWork(workIdStr);
+    if (!Main.getWorkMgr().killWork(queuedWork.getId())) {
+      throw new BadRequestException(String.format("Work '%s' is not running", workIdStr));
+    }
+    return Response.ok().build();
+  }
+
+  /** Returns the work with the given ID in this resource's network. */
+  private @Nonnull QueuedWork getWork(String workIdStr) {
     UUID workId;
     try {
       workId = UUID.fromString(workIdStr);
@@ -73,7 +90,7 @@ public final class WorkResource {
       // Rather than leak info, just return 404.
       throw new NotFoundException();
     }
-    return queuedWork.toWorkStatus();
+    return queuedWork;
   }
 
   @GET
@@ -0,0 +1,152 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.Comparator;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.datamodel.table.TableView;
+import org.batfish.datamodel.table.TableViewRow;
+import org.junit.Test;
+
+/** Tests of {@link AnswerRowsIndex}. */
+public final class AnswerRowsIndexTest {
+
+  private static final String NAME = "name";
+  private static final String VALUE = "value";
+
+  private static AnswerRowsIndex index(Row... rows) {
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(
+                    new ColumnMetadata(NAME, Schema.STRING, "name", true, false),
+                    new ColumnMetadata(VALUE, Schema.INTEGER, "value", false, true))));
+    for (Row row : rows) {
+      table.addRow(row);
+    }
+    return new AnswerRowsIndex(table, schema -> Comparator.naturalOrder());
+  }
+
+  private static Row row(String name, int value) {
+    return Row.of(NAME, name, VALUE, value);
+  }
+
+  @Test
+  public void testFilterSortAndPage() {
+    AnswerRowsIndex index = index(row("b", 2), row("a", 1), row("ab", 3), row("c", 1));
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(new ColumnFilter(NAME, "A", false)),
+            1,
+            1,
+            ImmutableList.of(new ColumnSortOption(VALUE, true)),
+            false);
+
+    TableView view = index.getTableView(options);
+
+    // "ab" (3) then "a" (1); offset 1 and limit 1 select "a"
+    assertThat(view.getRows(), contains(new TableViewRow(1, row("a", 1))));
+    assertThat(view.getSummary().getNumResults(), equalTo(2));
+  }
+
+  @Test
+  public void testSortTiesKeepRowOrder() {
+    AnswerRowsIndex index = index(row("c", 1), row("a", 2), row("b", 1));
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(new ColumnSortOption(VALUE, false)),
+            false);
+
+    assertThat(
+        index.getTableView(options).getRows(),
+        contains(
+            new TableViewRow(0, row("c", 1)),
+            new TableViewRow(2, row("b", 1)),
+            new TableViewRow(1, row("a", 2))));
+  }
+
+  @Test
+  public void testUniqueRowsOfProjection() {
+    AnswerRowsIndex index = index(row("a", 1), row("b", 2), row("c", 1));
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(VALUE),
+            ImmutableList.of(),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(),
+            true);
+
+    TableView view = index.getTableView(options);
+
+    assertThat(
+        view.getRows(),
+        contains(
+            new TableViewRow(0, Row.of(VALUE, 1)), new TableViewRow(1, Row.of(VALUE, 2))));
+    // number of results counts filtered rows before uniquifying
+    assertThat(view.getSummary().getNumResults(), equalTo(3));
+  }
+
+  @Test
+  public void testPagesShareView() {
+    AnswerRowsIndex index = index(row("a", 1), row("b", 2), row("c", 3));
+    for (int offset = 0; offset < 3; offset++) {
+      index.getTableView(
+          new AnswerRowsOptions(
+              ImmutableSet.of(VALUE),
+              ImmutableList.of(),
+              1,
+              offset,
+              ImmutableList.of(new ColumnSortOption(NAME, true)),
+              false));
+    }
+
+    assertThat(index.getNumCachedViews(), equalTo(1));
+  }
+
+  @Test
+  public void testIndexBytes() {
+    AnswerRowsIndex index = index(row("b", 2), row("a", 1), row("c", 1));
+    assertThat(index.getIndexBytes(), equalTo(0L));
+
+    for (int offset = 0; offset < 2; offset++) {
+      index.getTableView(
+          new AnswerRowsOptions(
+              ImmutableSet.of(),
+              ImmutableList.of(new ColumnFilter(NAME, "a", false)),
+              1,
+              offset,
+              ImmutableList.of(new ColumnSortOption(VALUE, true)),
+              false));
+    }
+    // name codes (3 ints) and values (3 chars), value ranks (3 ints), and the view (1 int)
+    assertThat(index.getIndexBytes(), equalTo(12L + 6 + 12 + 4));
+
+    // another view reuses the indexes of its columns
+    index.getTableView(
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(new ColumnFilter(NAME, "a", false)),
+            1,
+            0,
+            ImmutableList.of(new ColumnSortOption(VALUE, false)),
+            false));
+    assertThat(index.getIndexBytes(), equalTo(12L + 6 + 12 + 4 + 4));
+  }
+}
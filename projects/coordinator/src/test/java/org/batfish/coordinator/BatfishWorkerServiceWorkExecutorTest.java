@@ -8,7 +8,9 @@ import static org.batfish.coordinator.SubmissionResult.Type.SUCCESS;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -119,6 +121,47 @@ public final class BatfishWorkerServiceWorkExecutorTest {
     assertThat(sr.getMessage(), containsString("Exception submitting work"));
   }
 
+  @Test
+  public void testKill() {
+    QueuedWork qw = getTestQueuedWork();
+    String runningTaskId = qw.getId().toString();
+    BatfishWorkerService service =
+        new BatfishWorkerService() {
+          @Nullable
+          @Override
+          public Task getTaskStatus(String taskId) {
+            return TEST_TASK;
+          }
+
+          @Override
+          public LaunchResult runTask(String taskId, String[] args) {
+            return LaunchResult.launched();
+          }
+
+          @Override
+          public boolean killTask(String taskId) {
+            return taskId.equals(runningTaskId);
+          }
+        };
+    BatfishWorkerServiceWorkExecutor we =
+        new BatfishWorkerServiceWorkExecutor(
+            new BatfishLogger(BatfishLogger.LEVELSTR_ERROR, false),
+            Paths.get("/dev/null"),
+            service);
+
+    // the kill request is delegated to the worker service, by task ID
+    assertTrue(we.kill(qw));
+    assertFalse(we.kill(getTestQueuedWork()));
+
+    // services that do not support cancellation never kill a task
+    assertFalse(
+        new BatfishWorkerServiceWorkExecutor(
+                new BatfishLogger(BatfishLogger.LEVELSTR_ERROR, false),
+                Paths.get("/dev/null"),
+                BATFISH_WORKER_SERVICE_RUNNABLE)
+            .kill(qw));
+  }
+
   private static @Nonnull QueuedWork getTestQueuedWork() {
     UUID uuid = UUID.randomUUID();
     WorkItem wi = new WorkItem(uuid, "n", "s", ImmutableMap.of("foo", "bar", "baz", ""));
@@ -0,0 +1,63 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/** Tests of {@link WorkDispatcher}. */
+public final class WorkDispatcherTest {
+
+  @Test
+  public void testWakeRunsCycleBeforePeriodElapses() throws InterruptedException {
+    Semaphore cycles = new Semaphore(0);
+    // period long enough that only wakeups can trigger cycles during the test
+    WorkDispatcher dispatcher = new WorkDispatcher(cycles::release, TimeUnit.HOURS.toMillis(1));
+    dispatcher.start();
+    try {
+      dispatcher.wake();
+      assertTrue(cycles.tryAcquire(10, TimeUnit.SECONDS));
+      dispatcher.wake();
+      assertTrue(cycles.tryAcquire(10, TimeUnit.SECONDS));
+    } finally {
+      dispatcher.stop();
+    }
+  }
+
+  @Test
+  public void testPeriodicCycles() throws InterruptedException {
+    Semaphore cycles = new Semaphore(0);
+    WorkDispatcher dispatcher = new WorkDispatcher(cycles::release, 1);
+    dispatcher.start();
+    try {
+      assertTrue(cycles.tryAcquire(3, 10, TimeUnit.SECONDS));
+    } finally {
+      dispatcher.stop();
+    }
+  }
+
+  @Test
+  public void testCycleExceptionDoesNotStopDispatcher() throws InterruptedException {
+    Semaphore cycles = new Semaphore(0);
+    WorkDispatcher dispatcher =
+        new WorkDispatcher(
+            () -> {
+              cycles.release();
+              throw new IllegalStateException("boom");
+            },
+            TimeUnit.HOURS.toMillis(1));
+    dispatcher.start();
+    try {
+      dispatcher.wake();
+      assertTrue(cycles.tryAcquire(10, TimeUnit.SECONDS));
+      dispatcher.wake();
+      assertTrue(cycles.tryAcquire(10, TimeUnit.SECONDS));
+      assertThat(dispatcher.getNumCycles(), greaterThanOrEqualTo(1L));
+    } finally {
+      dispatcher.stop();
+    }
+  }
+}
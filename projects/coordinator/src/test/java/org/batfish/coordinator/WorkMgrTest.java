@@ -1208,6 +1208,71 @@ public final class WorkMgrTest {
     assertThat(_manager.getAnswer(network, snapshot, questionName, null), nullValue());
   }
 
+  @Test
+  public void testGetFilteredAnswer() throws IOException {
+    String network = "network";
+    String snapshot = "snapshot";
+    String questionName = "question";
+    String columnName = "col";
+
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata(columnName, Schema.STRING, "desc"))));
+    table.addRow(Row.of(columnName, "b"));
+    table.addRow(Row.of(columnName, "c"));
+    table.addRow(Row.of(columnName, "a"));
+    Answer answer = new Answer();
+    answer.addAnswerElement(table);
+    answer.setStatus(AnswerStatus.SUCCESS);
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    setupQuestionAndAnswer(network, snapshot, questionName, answer);
+
+    List<ColumnSortOption> sortOrder = ImmutableList.of(new ColumnSortOption(columnName, false));
+    AnswerRowsOptions firstPage =
+        new AnswerRowsOptions(ImmutableSet.of(), ImmutableList.of(), 2, 0, sortOrder, false);
+    AnswerRowsOptions secondPage =
+        new AnswerRowsOptions(ImmutableSet.of(), ImmutableList.of(), 2, 2, sortOrder, false);
+    TableView first =
+        (TableView)
+            _manager
+                .getFilteredAnswer(network, snapshot, questionName, null, firstPage)
+                .getAnswerElements()
+                .get(0);
+    TableView second =
+        (TableView)
+            _manager
+                .getFilteredAnswer(network, snapshot, questionName, null, secondPage)
+                .getAnswerElements()
+                .get(0);
+
+    // Confirm pages of the sorted answer are served with their original row IDs
+    assertThat(
+        first.getRows(),
+        contains(
+            new TableViewRow(2, Row.of(columnName, "a")),
+            new TableViewRow(0, Row.of(columnName, "b"))));
+    assertThat(second.getRows(), contains(new TableViewRow(1, Row.of(columnName, "c"))));
+    assertThat(second.getSummary().getNumResults(), equalTo(3));
+  }
+
+  @Test
+  public void testGetFilteredAnswerNotFound() throws IOException {
+    String network = "network";
+    String snapshot = "snapshot";
+    String questionName = "question";
+
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    setupQuestionAndAnswer(network, snapshot, questionName, null, null);
+
+    assertThat(
+        _manager.getFilteredAnswer(
+            network, snapshot, questionName, null, AnswerRowsOptions.NO_FILTER),
+        nullValue());
+  }
+
   @Test
   public void testGetAnswerReferenceSnapshot() throws IOException {
     String network = "network";
@@ -3,6 +3,7 @@ package org.batfish.coordinator;
 import static org.batfish.coordinator.matchers.WorkQueueMatchers.hasWorkItem;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.iterableWithSize;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -1227,6 +1228,88 @@ public final class WorkQueueMgrTest {
     assertThat(_workQueueMgr.getLength(QueueType.INCOMPLETE), equalTo(1L));
   }
 
+  @Test
+  public void testGetAllWorkForAssignment() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.UNINITIALIZED);
+    assertThat(_workQueueMgr.getAllWorkForAssignment(), empty());
+
+    WorkDetails.Builder builder =
+        WorkDetails.builder()
+            .setNetworkId(_networkId)
+            .setSnapshotId(_idManager.getSnapshotId(snapshot, _networkId).get())
+            .setWorkType(WorkType.UNKNOWN);
+    QueuedWork work1 = new QueuedWork(new WorkItem(NETWORK, snapshot), builder.build());
+    QueuedWork work2 = new QueuedWork(new WorkItem(NETWORK, snapshot), builder.build());
+    QueuedWork work3 = new QueuedWork(new WorkItem(NETWORK, snapshot), builder.build());
+    _workQueueMgr.queueUnassignedWork(work1);
+    _workQueueMgr.queueUnassignedWork(work2);
+    _workQueueMgr.queueUnassignedWork(work3);
+    work2.setStatus(WorkStatusCode.ASSIGNED);
+
+    // All unassigned work is returned in queue order, and marked as being assigned
+    assertThat(_workQueueMgr.getAllWorkForAssignment(), contains(work1, work3));
+    assertThat(work1.getStatus(), equalTo(WorkStatusCode.TRYINGTOASSIGN));
+    assertThat(work3.getStatus(), equalTo(WorkStatusCode.TRYINGTOASSIGN));
+    assertThat(_workQueueMgr.getAllWorkForAssignment(), empty());
+
+    _workQueueMgr.markAssignmentFailure(work3);
+    assertThat(_workQueueMgr.getAllWorkForAssignment(), contains(work3));
+  }
+
+  @Test
+  public void testGetWorkCompletedAndIncomplete() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.UNINITIALIZED);
+    WorkDetails details =
+        WorkDetails.builder()
+            .setNetworkId(_networkId)
+            .setSnapshotId(_idManager.getSnapshotId(snapshot, _networkId).get())
+            .setWorkType(WorkType.UNKNOWN)
+            .build();
+    QueuedWork work = new QueuedWork(new WorkItem(NETWORK, snapshot), details);
+    assertThat(_workQueueMgr.getWork(work.getId()), nullValue());
+
+    _workQueueMgr.queueUnassignedWork(work);
+    assertSame(work, _workQueueMgr.getWork(work.getId()));
+
+    _workQueueMgr.markAssignmentError(_workQueueMgr.getWorkForAssignment());
+    assertThat(_workQueueMgr.getLength(QueueType.COMPLETED), equalTo(1L));
+    assertSame(work, _workQueueMgr.getWork(work.getId()));
+  }
+
+  @Test
+  public void testGetWorkAcrossUnblocking() throws Exception {
+    initSnapshotMetadata(SNAPSHOT, ProcessingStatus.UNINITIALIZED);
+    WorkDetails.Builder builder =
+        WorkDetails.builder()
+            .setNetworkId(_networkId)
+            .setSnapshotId(_idManager.getSnapshotId(SNAPSHOT, _networkId).get());
+    QueuedWork parsing =
+        new QueuedWork(
+            new WorkItem(NETWORK, SNAPSHOT), builder.setWorkType(WorkType.PARSING).build());
+    QueuedWork answering =
+        new QueuedWork(
+            new WorkItem(NETWORK, SNAPSHOT),
+            builder.setWorkType(WorkType.PARSING_DEPENDENT_ANSWERING).build());
+    _workQueueMgr.queueUnassignedWork(parsing);
+    _workQueueMgr.queueUnassignedWork(answering);
+    assertThat(answering.getStatus(), equalTo(WorkStatusCode.BLOCKED));
+    assertSame(answering, _workQueueMgr.getWork(answering.getId()));
+
+    // finishing the parsing requeues the blocked work, which stays known by its ID
+    _workQueueMgr.processTaskCheckResult(parsing, new Task(TaskStatus.TerminatedNormally));
+    assertThat(answering.getStatus(), equalTo(WorkStatusCode.UNASSIGNED));
+    assertSame(answering, _workQueueMgr.getWork(answering.getId()));
+    assertSame(parsing, _workQueueMgr.getWork(parsing.getId()));
+    assertThat(_workQueueMgr.getLength(QueueType.INCOMPLETE), equalTo(1L));
+
+    // queueing it again is still rejected
+    _thrown.expect(BatfishException.class);
+    _thrown.expectMessage("Duplicate work item");
+    _workQueueMgr.queueUnassignedWork(answering);
+  }
+
   @Test
   public void testGetWorkForChecking() throws Exception {
     String snapshot = "snapshot1";
@@ -198,6 +198,30 @@ public final class WorkResourceTest extends WorkMgrServiceV2TestBase {
     }
   }
 
+  @Test
+  public void testKillWorkMissingWorkItem() {
+    String network = "network1";
+    Main.getWorkMgr().initNetwork(network, null);
+    try (Response response = getWorkItemTarget(network, UUID.randomUUID().toString()).delete()) {
+      assertThat(response.getStatus(), equalTo(NOT_FOUND.getStatusCode()));
+    }
+  }
+
+  @Test
+  public void testKillWorkNotRunning() throws IOException {
+    String network = "network1";
+    String snapshot = "snapshot1";
+    UUID workId = UUID.randomUUID();
+    Main.getWorkMgr().initNetwork(network, null);
+    WorkMgrTestUtils.initSnapshotWithTopology(network, snapshot, ImmutableSet.of());
+    WorkItem workItem = new WorkItem(workId, network, snapshot, new HashMap<>());
+    Main.getWorkMgr().queueWork(workItem);
+    // queued work that has not been assigned to a worker cannot be killed
+    try (Response response = getWorkItemTarget(network, workId.toString()).delete()) {
+      assertThat(response.getStatus(), equalTo(BAD_REQUEST.getStatusCode()));
+    }
+  }
+
   @Test
   public void testListIncompleteWorkNoSnapshotNoWorkType() throws IOException {
     String network = "network1";
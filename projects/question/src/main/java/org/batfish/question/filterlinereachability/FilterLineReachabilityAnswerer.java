@@ -1,6 +1,7 @@
 package org.batfish.question.filterlinereachability;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
+import static org.batfish.common.BatfishInterruptedException.checkNotInterrupted;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 import static org.batfish.question.filterlinereachability.AclEraser.erase;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityRows.createMetadata;
@@ -451,10 +452,15 @@ public class FilterLineReachabilityAnswerer extends Answerer {
 
   private static List<UnreachableFilterLine> computeUnreachableFilterLines(
       List<AclSpecs> aclSpecs) {
+    // filters are analyzed on other threads, which must stop if this one is interrupted
+    Thread jobThread = Thread.currentThread();
     return aclSpecs.parallelStream()
         .flatMap(
-            aclSpec ->
-                FilterLineReachabilityUtils.computeUnreachableFilterLines(aclSpec, new BDDPacket()))
+            aclSpec -> {
+              checkNotInterrupted(jobThread, "analyzing filter lines");
+              return FilterLineReachabilityUtils.computeUnreachableFilterLines(
+                  aclSpec, new BDDPacket());
+            })
         .collect(Collectors.toList());
   }
 }
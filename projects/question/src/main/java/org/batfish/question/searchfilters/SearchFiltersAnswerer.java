@@ -1,5 +1,6 @@
 package org.batfish.question.searchfilters;
 
+import static org.batfish.common.BatfishInterruptedException.checkNotInterrupted;
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.activeAclSources;
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.referencedSources;
 import static org.batfish.question.FilterQuestionUtils.differentialBDDSourceManager;
@@ -90,6 +91,7 @@ public final class SearchFiltersAnswerer extends Answerer {
 
       Set<String> commonAcls = Sets.intersection(aclsForNode.keySet(), refAclsForNode.keySet());
       for (String aclName : commonAcls) {
+        checkNotInterrupted(String.format("searching filter %s on node %s", aclName, hostname));
         IpAccessList acl = aclsForNode.get(aclName);
         IpAccessList refAcl = refAclsForNode.get(aclName);
 
@@ -156,6 +158,8 @@ public final class SearchFiltersAnswerer extends Answerer {
       String hostname = e.getKey();
       NonDiffConfigContext configContext = e.getValue();
       for (IpAccessList acl : specifiedAcls.get(hostname).values()) {
+        checkNotInterrupted(
+            String.format("searching filter %s on node %s", acl.getName(), hostname));
         // Ensure that query is applicable to acl
         if (!query.canQuery(acl)) {
           continue;
@@ -4,6 +4,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multiset;
 import java.util.List;
@@ -18,6 +20,7 @@ import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.table.ColumnMetadata;
 import org.batfish.datamodel.table.Row;
@@ -36,26 +39,52 @@ public final class TracerouteAnswerer extends Answerer {
   public static final String COL_BASE_TRACE_COUNT = TableDiff.baseColumnName(COL_TRACE_COUNT);
   public static final String COL_DELTA_TRACE_COUNT = TableDiff.deltaColumnName(COL_TRACE_COUNT);
 
+  /**
+   * Number of flows traced at once when answering. Traces are pruned into rows after each batch,
+   * so only one batch of unpruned traces is held in memory.
+   */
+  private static final int TRACE_BATCH_SIZE = 256;
+
   TracerouteAnswerer(Question question, IBatfish batfish) {
     super(question, batfish);
   }
 
-  @VisibleForTesting
-  SortedMap<Flow, List<Trace>> getTraces(NetworkSnapshot snapshot, TracerouteQuestion q) {
-    TracerouteAnswererHelper helper =
-        new TracerouteAnswererHelper(
+  /** Returns the flows to trace in {@code snapshot} for {@code q}. */
+  private Set<Flow> getFlows(NetworkSnapshot snapshot, TracerouteQuestion q) {
+    return new TracerouteAnswererHelper(
             q.getHeaderConstraints(),
             q.getSourceLocationStr(),
-            _batfish.specifierContext(snapshot));
-    Set<Flow> flows = helper.getFlows();
-    return _batfish.getTracerouteEngine(snapshot).computeTraces(flows, q.getIgnoreFilters());
+            _batfish.specifierContext(snapshot))
+        .getFlows();
+  }
+
+  @VisibleForTesting
+  SortedMap<Flow, List<Trace>> getTraces(NetworkSnapshot snapshot, TracerouteQuestion q) {
+    return _batfish
+        .getTracerouteEngine(snapshot)
+        .computeTraces(getFlows(snapshot, q), q.getIgnoreFilters());
   }
 
   @Override
   public AnswerElement answer(NetworkSnapshot snapshot) {
     TracerouteQuestion q = (TracerouteQuestion) _question;
-    SortedMap<Flow, List<Trace>> flowTraces = getTraces(snapshot, q);
-    Multiset<Row> rows = flowTracesToRows(flowTraces, q.getMaxTraces());
+    Multiset<Row> rows = LinkedHashMultiset.create();
+    _batfish
+        .getTracerouteEngine(snapshot)
+        .computeTraceDags(
+            ImmutableSortedSet.copyOf(getFlows(snapshot, q)).iterator(),
+            ImmutableSet.of(),
+            q.getIgnoreFilters(),
+            TRACE_BATCH_SIZE,
+            (flow, traceDag) ->
+                rows.add(
+                    flowTracesToRow(
+                        flow,
+                        traceDag
+                            .getTraces()
+                            .map(TraceAndReverseFlow::getTrace)
+                            .collect(ImmutableList.toImmutableList()),
+                        q.getMaxTraces())));
 
     TableAnswerElement table = new TableAnswerElement(metadata(false));
     table.postProcessAnswer(_question, rows);
@@ -126,20 +155,16 @@ public final class TracerouteAnswerer extends Answerer {
       SortedMap<Flow, List<Trace>> flowTraces, int maxTraces) {
     Multiset<Row> rows = LinkedHashMultiset.create();
     for (Map.Entry<Flow, List<Trace>> flowTrace : flowTraces.entrySet()) {
-      List<Trace> traces = flowTrace.getValue();
-      List<Trace> prunedTraces = TracePruner.prune(traces, maxTraces);
-      rows.add(
-          Row.of(
-              COL_FLOW,
-              flowTrace.getKey(),
-              COL_TRACES,
-              prunedTraces,
-              COL_TRACE_COUNT,
-              traces.size()));
+      rows.add(flowTracesToRow(flowTrace.getKey(), flowTrace.getValue(), maxTraces));
     }
     return rows;
   }
 
+  private static Row flowTracesToRow(Flow flow, List<Trace> traces, int maxTraces) {
+    List<Trace> prunedTraces = TracePruner.prune(traces, maxTraces);
+    return Row.of(COL_FLOW, flow, COL_TRACES, prunedTraces, COL_TRACE_COUNT, traces.size());
+  }
+
   public static Multiset<Row> diffFlowTracesToRows(
       Map<Flow, List<Trace>> baseFlowTraces,
       Map<Flow, List<Trace>> deltaFlowTraces,
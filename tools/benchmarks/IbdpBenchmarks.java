@@ -0,0 +1,174 @@
+package tools.benchmarks;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.batfish.datamodel.ResolutionRestriction.alwaysTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.BgpTieBreaker;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.FibImpl;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.MultipathEquivalentAsPathMatchMode;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.ReceivedFromIp;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.bgp.LocalOriginationTypeTieBreaker;
+import org.batfish.datamodel.bgp.NextHopIpTieBreaker;
+import org.batfish.dataplane.rib.Bgpv4Rib;
+import org.batfish.dataplane.rib.Rib;
+import org.batfish.main.Batfish;
+import org.batfish.main.BatfishTestUtils;
+import org.junit.rules.TemporaryFolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks of route propagation on synthetic networks generated by {@link SyntheticNetworks}:
+ * full IBDP dataplane computation, {@link Bgpv4Rib} merges, and {@link FibImpl} construction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IbdpBenchmarks {
+  /** Number of BGP paths per prefix merged in {@link #bgpv4RibMerges()}. */
+  private static final int PATHS_PER_PREFIX = 4;
+
+  private static final int NUM_SPINES = 4;
+  private static final int NUM_OSPF_AREAS = 4;
+
+  @Param({"clos", "hubAndSpoke"})
+  public String topology;
+
+  /** Number of leaves (Clos) or spokes (hub-and-spoke). */
+  @Param({"16", "64", "256"})
+  public int size;
+
+  @Param({"8"})
+  public int prefixesPerNode;
+
+  private Batfish _batfish;
+  private List<Bgpv4Route> _bgpRoutes;
+  private Rib _largestMainRib;
+  private TemporaryFolder _tmp;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    SortedMap<String, Configuration> configs;
+    switch (topology) {
+      case "clos":
+        configs = SyntheticNetworks.clos(NUM_SPINES, size, prefixesPerNode);
+        break;
+      case "hubAndSpoke":
+        configs = SyntheticNetworks.hubAndSpoke(size, NUM_OSPF_AREAS, prefixesPerNode);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown topology: " + topology);
+    }
+    _tmp = new TemporaryFolder();
+    _tmp.create();
+    _batfish = BatfishTestUtils.getBatfish(configs, _tmp);
+
+    // Use the largest main RIB of the computed dataplane as input to FIB construction.
+    DataPlane dp =
+        _batfish.getDataPlanePlugin().computeDataPlane(_batfish.getSnapshot())._dataPlane;
+    FinalMainRib largest =
+        dp.getRibs().values().stream()
+            .max(Comparator.comparingInt(rib -> rib.getRoutes().size()))
+            .orElseThrow(() -> new IllegalStateException("No RIBs were computed"));
+    checkState(
+        largest.getRoutes().size() > size * prefixesPerNode,
+        "Routes did not propagate: largest RIB has only %s routes",
+        largest.getRoutes().size());
+    _largestMainRib = new Rib();
+    for (AbstractRoute route : largest.getRoutes()) {
+      _largestMainRib.mergeRoute(new AnnotatedRoute<>(route, Configuration.DEFAULT_VRF_NAME));
+    }
+
+    _bgpRoutes = syntheticBgpRoutes(size * prefixesPerNode);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _tmp.delete();
+  }
+
+  /** Several paths with different AS path lengths and peers for each of {@code numPrefixes}. */
+  private static List<Bgpv4Route> syntheticBgpRoutes(int numPrefixes) {
+    ImmutableList.Builder<Bgpv4Route> routes = ImmutableList.builder();
+    Bgpv4Route.Builder rb =
+        Bgpv4Route.testBuilder()
+            .setLocalPreference(100)
+            .setOriginType(OriginType.IGP)
+            .setProtocol(RoutingProtocol.BGP);
+    for (int p = 0; p < numPrefixes; p++) {
+      Prefix prefix = Prefix.create(Ip.create(Ip.parse("100.0.0.0").asLong() + (p << 8)), 24);
+      for (int path = 0; path < PATHS_PER_PREFIX; path++) {
+        Ip peer = Ip.create(Ip.parse("10.0.0.0").asLong() + path);
+        ImmutableList.Builder<Long> asns = ImmutableList.builder();
+        for (int hop = 0; hop <= (p + path) % PATHS_PER_PREFIX; hop++) {
+          asns.add(65000L + path + hop);
+        }
+        routes.add(
+            rb.setNetwork(prefix)
+                .setAsPath(AsPath.ofSingletonAsSets(asns.build()))
+                .setOriginatorIp(peer)
+                .setReceivedFrom(ReceivedFromIp.of(peer))
+                .build());
+      }
+    }
+    return routes.build();
+  }
+
+  @Benchmark
+  public int computeDataPlane() {
+    return _batfish
+        .getDataPlanePlugin()
+        .computeDataPlane(_batfish.getSnapshot())
+        ._dataPlane
+        .getRibs()
+        .size();
+  }
+
+  @Benchmark
+  public int bgpv4RibMerges() {
+    Bgpv4Rib rib =
+        new Bgpv4Rib(
+            null,
+            BgpTieBreaker.ROUTER_ID,
+            1,
+            MultipathEquivalentAsPathMatchMode.EXACT_PATH,
+            false,
+            LocalOriginationTypeTieBreaker.NO_PREFERENCE,
+            NextHopIpTieBreaker.HIGHEST_NEXT_HOP_IP,
+            NextHopIpTieBreaker.HIGHEST_NEXT_HOP_IP);
+    for (Bgpv4Route route : _bgpRoutes) {
+      rib.mergeRouteGetDelta(route);
+    }
+    return rib.getNumRoutes();
+  }
+
+  @Benchmark
+  public int fibConstruction() {
+    return new FibImpl(_largestMainRib, alwaysTrue()).allEntries().size();
+  }
+}
@@ -0,0 +1,79 @@
+package tools.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.batfish.common.BatfishLogger;
+import org.batfish.config.Settings;
+import org.batfish.grammar.BatfishCombinedParser;
+import org.batfish.grammar.palo_alto.PaloAltoCombinedParser;
+import org.batfish.main.Batfish;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of parsing large synthetic Palo Alto set-line configurations, sequentially and in
+ * parallel chunks of lines (see {@link BatfishCombinedParser#setMinParallelChunkChars}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmarks {
+  /** Number of address objects, each also used by a security rule of 6 lines. */
+  @Param({"1000", "10000", "100000"})
+  public int size;
+
+  @Param({"true", "false"})
+  public boolean parallel;
+
+  private BatfishLogger _logger;
+  private Settings _settings;
+  private String _text;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    _logger = new BatfishLogger(BatfishLogger.LEVELSTR_FATAL, false);
+    _settings = new Settings();
+    _settings.setLogger(_logger);
+    // lines are only parsed in parallel with recovery
+    _settings.setDisableUnrecognized(false);
+    _text = paloAltoConfig(size);
+  }
+
+  /** A firewall with {@code size} address objects, each allowed by its own security rule. */
+  private static String paloAltoConfig(int size) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("set deviceconfig system hostname fw\n");
+    sb.append("set network interface ethernet ethernet1/1 layer3 ip 10.0.0.1/16\n");
+    sb.append("set network interface ethernet ethernet1/2 layer3 ip 10.1.0.1/16\n");
+    sb.append("set zone inside network layer3 ethernet1/1\n");
+    sb.append("set zone outside network layer3 ethernet1/2\n");
+    for (int i = 0; i < size; i++) {
+      String addr = String.format("10.%d.%d.%d", 2 + (i >> 16), (i >> 8) & 0xff, i & 0xff);
+      sb.append(String.format("set address addr%d ip-netmask %s\n", i, addr));
+      String rule = "set rulebase security rules rule" + i;
+      sb.append(rule).append(" from inside\n");
+      sb.append(rule).append(" to outside\n");
+      sb.append(rule).append(" source any\n");
+      sb.append(rule).append(" destination addr").append(i).append('\n');
+      sb.append(rule).append(" service service-https\n");
+      sb.append(rule).append(" action allow\n");
+    }
+    return sb.toString();
+  }
+
+  @Benchmark
+  public ParserRuleContext parsePaloAlto() {
+    PaloAltoCombinedParser parser = new PaloAltoCombinedParser(_text, _settings, null);
+    if (!parallel) {
+      parser.setMinParallelChunkChars(Integer.MAX_VALUE);
+    }
+    return Batfish.parse(parser, _logger, _settings);
+  }
+}
@@ -0,0 +1,78 @@
+package tools.benchmarks;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.common.BatfishLogger;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.storage.FileBasedStorage;
+import org.batfish.storage.SerializationBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks of loading stored configurations of synthetic Clos networks generated by {@link
+ * SyntheticNetworks}, written with each {@link SerializationBackend}. Run with {@code -prof gc} to
+ * also compare the garbage produced while loading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmarks {
+  private static final NetworkId NETWORK = new NetworkId("network");
+  private static final SnapshotId SNAPSHOT = new SnapshotId("snapshot");
+
+  @Param({"JAVA", "JAVA_DEDUPLICATED"})
+  public SerializationBackend backend;
+
+  /** Number of leaves. */
+  @Param({"64", "256", "1024"})
+  public int size;
+
+  private Path _baseDir;
+  private FileBasedStorage _storage;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    SortedMap<String, Configuration> configs = SyntheticNetworks.clos(4, size, 8);
+    _baseDir = Files.createTempDirectory("storageBenchmarks");
+    _storage =
+        new FileBasedStorage(
+            _baseDir,
+            new BatfishLogger(BatfishLogger.LEVELSTR_FATAL, false),
+            (a, b) -> new AtomicInteger(),
+            backend);
+    _storage.storeConfigurations(
+        configs, new ConvertConfigurationAnswerElement(), null, NETWORK, SNAPSHOT);
+    checkState(
+        loadConfigurations().size() == configs.size(), "Stored configurations did not load");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    MoreFiles.deleteRecursively(_baseDir, RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  @Benchmark
+  public SortedMap<String, Configuration> loadConfigurations() {
+    return _storage.loadConfigurations(NETWORK, SNAPSHOT);
+  }
+}
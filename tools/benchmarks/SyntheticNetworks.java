@@ -0,0 +1,275 @@
+package tools.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.batfish.datamodel.bgp.LocalOriginationTypeTieBreaker.NO_PREFERENCE;
+import static org.batfish.datamodel.bgp.NextHopIpTieBreaker.HIGHEST_NEXT_HOP_IP;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import org.batfish.datamodel.BgpActivePeerConfig;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.InterfaceType;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.bgp.Ipv4UnicastAddressFamily;
+import org.batfish.datamodel.ospf.OspfArea;
+import org.batfish.datamodel.ospf.OspfInterfaceSettings;
+import org.batfish.datamodel.ospf.OspfProcess;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+
+/**
+ * Generates synthetic vendor-independent networks of configurable size for dataplane benchmarks.
+ *
+ * <p>Addressing: point-to-point links are numbered /31s out of 10.0.0.0/8, loopbacks are /32s out
+ * of 2.0.0.0/8, and originated prefixes are /24s out of 100.0.0.0/8.
+ */
+public final class SyntheticNetworks {
+
+  private static final long LINKS_BASE = Ip.parse("10.0.0.0").asLong();
+  private static final long LOOPBACKS_BASE = Ip.parse("2.0.0.0").asLong();
+  private static final long PREFIXES_BASE = Ip.parse("100.0.0.0").asLong();
+
+  private static final String EXPORT_POLICY_NAME = "export";
+  private static final long SPINE_AS = 65000L;
+  private static final long HUB_AS = 65000L;
+
+  /**
+   * A two-tier Clos (leaf-spine) fabric running eBGP. Every leaf connects to every spine. Spines
+   * share an AS, each leaf has its own AS, and each leaf originates {@code prefixesPerLeaf}
+   * connected /24s.
+   */
+  public static SortedMap<String, Configuration> clos(
+      int numSpines, int numLeaves, int prefixesPerLeaf) {
+    checkArgument(numSpines > 0 && numLeaves > 0, "Need at least one spine and one leaf");
+    SyntheticNetworks net = new SyntheticNetworks();
+    List<Configuration> spines = new ArrayList<>();
+    for (int s = 0; s < numSpines; s++) {
+      spines.add(net.newNode(String.format("spine%d", s)));
+    }
+    for (int l = 0; l < numLeaves; l++) {
+      Configuration leaf = net.newNode(String.format("leaf%d", l));
+      long leafAs = SPINE_AS + 1 + l;
+      net.originatePrefixes(leaf, prefixesPerLeaf);
+      for (Configuration spine : spines) {
+        Ip[] link = net.newLink(leaf, spine);
+        net.addPeer(leaf, leafAs, SPINE_AS, link[0], link[1], false);
+        net.addPeer(spine, SPINE_AS, leafAs, link[1], link[0], false);
+      }
+    }
+    return net.build();
+  }
+
+  /**
+   * A hub-and-spoke network in a single AS. The hub is an iBGP route reflector with every spoke as
+   * a client, peering between loopbacks. OSPF provides loopback reachability: the hub is an ABR
+   * with its loopback in area 0, and spokes are spread across {@code numAreas} non-backbone areas.
+   * Each spoke originates {@code prefixesPerSpoke} connected /24s into BGP.
+   */
+  public static SortedMap<String, Configuration> hubAndSpoke(
+      int numSpokes, int numAreas, int prefixesPerSpoke) {
+    checkArgument(numSpokes > 0 && numAreas > 0, "Need at least one spoke and one area");
+    SyntheticNetworks net = new SyntheticNetworks();
+    Configuration hub = net.newNode("hub");
+    Ip hubLoopback = net.loopback(hub);
+    OspfProcess hubOspf = net.newOspfProcess(hub, hubLoopback);
+    List<List<String>> hubInterfacesByArea = new ArrayList<>();
+    for (int a = 0; a <= numAreas; a++) {
+      hubInterfacesByArea.add(new ArrayList<>());
+    }
+    hubInterfacesByArea.get(0).add(net.enableOspf(hub, "Loopback0", 0L, true));
+
+    for (int i = 0; i < numSpokes; i++) {
+      Configuration spoke = net.newNode(String.format("spoke%d", i));
+      long area = 1 + i % numAreas;
+      Ip spokeLoopback = net.loopback(spoke);
+      net.originatePrefixes(spoke, prefixesPerSpoke);
+      net.newLink(spoke, hub);
+
+      OspfProcess spokeOspf = net.newOspfProcess(spoke, spokeLoopback);
+      OspfArea.builder()
+          .setNumber(area)
+          .setOspfProcess(spokeOspf)
+          .addInterface(net.enableOspf(spoke, "Loopback0", area, true))
+          .addInterface(net.enableOspf(spoke, net.linkInterfaceName(hub), area, false))
+          .build();
+      hubInterfacesByArea
+          .get((int) area)
+          .add(net.enableOspf(hub, net.linkInterfaceName(spoke), area, false));
+
+      net.addPeer(spoke, HUB_AS, HUB_AS, spokeLoopback, hubLoopback, false);
+      net.addPeer(hub, HUB_AS, HUB_AS, hubLoopback, spokeLoopback, true);
+    }
+    for (int a = 0; a <= numAreas; a++) {
+      OspfArea.builder()
+          .setNumber(a)
+          .setOspfProcess(hubOspf)
+          .addInterfaces(hubInterfacesByArea.get(a))
+          .build();
+    }
+    return net.build();
+  }
+
+  private final ImmutableSortedMap.Builder<String, Configuration> _configs;
+  private final Interface.Builder _ib;
+  private long _numLinks;
+  private long _numNodes;
+  private long _numPrefixes;
+
+  private SyntheticNetworks() {
+    _configs = ImmutableSortedMap.naturalOrder();
+    _ib = Interface.builder().setType(InterfaceType.PHYSICAL);
+  }
+
+  private SortedMap<String, Configuration> build() {
+    return _configs.build();
+  }
+
+  private Configuration newNode(String hostname) {
+    Configuration c =
+        Configuration.builder()
+            .setHostname(hostname)
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    Vrf vrf = Vrf.builder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    // Export BGP and connected routes to all BGP peers
+    If acceptBgpAndConnected = new If();
+    acceptBgpAndConnected.setGuard(
+        new MatchProtocol(RoutingProtocol.BGP, RoutingProtocol.IBGP, RoutingProtocol.CONNECTED));
+    acceptBgpAndConnected.setTrueStatements(
+        ImmutableList.of(Statements.ExitAccept.toStaticStatement()));
+    acceptBgpAndConnected.setFalseStatements(
+        ImmutableList.of(Statements.ExitReject.toStaticStatement()));
+    RoutingPolicy.builder()
+        .setOwner(c)
+        .setName(EXPORT_POLICY_NAME)
+        .setStatements(ImmutableList.of(acceptBgpAndConnected))
+        .build();
+    // The router ID doubles as the loopback address, if the node has a loopback
+    BgpProcess.builder()
+        .setRouterId(Ip.create(LOOPBACKS_BASE + _numNodes++))
+        .setVrf(vrf)
+        .setEbgpAdminCost(20)
+        .setIbgpAdminCost(200)
+        .setLocalAdminCost(200)
+        .setLocalOriginationTypeTieBreaker(NO_PREFERENCE)
+        .setNetworkNextHopIpTieBreaker(HIGHEST_NEXT_HOP_IP)
+        .setRedistributeNextHopIpTieBreaker(HIGHEST_NEXT_HOP_IP)
+        .build();
+    _configs.put(hostname, c);
+    return c;
+  }
+
+  private Vrf defaultVrf(Configuration c) {
+    return c.getVrfs().get(Configuration.DEFAULT_VRF_NAME);
+  }
+
+  /** Creates a loopback interface on {@code c}, returning its address. */
+  private Ip loopback(Configuration c) {
+    Ip ip = defaultVrf(c).getBgpProcess().getRouterId();
+    _ib.setOwner(c)
+        .setVrf(defaultVrf(c))
+        .setName("Loopback0")
+        .setAddress(ConcreteInterfaceAddress.create(ip, Prefix.MAX_PREFIX_LENGTH))
+        .setOspfSettings(null)
+        .build();
+    return ip;
+  }
+
+  /** Creates {@code count} interfaces on {@code c}, each with a connected /24. */
+  private void originatePrefixes(Configuration c, int count) {
+    for (int i = 0; i < count; i++) {
+      Ip ip = Ip.create(PREFIXES_BASE + (_numPrefixes++ << 8) + 1);
+      _ib.setOwner(c)
+          .setVrf(defaultVrf(c))
+          .setName(String.format("Prefix%d", i))
+          .setAddress(ConcreteInterfaceAddress.create(ip, 24))
+          .setOspfSettings(null)
+          .build();
+    }
+  }
+
+  private String linkInterfaceName(Configuration neighbor) {
+    return "to-" + neighbor.getHostname();
+  }
+
+  /**
+   * Creates a point-to-point /31 link between {@code c1} and {@code c2}, returning the addresses of
+   * the interfaces on {@code c1} and {@code c2}, respectively.
+   */
+  private Ip[] newLink(Configuration c1, Configuration c2) {
+    Ip ip1 = Ip.create(LINKS_BASE + 2 * _numLinks);
+    Ip ip2 = Ip.create(LINKS_BASE + 2 * _numLinks + 1);
+    _numLinks++;
+    _ib.setOwner(c1)
+        .setVrf(defaultVrf(c1))
+        .setName(linkInterfaceName(c2))
+        .setAddress(ConcreteInterfaceAddress.create(ip1, Prefix.MAX_PREFIX_LENGTH - 1))
+        .setOspfSettings(null)
+        .build();
+    _ib.setOwner(c2)
+        .setVrf(defaultVrf(c2))
+        .setName(linkInterfaceName(c1))
+        .setAddress(ConcreteInterfaceAddress.create(ip2, Prefix.MAX_PREFIX_LENGTH - 1))
+        .setOspfSettings(null)
+        .build();
+    return new Ip[] {ip1, ip2};
+  }
+
+  private OspfProcess newOspfProcess(Configuration c, Ip routerId) {
+    return OspfProcess.builder()
+        .setVrf(defaultVrf(c))
+        .setProcessId("1")
+        .setReferenceBandwidth(1e8)
+        .setRouterId(routerId)
+        .build();
+  }
+
+  /** Enables OSPF in {@code area} on the given interface of {@code c}, returning its name. */
+  private String enableOspf(Configuration c, String ifaceName, long area, boolean passive) {
+    c.getAllInterfaces()
+        .get(ifaceName)
+        .setOspfSettings(
+            OspfInterfaceSettings.defaultSettingsBuilder()
+                .setProcess("1")
+                .setAreaName(area)
+                .setCost(1)
+                .setPassive(passive)
+                .build());
+    return ifaceName;
+  }
+
+  private void addPeer(
+      Configuration c,
+      long localAs,
+      long remoteAs,
+      Ip localIp,
+      Ip peerIp,
+      boolean routeReflectorClient) {
+    BgpProcess proc = defaultVrf(c).getBgpProcess();
+    BgpActivePeerConfig.builder()
+        .setBgpProcess(proc)
+        .setClusterId(proc.getRouterId().asLong())
+        .setLocalAs(localAs)
+        .setRemoteAs(remoteAs)
+        .setLocalIp(localIp)
+        .setPeerAddress(peerIp)
+        .setIpv4UnicastAddressFamily(
+            Ipv4UnicastAddressFamily.builder()
+                .setExportPolicy(EXPORT_POLICY_NAME)
+                .setRouteReflectorClient(routeReflectorClient)
+                .build())
+        .build();
+  }
+}
@@ -0,0 +1,162 @@
+package tools.stress_tests;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import org.batfish.common.CoordConsts;
+import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.CoordConstsV2;
+import org.batfish.common.WorkItem;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.common.util.WorkItemBuilder;
+import org.batfish.datamodel.pojo.WorkStatus;
+import org.batfish.version.BatfishVersion;
+
+/**
+ * Generates bursty question traffic against a running coordinator through its v2 REST API, and
+ * reports the latency from queueing each question until its work reaches a terminal status.
+ *
+ * <p>The network, snapshot, and question must already exist, e.g., created via pybatfish. Each
+ * simulated client repeatedly queues the question and polls its status, like a notebook would.
+ *
+ * <p>Usage: {@code CoordinatorLoadGenerator <host:port> <network> <snapshot> <question> <clients>
+ * <questionsPerClient>}
+ */
+public final class CoordinatorLoadGenerator {
+
+  private static final long POLL_INTERVAL_MS = 10;
+
+  private final Client _client;
+  private final String _network;
+  private final String _question;
+  private final String _snapshot;
+  private final WebTarget _workTarget;
+
+  private CoordinatorLoadGenerator(
+      String hostAndPort, String network, String snapshot, String question) {
+    _client = ClientBuilder.newClient();
+    _network = network;
+    _question = question;
+    _snapshot = snapshot;
+    _workTarget =
+        _client
+            .target(String.format("http://%s%s", hostAndPort, CoordConsts.SVC_CFG_WORK_MGR2))
+            .path(CoordConstsV2.RSC_NETWORKS)
+            .path(network)
+            .path(CoordConstsV2.RSC_WORK);
+  }
+
+  private static Invocation.Builder withHeaders(WebTarget target) {
+    return target
+        .request(MediaType.APPLICATION_JSON)
+        .header(CoordConstsV2.HTTP_HEADER_BATFISH_APIKEY, CoordConsts.DEFAULT_API_KEY)
+        .header(CoordConstsV2.HTTP_HEADER_BATFISH_VERSION, BatfishVersion.getVersionStatic());
+  }
+
+  /** Queues one question and waits for it to terminate, returning the latency in nanoseconds. */
+  private long askAndWait() throws IOException, InterruptedException {
+    WorkItem workItem =
+        WorkItemBuilder.getWorkItemAnswerQuestion(_question, _network, _snapshot, null, false);
+    long start = System.nanoTime();
+    try (Response response =
+        withHeaders(_workTarget)
+            .post(
+                Entity.entity(
+                    BatfishObjectMapper.writeString(workItem), MediaType.APPLICATION_JSON))) {
+      if (response.getStatus() != Status.CREATED.getStatusCode()) {
+        throw new IOException(
+            String.format(
+                "Failed to queue work: %s %s",
+                response.getStatus(), response.readEntity(String.class)));
+      }
+    }
+    WebTarget statusTarget = _workTarget.path(workItem.getId().toString());
+    while (true) {
+      try (Response response = withHeaders(statusTarget).get()) {
+        if (response.getStatus() != Status.OK.getStatusCode()) {
+          throw new IOException(
+              String.format("Failed to get work status: %s", response.getStatus()));
+        }
+        WorkStatus status =
+            BatfishObjectMapper.mapper()
+                .readValue(response.readEntity(String.class), WorkStatus.class);
+        WorkStatusCode code = status.getWorkStatusCode();
+        if (code.isTerminated()) {
+          if (code != WorkStatusCode.TERMINATEDNORMALLY) {
+            throw new IOException(String.format("Work %s ended with %s", workItem.getId(), code));
+          }
+          return System.nanoTime() - start;
+        }
+      }
+      Thread.sleep(POLL_INTERVAL_MS);
+    }
+  }
+
+  private void run(int numClients, int questionsPerClient) throws Exception {
+    ExecutorService clients = Executors.newFixedThreadPool(numClients);
+    List<Future<List<Long>>> futures = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int i = 0; i < numClients; i++) {
+      futures.add(
+          clients.submit(
+              () -> {
+                ImmutableList.Builder<Long> latencies = ImmutableList.builder();
+                for (int q = 0; q < questionsPerClient; q++) {
+                  latencies.add(askAndWait());
+                }
+                return latencies.build();
+              }));
+    }
+    List<Long> latencies = new ArrayList<>();
+    for (Future<List<Long>> future : futures) {
+      latencies.addAll(future.get());
+    }
+    long elapsedNanos = System.nanoTime() - start;
+    clients.shutdown();
+    _client.close();
+
+    Collections.sort(latencies);
+    System.out.printf(
+        "%d questions from %d clients in %d ms (%.1f questions/s)%n",
+        latencies.size(),
+        numClients,
+        TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+        latencies.size() / (elapsedNanos / 1e9));
+    System.out.printf(
+        "latency ms: p50=%d p90=%d p99=%d max=%d%n",
+        percentileMillis(latencies, 50),
+        percentileMillis(latencies, 90),
+        percentileMillis(latencies, 99),
+        percentileMillis(latencies, 100));
+  }
+
+  private static long percentileMillis(List<Long> sortedNanos, int percentile) {
+    int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.size()) - 1;
+    return TimeUnit.NANOSECONDS.toMillis(sortedNanos.get(Math.max(index, 0)));
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length != 6) {
+      System.err.println(
+          "Usage: CoordinatorLoadGenerator <host:port> <network> <snapshot> <question> <clients>"
+              + " <questionsPerClient>");
+      System.exit(1);
+    }
+    new CoordinatorLoadGenerator(args[0], args[1], args[2], args[3])
+        .run(Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+  }
+}
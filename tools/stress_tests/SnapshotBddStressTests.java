@@ -3,15 +3,23 @@ package tools.stress_tests;
 import static com.google.common.base.Preconditions.checkState;
 import static org.batfish.main.TestrigText.loadTestrig;
 
+import com.google.common.collect.Table;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.ParseException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.BDDReachabilityAnalysis;
 import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
+import org.batfish.bddreachability.BDDReachabilityUtils;
+import org.batfish.bddreachability.FixpointStats;
 import org.batfish.bddreachability.IpsRoutedOutInterfacesFactory;
+import org.batfish.bddreachability.transition.Transition;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.bdd.BDDSourceManager;
@@ -26,6 +34,8 @@ import org.batfish.specifier.InferFromLocationIpSpaceAssignmentSpecifier;
 import org.batfish.specifier.IpSpaceAssignment;
 import org.batfish.specifier.LocationSpecifier;
 import org.batfish.specifier.SpecifierContext;
+import org.batfish.symbolic.state.Query;
+import org.batfish.symbolic.state.StateExpr;
 
 public class SnapshotBddStressTests {
   private Batfish _batfish;
@@ -99,6 +109,65 @@ public class SnapshotBddStressTests {
     }
   }
 
+  /**
+   * Repeatedly runs backward all-pairs reachability with both {@link
+   * BDDReachabilityAnalysis.FixpointScheduling fixpoint schedulings}, checks that they compute the
+   * same result, and prints the time of each.
+   */
+  void fixpointScheduling() {
+    NetworkSnapshot snapshot = _batfish.getSnapshot();
+    _batfish.computeDataPlane(snapshot);
+    DataPlane dataPlane = _batfish.loadDataPlane(snapshot);
+    ForwardingAnalysis forwardingAnalysis = dataPlane.getForwardingAnalysis();
+    IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory =
+        new IpsRoutedOutInterfacesFactory(dataPlane.getFibs());
+    SpecifierContext ctx = _batfish.specifierContext(snapshot);
+    IpSpaceAssignment ipSpaceAssignment =
+        InferFromLocationIpSpaceAssignmentSpecifier.INSTANCE.resolve(
+            LocationSpecifier.ALL_LOCATIONS.resolve(ctx), ctx);
+
+    BDDPacket pkt = new BDDPacket();
+    BDDReachabilityAnalysis analysis =
+        new BDDReachabilityAnalysisFactory(
+                pkt, _configs, forwardingAnalysis, ipsRoutedOutInterfacesFactory, false, false)
+            .bddReachabilityAnalysis(ipSpaceAssignment, true);
+    Table<StateExpr, StateExpr, Transition> transposedEdgeTable =
+        BDDReachabilityUtils.transposeAndMaterialize(analysis.getForwardEdgeTable());
+    long t = System.currentTimeMillis();
+    List<Set<StateExpr>> transposedSccs =
+        BDDReachabilityUtils.computeSccsInTopologicalOrder(transposedEdgeTable);
+    System.out.println(
+        String.format(
+            "%d states in %d SCCs computed in %dms",
+            transposedSccs.stream().mapToInt(Set::size).sum(),
+            transposedSccs.size(),
+            System.currentTimeMillis() - t));
+
+    while (true) {
+      Map<StateExpr, BDD> visitCountResult = new HashMap<>();
+      visitCountResult.put(Query.INSTANCE, analysis.getQueryHeaderSpaceBdd());
+      t = System.currentTimeMillis();
+      FixpointStats visitCountStats =
+          BDDReachabilityUtils.backwardFixpointTransposed(transposedEdgeTable, visitCountResult);
+      long visitCountTime = System.currentTimeMillis() - t;
+
+      Map<StateExpr, BDD> sccResult = new HashMap<>();
+      sccResult.put(Query.INSTANCE, analysis.getQueryHeaderSpaceBdd());
+      t = System.currentTimeMillis();
+      FixpointStats sccStats =
+          BDDReachabilityUtils.backwardSccFixpointTransposed(
+              transposedEdgeTable, transposedSccs, sccResult);
+      long sccTime = System.currentTimeMillis() - t;
+
+      checkState(
+          visitCountResult.equals(sccResult), "Fixpoint schedulings computed different results");
+      System.out.println(String.format("visit-count: %dms %s", visitCountTime, visitCountStats));
+      System.out.println(String.format("scc: %dms %s", sccTime, sccStats));
+      visitCountResult.values().forEach(BDD::free);
+      sccResult.values().forEach(BDD::free);
+    }
+  }
+
   public static void main(String[] args) throws IOException, ParseException {
     String snapshotDir = args[0];
     String test = args[1];
@@ -112,6 +181,9 @@ public class SnapshotBddStressTests {
       case "bddReachabilityAnalysisFactory":
         stressTest.bddReachabilityAnalysisFactory();
         break;
+      case "fixpointScheduling":
+        stressTest.fixpointScheduling();
+        break;
       default:
         throw new IllegalArgumentException("Unrecognized stress test: " + test);
     }